@@ -0,0 +1,205 @@
+package com.frisian_draught.AI.Book;
+
+import com.frisian_draught.board.rules.LegalMove;
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.RulesEngine;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * An opening book written by {@link OpeningBookBuilder}: how often each move was played from a
+ * position and how those games ended.
+ *
+ * <p>The file is a 16-byte header followed by fixed-size entries sorted by the {@link
+ * Position#getKey() Zobrist key} of the position and then by move. It is memory-mapped and
+ * looked up by binary search, so a probe reads a few pages and needs no locking.
+ */
+public class OpeningBook {
+
+    private static final Logger logger = LogManager.getLogger(OpeningBook.class);
+
+    /** Default location of the book, next to the game's exports. */
+    public static final Path DEFAULT_FILE =
+            Paths.get(System.getProperty("user.home"), ".frisian-draught", "opening.fdob");
+
+    static final int MAGIC = 0x46444F42; // "FDOB"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+
+    // Per entry: key, from square, to square, two unused bytes, games, wins, draws
+    static final int ENTRY_BYTES = 24;
+
+    private static OpeningBook defaultBook;
+    private static FileTime defaultModified;
+
+    private final MappedByteBuffer buffer;
+    private final long entryCount;
+
+    /**
+     * A move of the book and the games it was played in, counted for the side that played it.
+     *
+     * @param from the square the move starts on, 0 to 49
+     * @param to the square the move ends on, 0 to 49
+     * @param games the number of games the move was played in
+     * @param wins the number of those games won by the side that played it
+     * @param draws the number of those games drawn
+     */
+    public record BookMove(int from, int to, int games, int wins, int draws) {
+
+        /** Returns the share of points the move scored, a draw counting half. */
+        public double score() {
+            return games == 0 ? 0.0 : (wins + draws / 2.0) / games;
+        }
+    }
+
+    /**
+     * Opens a book file.
+     *
+     * @param file the book
+     * @throws IOException if the file cannot be read or is not a book
+     */
+    public OpeningBook(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Opening book too large to map: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_BYTES
+                || buffer.getInt(0) != MAGIC
+                || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not an opening book: " + file);
+        }
+        entryCount = buffer.getLong(8);
+        if (buffer.capacity() != HEADER_BYTES + entryCount * ENTRY_BYTES) {
+            throw new IOException("Truncated opening book: " + file);
+        }
+    }
+
+    /**
+     * Returns the book at {@link #DEFAULT_FILE}. The file is checked on every call and opened
+     * again when its modification time changes, so a book built or rebuilt while the game runs
+     * is used from the next move on without a restart. A file that cannot be read is reported
+     * once and not retried until it changes.
+     *
+     * @return the book, or null if there is none or it cannot be read
+     */
+    public static synchronized OpeningBook openDefault() {
+        FileTime modified;
+        try {
+            modified = Files.getLastModifiedTime(DEFAULT_FILE);
+        } catch (IOException e) {
+            defaultBook = null;
+            defaultModified = null;
+            return null;
+        }
+        if (!modified.equals(defaultModified)) {
+            defaultModified = modified;
+            try {
+                defaultBook = new OpeningBook(DEFAULT_FILE);
+            } catch (IOException e) {
+                defaultBook = null;
+                logger.error("Failed to open opening book: {}", DEFAULT_FILE, e);
+            }
+        }
+        return defaultBook;
+    }
+
+    /** Returns the number of position and move pairs in the book. */
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Looks up the moves played from a position.
+     *
+     * @param key the Zobrist key of the position
+     * @return the book moves, in square order, empty if the position is not in the book
+     */
+    public List<BookMove> probe(long key) {
+        // Binary search for the first entry of the key
+        long low = 0;
+        long high = entryCount;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (keyAt(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        List<BookMove> moves = new ArrayList<>();
+        for (long entry = low; entry < entryCount && keyAt(entry) == key; entry++) {
+            int offset = offset(entry);
+            moves.add(
+                    new BookMove(
+                            buffer.get(offset + 8),
+                            buffer.get(offset + 9),
+                            buffer.getInt(offset + 12),
+                            buffer.getInt(offset + 16),
+                            buffer.getInt(offset + 20)));
+        }
+        return moves;
+    }
+
+    /**
+     * Picks a book move for a position, at random in proportion to how often each move was
+     * played. Book moves that are not legal in the position, after a key collision, are skipped.
+     *
+     * @param position the position, left unchanged
+     * @param random the source of the choice
+     * @return the move to play, or null if the position is not in the book
+     */
+    public LegalMove select(Position position, Random random) {
+        List<BookMove> bookMoves = probe(position.getKey());
+        if (bookMoves.isEmpty()) {
+            return null;
+        }
+        List<LegalMove> legalMoves = RulesEngine.generateMoves(position);
+        List<LegalMove> candidates = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        long total = 0;
+        for (BookMove bookMove : bookMoves) {
+            for (LegalMove legalMove : legalMoves) {
+                if (legalMove.getFrom() == bookMove.from() && legalMove.getTo() == bookMove.to()) {
+                    candidates.add(legalMove);
+                    weights.add(bookMove.games());
+                    total += bookMove.games();
+                    break;
+                }
+            }
+        }
+        if (total == 0) {
+            return null;
+        }
+        long pick = (long) (random.nextDouble() * total);
+        for (int i = 0; i < candidates.size(); i++) {
+            pick -= weights.get(i);
+            if (pick < 0) {
+                return candidates.get(i);
+            }
+        }
+        return candidates.get(candidates.size() - 1);
+    }
+
+    private long keyAt(long entry) {
+        return buffer.getLong(offset(entry));
+    }
+
+    private static int offset(long entry) {
+        return (int) (HEADER_BYTES + entry * ENTRY_BYTES);
+    }
+}
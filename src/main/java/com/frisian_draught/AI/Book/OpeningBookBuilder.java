@@ -0,0 +1,335 @@
+package com.frisian_draught.AI.Book;
+
+import com.frisian_draught.board.Move;
+import com.frisian_draught.board.rules.LegalMove;
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.RulesEngine;
+import com.frisian_draught.board.rules.Squares;
+import com.frisian_draught.board.rules.UndoInfo;
+import com.frisian_draught.util.PDNParser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * Builds an {@link OpeningBook} from PDN game collections.
+ *
+ * <p>The games are streamed one at a time through {@link PDNParser#streamGames} and replayed
+ * from the start position for their first plies. Every position and move is counted, with the
+ * result for the side that played it, in a map of bounded size. When the map is full it is
+ * written out as a sorted run, and the runs are merged into the book at the end, so a collection
+ * of any size is built in bounded memory. A game's replay stops at the first move that is not
+ * legal, such as in games from a set-up position.
+ *
+ * <p>Command line usage:
+ *
+ * <pre>
+ * OpeningBookBuilder &lt;book&gt; &lt;file.pdn | directory&gt;... [--max-ply N]
+ * </pre>
+ */
+public final class OpeningBookBuilder {
+
+    /** Default number of plies of each game that go into the book. */
+    public static final int DEFAULT_MAX_PLY = 30;
+
+    /** Default number of entries counted in memory before a run is written out. */
+    public static final int DEFAULT_RUN_ENTRIES = 1 << 20;
+
+    // Outcome of a game without a result: it counts as played, neither won nor drawn
+    private static final int UNKNOWN_RESULT = 2;
+
+    private static final Comparator<Entry> ORDER =
+            Comparator.comparingLong(Entry::key).thenComparingInt(Entry::move);
+
+    private OpeningBookBuilder() {
+        throw new UnsupportedOperationException(
+                "This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Builds a book with the default limits.
+     *
+     * @param pdnFiles the game collections to read
+     * @param book the book file to write, replaced if it exists
+     * @return the number of games read
+     * @throws IOException if a collection cannot be read or the book cannot be written
+     */
+    public static long build(List<Path> pdnFiles, Path book) throws IOException {
+        return build(pdnFiles, book, DEFAULT_MAX_PLY, DEFAULT_RUN_ENTRIES);
+    }
+
+    /**
+     * Builds a book.
+     *
+     * @param pdnFiles the game collections to read
+     * @param book the book file to write, replaced if it exists
+     * @param maxPly the number of plies of each game to count
+     * @param runEntries the number of entries counted in memory before a run is written out
+     * @return the number of games read
+     * @throws IOException if a collection cannot be read or the book cannot be written
+     */
+    public static long build(List<Path> pdnFiles, Path book, int maxPly, int runEntries)
+            throws IOException {
+        Path parent = book.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path runDirectory = Files.createTempDirectory(parent, "book-runs");
+        try {
+            Counter counter = new Counter(runDirectory, maxPly, runEntries);
+            for (Path pdnFile : pdnFiles) {
+                try {
+                    PDNParser.streamGames(pdnFile, counter::addGame);
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+            counter.writeRun();
+            merge(counter.runs, book);
+            return counter.games;
+        } finally {
+            try (Stream<Path> runs = Files.list(runDirectory)) {
+                for (Path run : runs.toList()) {
+                    Files.deleteIfExists(run);
+                }
+            }
+            Files.deleteIfExists(runDirectory);
+        }
+    }
+
+    /** Counts the moves of the games and writes them out in sorted runs. */
+    private static final class Counter {
+        private final Path runDirectory;
+        private final int maxPly;
+        private final int runEntries;
+        private final Map<Entry, int[]> counts = new HashMap<>();
+        private final List<Path> runs = new ArrayList<>();
+        private final Position position = new Position(true);
+        private final UndoInfo undo = new UndoInfo();
+        private long games;
+
+        Counter(Path runDirectory, int maxPly, int runEntries) {
+            this.runDirectory = runDirectory;
+            this.maxPly = maxPly;
+            this.runEntries = runEntries;
+        }
+
+        void addGame(Map<String, String> tags, List<Move> moves) {
+            games++;
+            // 1 if white won, -1 if black won, 0 for a draw
+            int outcome =
+                    switch (tags.getOrDefault("Result", "*")) {
+                        case "2-0", "1-0" -> 1;
+                        case "0-2", "0-1" -> -1;
+                        case "1-1", "1/2-1/2" -> 0;
+                        default -> UNKNOWN_RESULT;
+                    };
+
+            position.copyFrom(Position.initial());
+            for (int ply = 0; ply < maxPly && ply < moves.size(); ply++) {
+                LegalMove move = find(moves.get(ply));
+                if (move == null) {
+                    break;
+                }
+                int[] count =
+                        counts.computeIfAbsent(
+                                new Entry(
+                                        position.getKey(),
+                                        move.getFrom() * Squares.COUNT + move.getTo()),
+                                entry -> new int[3]);
+                count[0]++;
+                if (outcome == 0) {
+                    count[2]++;
+                } else if (outcome == (position.isWhiteToMove() ? 1 : -1)) {
+                    count[1]++;
+                }
+                position.make(move, undo);
+            }
+            if (counts.size() >= runEntries) {
+                try {
+                    writeRun();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        /** Finds the legal move going from and to the squares of a parsed move. */
+        private LegalMove find(Move move) {
+            if (move.getStartPosition() == null || move.getEndPosition() == null) {
+                return null;
+            }
+            int from = Squares.at(move.getStartPosition().x, move.getStartPosition().y);
+            int to = Squares.at(move.getEndPosition().x, move.getEndPosition().y);
+            for (LegalMove legalMove : RulesEngine.generateMoves(position)) {
+                if (legalMove.getFrom() == from && legalMove.getTo() == to) {
+                    return legalMove;
+                }
+            }
+            return null;
+        }
+
+        void writeRun() throws IOException {
+            if (counts.isEmpty()) {
+                return;
+            }
+            List<Entry> entries = new ArrayList<>(counts.keySet());
+            entries.sort(ORDER);
+            Path run = runDirectory.resolve("run" + runs.size());
+            try (DataOutputStream out =
+                    new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+                for (Entry entry : entries) {
+                    int[] count = counts.get(entry);
+                    writeEntry(out, entry, count[0], count[1], count[2]);
+                }
+            }
+            runs.add(run);
+            counts.clear();
+        }
+    }
+
+    /** Merges the sorted runs into the book, adding up the counts of equal entries. */
+    private static void merge(List<Path> runs, Path book) throws IOException {
+        Path partial = book.resolveSibling(book.getFileName() + ".tmp");
+        List<DataInputStream> inputs = new ArrayList<>();
+        long entryCount = 0;
+        try {
+            PriorityQueue<RunHead> heads =
+                    new PriorityQueue<>(Comparator.comparing(RunHead::entry, ORDER));
+            for (Path run : runs) {
+                DataInputStream input =
+                        new DataInputStream(new BufferedInputStream(Files.newInputStream(run)));
+                inputs.add(input);
+                RunHead head = RunHead.read(input);
+                if (head != null) {
+                    heads.add(head);
+                }
+            }
+
+            try (DataOutputStream out =
+                    new DataOutputStream(
+                            new BufferedOutputStream(Files.newOutputStream(partial)))) {
+                out.writeInt(OpeningBook.MAGIC);
+                out.writeInt(OpeningBook.VERSION);
+                out.writeLong(0L); // Entry count, filled in below
+                while (!heads.isEmpty()) {
+                    RunHead first = heads.poll();
+                    Entry entry = first.entry();
+                    int games = first.games();
+                    int wins = first.wins();
+                    int draws = first.draws();
+                    advance(first, heads);
+                    while (!heads.isEmpty() && ORDER.compare(heads.peek().entry(), entry) == 0) {
+                        RunHead same = heads.poll();
+                        games += same.games();
+                        wins += same.wins();
+                        draws += same.draws();
+                        advance(same, heads);
+                    }
+                    writeEntry(out, entry, games, wins, draws);
+                    entryCount++;
+                }
+            }
+        } finally {
+            for (DataInputStream input : inputs) {
+                input.close();
+            }
+        }
+        try (RandomAccessFile file = new RandomAccessFile(partial.toFile(), "rw")) {
+            file.seek(8);
+            file.writeLong(entryCount);
+        }
+        Files.move(partial, book, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void advance(RunHead head, PriorityQueue<RunHead> heads) throws IOException {
+        RunHead next = RunHead.read(head.input());
+        if (next != null) {
+            heads.add(next);
+        }
+    }
+
+    private static void writeEntry(
+            DataOutputStream out, Entry entry, int games, int wins, int draws) throws IOException {
+        out.writeLong(entry.key());
+        out.writeByte(entry.move() / Squares.COUNT);
+        out.writeByte(entry.move() % Squares.COUNT);
+        out.writeShort(0);
+        out.writeInt(games);
+        out.writeInt(wins);
+        out.writeInt(draws);
+    }
+
+    /** A position and a move from it, encoded as from * 50 + to. */
+    private record Entry(long key, int move) {}
+
+    /** The next entry of a run being merged. */
+    private record RunHead(DataInputStream input, Entry entry, int games, int wins, int draws) {
+
+        static RunHead read(DataInputStream input) throws IOException {
+            long key;
+            try {
+                key = input.readLong();
+            } catch (EOFException e) {
+                return null;
+            }
+            int from = input.readUnsignedByte();
+            int to = input.readUnsignedByte();
+            input.readShort();
+            return new RunHead(
+                    input,
+                    new Entry(key, from * Squares.COUNT + to),
+                    input.readInt(),
+                    input.readInt(),
+                    input.readInt());
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println(
+                    "Usage: OpeningBookBuilder <book> <file.pdn | directory>... [--max-ply N]");
+            System.exit(1);
+        }
+        int maxPly = DEFAULT_MAX_PLY;
+        List<Path> pdnFiles = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if ("--max-ply".equals(args[i]) && i + 1 < args.length) {
+                maxPly = Integer.parseInt(args[++i]);
+            } else if (Files.isDirectory(Paths.get(args[i]))) {
+                try (Stream<Path> files = Files.walk(Paths.get(args[i]))) {
+                    files.filter(file -> file.toString().endsWith(".pdn"))
+                            .sorted()
+                            .forEach(pdnFiles::add);
+                }
+            } else {
+                pdnFiles.add(Paths.get(args[i]));
+            }
+        }
+
+        long start = System.nanoTime();
+        Path book = Paths.get(args[0]);
+        long games = build(pdnFiles, book, maxPly, DEFAULT_RUN_ENTRIES);
+        System.out.printf(
+                "Built %s from %d games: %d entries in %d ms%n",
+                book,
+                games,
+                new OpeningBook(book).getEntryCount(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -2,6 +2,10 @@ package com.frisian_draught.AI;
 
 import com.frisian_draught.board.GameState;
 import com.frisian_draught.board.Move;
+import com.frisian_draught.board.rules.LegalMove;
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.RulesEngine;
+import com.frisian_draught.board.rules.Squares;
 
 import org.joml.Vector2i;
 
@@ -65,6 +69,35 @@ public class DQNModel {
         return filteredQValues;
     }
 
+    /**
+     * Predicts Q-values for the legal moves of a headless position, as {@link
+     * #predict(GameState)} does for a game state.
+     *
+     * @param position the current position
+     * @return a map of landing positions to Q-values
+     */
+    public Map<Vector2i, Double> predict(Position position) {
+        double[] output = network.predict(position.toInputArray());
+        Map<Vector2i, Double> filteredQValues = new HashMap<>();
+
+        for (LegalMove move : RulesEngine.generateMoves(position)) {
+            int x = Squares.getX(move.getTo());
+            int y = Squares.getY(move.getTo());
+            filteredQValues.put(new Vector2i(x, y), output[y * Squares.BOARD_SIZE + x]);
+        }
+        return filteredQValues;
+    }
+
+    /**
+     * Predicts the Q-value of every tile without allocating, the raw output of the network.
+     *
+     * @param input the encoded position, see {@link Position#toInputArray(double[])}
+     * @param output the array the Q-values are written to, indexed by {@code y * 10 + x}
+     */
+    public void predict(double[] input, double[] output) {
+        network.predict(input, output);
+    }
+
     /**
      * Updates the weights of the neural network using a single experience.
      *
@@ -134,6 +167,19 @@ public class DQNModel {
         return predict(state).values().stream().mapToDouble(Double::doubleValue).max().orElse(0.0);
     }
 
+    /**
+     * Evaluates the maximum Q-value for a headless position.
+     *
+     * @param position the current position
+     * @return the maximum Q-value
+     */
+    public double evaluate(Position position) {
+        return predict(position).values().stream()
+                .mapToDouble(Double::doubleValue)
+                .max()
+                .orElse(0.0);
+    }
+
     /**
      * Saves the model to a file.
      *
@@ -0,0 +1,208 @@
+package com.frisian_draught.AI.Endgame;
+
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.Squares;
+
+/**
+ * Numbers the positions of a material class, so that an endgame table can store one entry per
+ * position in a flat array.
+ *
+ * <p>A material class is the number of white men, white kings, black men and black kings. Its
+ * positions are ranked group by group: the white men among the 50 squares, the black men among
+ * the squares left, then the white kings and the black kings. Within a group the set of squares
+ * is ranked in the combinatorial number system, counting squares in the 50-square numbering of
+ * {@link com.frisian_draught.util.TileConversion}, minus one. Positions with men on their
+ * promotion row get an index too but never occur.
+ */
+public final class EndgameIndex {
+
+    /**
+     * Largest number of pieces a class may have. A table is one byte array and one mapped
+     * buffer, both indexed by int: the largest 5-piece class has 254 million entries for both
+     * sides to move, the largest 6-piece one 5.7 billion.
+     */
+    public static final int MAX_PIECES = 5;
+
+    private static final long[][] BINOMIAL = new long[Squares.COUNT + 1][MAX_PIECES + 1];
+
+    static {
+        for (int n = 0; n <= Squares.COUNT; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= MAX_PIECES && k <= n; k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k < n ? BINOMIAL[n - 1][k] : 0);
+            }
+        }
+    }
+
+    private EndgameIndex() {
+        throw new UnsupportedOperationException(
+                "This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Packs the piece counts of a material class into one number, one byte per count.
+     *
+     * @param whiteMen the number of white men
+     * @param whiteKings the number of white kings
+     * @param blackMen the number of black men
+     * @param blackKings the number of black kings
+     * @return the material key
+     */
+    public static int materialKey(int whiteMen, int whiteKings, int blackMen, int blackKings) {
+        return whiteMen | whiteKings << 8 | blackMen << 16 | blackKings << 24;
+    }
+
+    /**
+     * Returns the material key of a position.
+     *
+     * @param position the position
+     * @return the key of its material class
+     */
+    public static int materialKey(Position position) {
+        return materialKey(
+                Long.bitCount(position.getWhiteMen()),
+                Long.bitCount(position.getWhiteKings()),
+                Long.bitCount(position.getBlackMen()),
+                Long.bitCount(position.getBlackKings()));
+    }
+
+    public static int whiteMen(int materialKey) {
+        return materialKey & 0xFF;
+    }
+
+    public static int whiteKings(int materialKey) {
+        return materialKey >>> 8 & 0xFF;
+    }
+
+    public static int blackMen(int materialKey) {
+        return materialKey >>> 16 & 0xFF;
+    }
+
+    public static int blackKings(int materialKey) {
+        return materialKey >>> 24;
+    }
+
+    /** Returns the total number of pieces of a material class. */
+    public static int pieceCount(int materialKey) {
+        return whiteMen(materialKey)
+                + whiteKings(materialKey)
+                + blackMen(materialKey)
+                + blackKings(materialKey);
+    }
+
+    /**
+     * Returns the number of positions of a material class for one side to move.
+     *
+     * @param materialKey the material class
+     * @return the number of indices, from 0
+     */
+    public static long size(int materialKey) {
+        int free = Squares.COUNT;
+        long size = 1;
+        for (int count : groups(materialKey)) {
+            size *= BINOMIAL[free][count];
+            free -= count;
+        }
+        return size;
+    }
+
+    /**
+     * Computes the index of a position within its material class. The side to move is not part
+     * of it.
+     *
+     * @param position the position
+     * @return the index, from 0 to {@link #size} of its material class
+     */
+    public static long index(Position position) {
+        long[] pieces = {
+            position.getWhiteMen(),
+            position.getBlackMen(),
+            position.getWhiteKings(),
+            position.getBlackKings()
+        };
+        long taken = 0L;
+        long index = 0;
+        int free = Squares.COUNT;
+        for (long group : pieces) {
+            int count = Long.bitCount(group);
+            long rank = 0;
+            int i = 1;
+            for (long mask = group; mask != 0L; mask &= mask - 1, i++) {
+                long bit = mask & -mask;
+                rank += BINOMIAL[Long.bitCount(~taken & (bit - 1) & Squares.ALL)][i];
+            }
+            index = index * BINOMIAL[free][count] + rank;
+            taken |= group;
+            free -= count;
+        }
+        return index;
+    }
+
+    /**
+     * Sets up the position with the given index, the inverse of {@link #index}.
+     *
+     * @param materialKey the material class
+     * @param index the index within the class
+     * @param whiteToMove the side to move
+     * @param target cleared and filled with the position
+     */
+    public static void decode(int materialKey, long index, boolean whiteToMove, Position target) {
+        int[] counts = groups(materialKey);
+        long[] radix = new long[counts.length];
+        int free = Squares.COUNT;
+        for (int g = 0; g < counts.length; g++) {
+            radix[g] = BINOMIAL[free][counts[g]];
+            free -= counts[g];
+        }
+        long[] ranks = new long[counts.length];
+        for (int g = counts.length - 1; g >= 0; g--) {
+            ranks[g] = index % radix[g];
+            index /= radix[g];
+        }
+
+        byte[] kinds = {
+            Position.WHITE_MAN, Position.BLACK_MAN, Position.WHITE_KING, Position.BLACK_KING
+        };
+        target.copyFrom(new Position(whiteToMove));
+        long taken = 0L;
+        for (int g = 0; g < counts.length; g++) {
+            long rank = ranks[g];
+            for (int i = counts[g]; i > 0; i--) {
+                // Largest offset among the free squares whose binomial still fits in the rank
+                int offset = i - 1;
+                while (BINOMIAL[offset + 1][i] <= rank) {
+                    offset++;
+                }
+                rank -= BINOMIAL[offset][i];
+                int square = freeSquare(taken, offset);
+                target.setPiece(square, kinds[g]);
+            }
+            taken = target.getOccupied();
+        }
+    }
+
+    /** Returns whether a position has a man on its own promotion row, which cannot happen. */
+    public static boolean isUnreachable(Position position) {
+        return (position.getWhiteMen() & Squares.WHITE_PROMOTION) != 0L
+                || (position.getBlackMen() & Squares.BLACK_PROMOTION) != 0L;
+    }
+
+    /** Piece counts in ranking order: white men, black men, white kings, black kings. */
+    private static int[] groups(int materialKey) {
+        return new int[] {
+            whiteMen(materialKey),
+            blackMen(materialKey),
+            whiteKings(materialKey),
+            blackKings(materialKey)
+        };
+    }
+
+    /** Returns the square that is the given number of free squares from square 0. */
+    private static int freeSquare(long taken, int offset) {
+        long free = ~taken & Squares.ALL;
+        for (int i = 0; i < offset; i++) {
+            free &= free - 1;
+        }
+        return Long.numberOfTrailingZeros(free);
+    }
+}
@@ -0,0 +1,228 @@
+package com.frisian_draught.AI.Endgame;
+
+import com.frisian_draught.board.rules.LegalMove;
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.RulesEngine;
+import com.frisian_draught.board.rules.UndoInfo;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exact results of endgames with few pieces, read from the tables written by {@link
+ * TablebaseGenerator}.
+ *
+ * <p>Each material class is a file of one byte per position, white to move first, indexed by
+ * {@link EndgameIndex}. A byte holds 0 for a draw, or the number of plies until the side to move
+ * has won or lost plus one: an odd number of plies is a win, an even one a loss. The files are
+ * memory-mapped, so only the pages that are probed are read, and probes from several threads
+ * need no locking.
+ *
+ * <p>The tables follow {@link RulesEngine} but ignore the three-move limit on kings, which is not
+ * part of a position's index, and score positions that can only repeat as draws.
+ */
+public class Tablebase {
+
+    private static final Logger logger = LogManager.getLogger(Tablebase.class);
+
+    /** File extension of a material class table. */
+    public static final String EXTENSION = ".fdtb";
+
+    /** Result of a won position, minus its distance to the win in plies. */
+    public static final int WIN = 1000;
+
+    /** Result of a drawn position. */
+    public static final int DRAW = 0;
+
+    /** Result of a probe of a position with no table. */
+    public static final int NOT_FOUND = Integer.MIN_VALUE;
+
+    /** Default directory of the tables, next to the game's exports. */
+    public static final Path DEFAULT_DIRECTORY =
+            Paths.get(System.getProperty("user.home"), ".frisian-draught", "tablebase");
+
+    static final int MAGIC = 0x46445442; // "FDTB"
+    static final int HEADER_BYTES = 16;
+
+    private static Tablebase defaultTablebase;
+    private static FileTime defaultModified;
+
+    private final Map<Integer, ByteBuffer> tables = new HashMap<>();
+    private int maxPieces;
+
+    /** Creates a tablebase without tables, to be filled while generating. */
+    Tablebase() {}
+
+    /**
+     * Opens every table in a directory.
+     *
+     * @param directory the directory holding the table files
+     * @throws IOException if a table cannot be read or is not a table
+     */
+    public Tablebase(Path directory) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files) {
+                add(file);
+            }
+        }
+    }
+
+    /**
+     * Returns the tables of {@link #DEFAULT_DIRECTORY}. The directory is checked on every call
+     * and its tables opened again when its modification time changes, so tables added while the
+     * game runs are used without a restart. Tables that cannot be read are reported once and
+     * not retried until the directory changes.
+     *
+     * @return the tablebase, or null if there are no tables or they cannot be read
+     */
+    public static synchronized Tablebase openDefault() {
+        FileTime modified;
+        try {
+            modified = Files.getLastModifiedTime(DEFAULT_DIRECTORY);
+        } catch (IOException e) {
+            defaultTablebase = null;
+            defaultModified = null;
+            return null;
+        }
+        if (!modified.equals(defaultModified)) {
+            defaultModified = modified;
+            try {
+                Tablebase tablebase = new Tablebase(DEFAULT_DIRECTORY);
+                defaultTablebase = tablebase.maxPieces > 0 ? tablebase : null;
+            } catch (IOException e) {
+                defaultTablebase = null;
+                logger.error("Failed to open tablebase: {}", DEFAULT_DIRECTORY, e);
+            }
+        }
+        return defaultTablebase;
+    }
+
+    /** Maps a table file and makes its material class available. */
+    void add(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a tablebase file: " + file);
+            }
+            int materialKey = buffer.getInt(4);
+            if (EndgameIndex.pieceCount(materialKey) > EndgameIndex.MAX_PIECES) {
+                throw new IOException("Material class too large for a table: " + file);
+            }
+            long expected = HEADER_BYTES + 2 * EndgameIndex.size(materialKey);
+            if (buffer.capacity() != expected) {
+                throw new IOException("Truncated tablebase file: " + file);
+            }
+            tables.put(materialKey, buffer.slice(HEADER_BYTES, buffer.capacity() - HEADER_BYTES));
+            maxPieces = Math.max(maxPieces, EndgameIndex.pieceCount(materialKey));
+        }
+    }
+
+    /** Returns the name of the table file of a material class. */
+    static String fileName(int materialKey) {
+        return String.format(
+                "wm%d_wk%d_bm%d_bk%d%s",
+                EndgameIndex.whiteMen(materialKey),
+                EndgameIndex.whiteKings(materialKey),
+                EndgameIndex.blackMen(materialKey),
+                EndgameIndex.blackKings(materialKey),
+                EXTENSION);
+    }
+
+    /** Returns the largest number of pieces of a loaded table, 0 if there is none. */
+    public int getMaxPieces() {
+        return maxPieces;
+    }
+
+    /**
+     * Looks up the result of a position.
+     *
+     * @param position the position, left unchanged
+     * @return {@link #WIN} minus the distance in plies if the side to move wins, the opposite if
+     *     it loses, {@link #DRAW}, or {@link #NOT_FOUND} if the material has no table
+     */
+    public int probe(Position position) {
+        if (position.getPieces(position.isWhiteToMove()) == 0L) {
+            return -WIN;
+        }
+        ByteBuffer table = tables.get(EndgameIndex.materialKey(position));
+        if (table == null) {
+            return NOT_FOUND;
+        }
+        long index = EndgameIndex.index(position);
+        if (!position.isWhiteToMove()) {
+            index += table.capacity() / 2;
+        }
+        return result(table.get((int) index) & 0xFF);
+    }
+
+    /**
+     * Finds the best move of a position from the results of the positions it leads to: the
+     * fastest win, else a draw, else the slowest loss.
+     *
+     * @param position the position, left unchanged
+     * @return the best move, or null if there is none or a resulting position has no table
+     */
+    public LegalMove bestMove(Position position) {
+        List<LegalMove> moves = RulesEngine.generateMoves(position);
+        Position child = new Position(position);
+        UndoInfo undo = new UndoInfo();
+        LegalMove bestMove = null;
+        int bestResult = Integer.MIN_VALUE;
+        for (LegalMove move : moves) {
+            child.make(move, undo);
+            int childResult = probe(child);
+            child.unmake(undo);
+            if (childResult == NOT_FOUND) {
+                return null;
+            }
+            if (-childResult > bestResult) {
+                bestResult = -childResult;
+                bestMove = move;
+            }
+        }
+        return bestMove;
+    }
+
+    /** Returns whether a probe result is a win for the side to move. */
+    public static boolean isWin(int result) {
+        return result != NOT_FOUND && result > DRAW;
+    }
+
+    /** Returns whether a probe result is a loss for the side to move. */
+    public static boolean isLoss(int result) {
+        return result != NOT_FOUND && result < DRAW;
+    }
+
+    /** Returns the number of plies to the end of a won or lost position. */
+    public static int distance(int result) {
+        return WIN - Math.abs(result);
+    }
+
+    /** Converts a stored byte to a probe result. */
+    static int result(int code) {
+        if (code == 0) {
+            return DRAW;
+        }
+        int plies = code - 1;
+        return plies % 2 == 1 ? WIN - plies : -(WIN - plies);
+    }
+
+    /** Converts a distance to the end in plies to its stored byte. */
+    static byte code(int plies) {
+        return (byte) (plies + 1);
+    }
+}
@@ -0,0 +1,348 @@
+package com.frisian_draught.AI.Endgame;
+
+import com.frisian_draught.board.rules.LegalMove;
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.RulesEngine;
+import com.frisian_draught.board.rules.Squares;
+import com.frisian_draught.board.rules.UndoInfo;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Generates the endgame tables read by {@link Tablebase} by retrograde analysis.
+ *
+ * <p>The material classes are solved from the fewest pieces up, and among classes with as many
+ * pieces from the fewest men up, so that the positions reached by a capture or a promotion are
+ * always in a table that is already written. Within a class, the moves of every position are
+ * generated once, to count those that stay in the class and to look up the others. The positions
+ * are then resolved in order of their distance to the end: when a position is lost, every
+ * position with a move to it is won one ply later; when it is won, the positions with a move to
+ * it have one move less left to refute, and are lost once none is left. Predecessors are found by
+ * taking back quiet moves, the only moves that stay in a class. What is never resolved is a
+ * draw.
+ *
+ * <p>Command line usage:
+ *
+ * <pre>
+ * TablebaseGenerator &lt;maxPieces&gt; [directory]
+ * </pre>
+ *
+ * The piece count is at most {@link EndgameIndex#MAX_PIECES}, 5. Tables already in the directory
+ * are kept, so an interrupted run can be resumed. Without a directory the tables go to {@link
+ * Tablebase#DEFAULT_DIRECTORY}.
+ */
+public final class TablebaseGenerator {
+
+    // Longest distance a table byte can hold
+    private static final int MAX_DISTANCE = 254;
+
+    // Entries whose moves are counted by one task
+    private static final int CHUNK_SIZE = 1 << 14;
+
+    // Moves left to resolve of a position that a draw or a win keeps from losing
+    private static final int CANNOT_LOSE = 0xFF;
+
+    // Directions the last move came from: diagonals towards black's side for white men (their
+    // moves go up the board), towards white's side for black men, any diagonal for kings
+    private static final int[] WHITE_BACKWARD = {0, 1};
+    private static final int[] BLACK_BACKWARD = {2, 3};
+    private static final int[] KING_DIRECTIONS = {0, 1, 2, 3};
+
+    private TablebaseGenerator() {
+        throw new UnsupportedOperationException(
+                "This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Generates the tables of every material class with up to the given number of pieces, both
+     * sides having at least one.
+     *
+     * @param directory the directory to write the tables to, created if needed
+     * @param maxPieces the largest number of pieces on the board
+     * @return the tablebase of all the classes
+     * @throws IOException if a table cannot be written or read back
+     */
+    public static Tablebase generate(Path directory, int maxPieces) throws IOException {
+        if (maxPieces < 2 || maxPieces > EndgameIndex.MAX_PIECES) {
+            throw new IllegalArgumentException(
+                    "Piece count must be between 2 and " + EndgameIndex.MAX_PIECES + ": "
+                            + maxPieces);
+        }
+        Files.createDirectories(directory);
+        Tablebase tablebase = new Tablebase();
+        for (int materialKey : materialClasses(maxPieces)) {
+            Path file = directory.resolve(Tablebase.fileName(materialKey));
+            if (!Files.exists(file)) {
+                long start = System.nanoTime();
+                byte[] values = solve(materialKey, tablebase);
+                write(file, materialKey, values);
+                System.out.printf(
+                        "Generated %s: %d positions in %d ms%n",
+                        file.getFileName(),
+                        values.length,
+                        (System.nanoTime() - start) / 1_000_000);
+            }
+            tablebase.add(file);
+        }
+        return tablebase;
+    }
+
+    /** Lists the material classes in the order they must be solved. */
+    static List<Integer> materialClasses(int maxPieces) {
+        List<Integer> classes = new ArrayList<>();
+        for (int pieces = 2; pieces <= maxPieces; pieces++) {
+            for (int men = 0; men <= pieces; men++) {
+                for (int whiteMen = 0; whiteMen <= men; whiteMen++) {
+                    for (int whiteKings = 0; whiteKings <= pieces - men; whiteKings++) {
+                        int blackMen = men - whiteMen;
+                        int blackKings = pieces - men - whiteKings;
+                        if (whiteMen + whiteKings > 0 && blackMen + blackKings > 0) {
+                            classes.add(
+                                    EndgameIndex.materialKey(
+                                            whiteMen, whiteKings, blackMen, blackKings));
+                        }
+                    }
+                }
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Solves one material class.
+     *
+     * @param materialKey the class to solve
+     * @param solved the tables of the classes its captures and promotions lead to
+     * @return one table byte per position, white to move first
+     */
+    static byte[] solve(int materialKey, Tablebase solved) {
+        long size = EndgameIndex.size(materialKey);
+        if (2 * size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Material class too large for one table");
+        }
+        int entries = (int) (2 * size);
+        byte[] remaining = new byte[entries];
+        byte[] bounds = new byte[entries];
+        int chunks = (entries + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream.range(0, chunks)
+                .parallel()
+                .forEach(
+                        chunk ->
+                                countMoves(
+                                        materialKey,
+                                        solved,
+                                        remaining,
+                                        bounds,
+                                        chunk * CHUNK_SIZE,
+                                        Math.min(entries, (chunk + 1) * CHUNK_SIZE)));
+
+        List<EntryList> plies = new ArrayList<>();
+        for (int entry = 0; entry < entries; entry++) {
+            int left = remaining[entry] & 0xFF;
+            if (left == 0) {
+                schedule(plies, bounds[entry] & 0xFF, entry);
+            } else if (left == CANNOT_LOSE && bounds[entry] != 0) {
+                schedule(plies, bounds[entry] & 0xFF, ~entry);
+            }
+        }
+
+        byte[] values = new byte[entries];
+        Position position = new Position(true);
+        Position predecessor = new Position(true);
+        for (int ply = 0; ply < plies.size(); ply++) {
+            EntryList resolved = plies.get(ply);
+            for (int i = 0; i < resolved.size; i++) {
+                int entry = resolved.entries[i] < 0 ? ~resolved.entries[i] : resolved.entries[i];
+                if (values[entry] != 0) {
+                    continue;
+                }
+                values[entry] = Tablebase.code(ply);
+                boolean whiteToMove = entry < size;
+                EndgameIndex.decode(materialKey, entry % size, whiteToMove, position);
+                for (int previous : predecessors(position, predecessor, size)) {
+                    if (values[previous] != 0) {
+                        continue;
+                    }
+                    if (ply % 2 == 0) {
+                        // A move to a lost position wins
+                        schedule(plies, ply + 1, ~previous);
+                    } else if ((remaining[previous] & 0xFF) != CANNOT_LOSE) {
+                        // A position whose moves all lose for it is lost, by the slowest one
+                        bounds[previous] = (byte) Math.max(bounds[previous] & 0xFF, ply + 1);
+                        if (--remaining[previous] == 0) {
+                            schedule(plies, bounds[previous] & 0xFF, previous);
+                        }
+                    }
+                }
+            }
+            // Only the resolved positions are needed again
+            plies.set(ply, null);
+        }
+        return values;
+    }
+
+    /**
+     * Generates the moves of a range of entries once. A position with a move to a lost position
+     * of another class gets the shortest such win as its bound and cannot lose. Otherwise its
+     * moves within the class are counted, and its bound is the slowest loss through the moves
+     * to wins of other classes, or it cannot lose if one of them leads to a draw.
+     */
+    private static void countMoves(
+            int materialKey, Tablebase solved, byte[] remaining, byte[] bounds, int from, int to) {
+        long size = remaining.length / 2;
+        Position position = new Position(true);
+        Position successor = new Position(true);
+        UndoInfo undo = new UndoInfo();
+        List<LegalMove> moves = new ArrayList<>();
+        for (int entry = from; entry < to; entry++) {
+            EndgameIndex.decode(materialKey, entry % size, entry < size, position);
+            if (EndgameIndex.isUnreachable(position)) {
+                remaining[entry] = (byte) CANNOT_LOSE;
+                continue;
+            }
+            moves.clear();
+            RulesEngine.generateMoves(position, moves);
+
+            int sameClass = 0;
+            int slowestLoss = 0;
+            int fastestWin = Integer.MAX_VALUE;
+            boolean canDraw = false;
+            for (LegalMove move : moves) {
+                successor.copyFrom(position);
+                successor.make(move, undo);
+                if (EndgameIndex.materialKey(successor) == materialKey) {
+                    sameClass++;
+                    continue;
+                }
+                int result = solved.probe(successor);
+                if (result == Tablebase.NOT_FOUND) {
+                    throw new IllegalStateException(
+                            "No table for "
+                                    + Tablebase.fileName(EndgameIndex.materialKey(successor)));
+                } else if (Tablebase.isLoss(result)) {
+                    fastestWin = Math.min(fastestWin, Tablebase.distance(result) + 1);
+                } else if (Tablebase.isWin(result)) {
+                    slowestLoss = Math.max(slowestLoss, Tablebase.distance(result) + 1);
+                } else {
+                    canDraw = true;
+                }
+            }
+            if (sameClass >= CANNOT_LOSE) {
+                throw new IllegalStateException("Too many moves to count in a table byte");
+            }
+            if (fastestWin != Integer.MAX_VALUE) {
+                checkDistance(fastestWin);
+                remaining[entry] = (byte) CANNOT_LOSE;
+                bounds[entry] = (byte) fastestWin;
+            } else {
+                checkDistance(slowestLoss);
+                remaining[entry] = (byte) (canDraw ? CANNOT_LOSE : sameClass);
+                bounds[entry] = (byte) (canDraw ? 0 : slowestLoss);
+            }
+        }
+    }
+
+    /**
+     * Lists the positions of the same class with a quiet move to the given one: the opponent's
+     * last move is taken back, and kept if no capture was compulsory instead.
+     *
+     * @param position the position reached, left unchanged
+     * @param predecessor scratch position
+     * @param size the number of positions of the class for one side to move
+     * @return the entries of the predecessors, one per move to the position
+     */
+    private static List<Integer> predecessors(Position position, Position predecessor, long size) {
+        List<Integer> entries = new ArrayList<>();
+        boolean mover = !position.isWhiteToMove();
+        long occupied = position.getOccupied();
+        for (long pieces = position.getPieces(mover); pieces != 0L; pieces &= pieces - 1) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            byte piece = position.getPiece(square);
+            boolean king = position.isKing(square);
+            int[] backward = mover ? WHITE_BACKWARD : BLACK_BACKWARD;
+            for (int direction : king ? KING_DIRECTIONS : backward) {
+                for (int origin : Squares.ray(square, direction)) {
+                    if ((occupied & Squares.bit(origin)) != 0L) {
+                        break;
+                    }
+                    predecessor.copyFrom(position);
+                    predecessor.setPiece(square, Position.EMPTY);
+                    predecessor.setPiece(origin, piece);
+                    predecessor.setWhiteToMove(mover);
+                    if (!RulesEngine.hasCapture(predecessor)) {
+                        long index = EndgameIndex.index(predecessor);
+                        entries.add((int) (mover ? index : size + index));
+                    }
+                    if (!king) {
+                        // Men move a single step
+                        break;
+                    }
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static void schedule(List<EntryList> plies, int ply, int entry) {
+        checkDistance(ply);
+        while (plies.size() <= ply) {
+            plies.add(new EntryList());
+        }
+        plies.get(ply).add(entry);
+    }
+
+    private static void checkDistance(int ply) {
+        if (ply > MAX_DISTANCE) {
+            throw new IllegalStateException("Distance to the end does not fit in a table byte");
+        }
+    }
+
+    /** Positions to resolve at one ply, as entries, complemented for wins. */
+    private static final class EntryList {
+        private int[] entries = new int[16];
+        private int size;
+
+        void add(int entry) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, 2 * size);
+            }
+            entries[size++] = entry;
+        }
+    }
+
+    private static void write(Path file, int materialKey, byte[] values) throws IOException {
+        // Written under a temporary name, so that an interrupted run leaves no partial table
+        Path partial = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out =
+                new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partial)))) {
+            out.writeInt(Tablebase.MAGIC);
+            out.writeInt(materialKey);
+            out.write(new byte[Tablebase.HEADER_BYTES - 2 * Integer.BYTES]);
+            out.write(values);
+        }
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println(
+                    "Usage: TablebaseGenerator <maxPieces, 2 to "
+                            + EndgameIndex.MAX_PIECES
+                            + "> [directory]");
+            System.exit(1);
+        }
+        int maxPieces = Integer.parseInt(args[0]);
+        Path directory = args.length > 1 ? Paths.get(args[1]) : Tablebase.DEFAULT_DIRECTORY;
+        generate(directory, maxPieces);
+    }
+}
@@ -0,0 +1,83 @@
+package com.frisian_draught.AI;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The loops of the {@link NeuralNetwork} over float vectors. There is a scalar implementation and
+ * one on the incubating Vector API, which the JVM compiles to SIMD instructions of the machine's
+ * vector width. The vector one is only compiled by the {@code vector} Maven profile, so the
+ * default build does not depend on an incubator module; {@link #select()} picks it when it was
+ * built and the {@code jdk.incubator.vector} module is present at run time, as with {@code
+ * --add-modules jdk.incubator.vector}.
+ */
+interface Kernels {
+
+    /** Set this system property to {@code true} to use the scalar kernels regardless. */
+    String SCALAR_PROPERTY = "frisian_draught.scalar";
+
+    /**
+     * Adds a multiple of one vector to another: {@code y[yFrom + i] += a * x[xFrom + i]}.
+     *
+     * @param a the factor
+     * @param x the vector to add
+     * @param xFrom the index of the first element of {@code x}
+     * @param y the vector added to
+     * @param yFrom the index of the first element of {@code y}
+     * @param length the number of elements
+     */
+    void axpy(float a, float[] x, int xFrom, float[] y, int yFrom, int length);
+
+    /**
+     * Computes the dot product of two vectors.
+     *
+     * @param a the first vector
+     * @param aFrom the index of the first element of {@code a}
+     * @param b the second vector
+     * @param bFrom the index of the first element of {@code b}
+     * @param length the number of elements
+     * @return the sum of the products of the elements
+     */
+    float dot(float[] a, int aFrom, float[] b, int bFrom, int length);
+
+    /**
+     * Applies the sigmoid function to the first elements of a vector in place.
+     *
+     * @param v the vector
+     * @param length the number of elements
+     */
+    void sigmoid(float[] v, int length);
+
+    /** Returns a short description of the implementation, for logs and benchmarks. */
+    String getName();
+
+    /**
+     * Picks the fastest kernels available in the running JVM. The vector kernels are loaded by
+     * reflection, so that the scalar ones still work when they were not built or the Vector API
+     * module is absent. The module is not required by {@code module-info}, so it is added to
+     * what this module reads here.
+     *
+     * @return the vector kernels if they can be used, otherwise the scalar ones
+     */
+    static Kernels select() {
+        Logger logger = LogManager.getLogger(Kernels.class);
+        if (Boolean.getBoolean(SCALAR_PROPERTY)) {
+            logger.info("Neural network uses scalar kernels, as {} is set", SCALAR_PROPERTY);
+            return ScalarKernels.INSTANCE;
+        }
+        ModuleLayer.boot()
+                .findModule("jdk.incubator.vector")
+                .ifPresent(Kernels.class.getModule()::addReads);
+        try {
+            Kernels kernels = (Kernels) Class.forName("com.frisian_draught.AI.VectorKernels")
+                    .getDeclaredConstructor()
+                    .newInstance();
+            logger.info("Neural network uses {}", kernels.getName());
+            return kernels;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            logger.info("Vector API unavailable, neural network uses scalar kernels: {}",
+                    e.toString());
+            return ScalarKernels.INSTANCE;
+        }
+    }
+}
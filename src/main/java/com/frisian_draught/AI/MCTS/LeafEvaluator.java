@@ -0,0 +1,21 @@
+package com.frisian_draught.AI.MCTS;
+
+import com.frisian_draught.board.rules.MoveList;
+import com.frisian_draught.board.rules.Position;
+
+/**
+ * Scores the leaves reached by a {@link MonteCarloTree} and gives the prior probabilities of
+ * their moves. Implementations are called from several search threads at once.
+ */
+public interface LeafEvaluator {
+
+    /**
+     * Evaluates a leaf that has legal moves.
+     *
+     * @param position the leaf position; may be modified, the tree does not use it afterwards
+     * @param moves the legal moves of the leaf, packed, not empty; must not be modified
+     * @param priors filled with the prior probability of each move, in the order of the moves
+     * @return the value of the position for the side to move, from -1 (lost) to 1 (won)
+     */
+    double evaluate(Position position, MoveList moves, float[] priors);
+}
@@ -0,0 +1,453 @@
+package com.frisian_draught.AI.MCTS;
+
+import com.frisian_draught.board.GameState;
+import com.frisian_draught.board.Move;
+import com.frisian_draught.board.rules.LegalMove;
+import com.frisian_draught.board.rules.MoveList;
+import com.frisian_draught.board.rules.PackedMove;
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.RulesEngine;
+import com.frisian_draught.board.rules.UndoInfo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Monte Carlo tree search guided by move priors (PUCT), on headless {@link Position}s.
+ *
+ * <p>The nodes live in an arena of parallel primitive arrays indexed by node number rather than
+ * in objects: the move leading to a node is a {@link PackedMove}, and the children of a node are
+ * allocated together and are found through its first child and child count. Each thread
+ * generates moves into a {@link MoveList} of its own, so expanding a node allocates nothing. A
+ * node's value is kept from the point of view of the player who made the move leading to it, so
+ * a parent simply picks the child with the highest value plus exploration bonus.
+ *
+ * <p>Several threads can expand the tree at once. A thread walking down a node adds a virtual
+ * loss to it, which steers the other threads to different lines until the real result is backed
+ * up. The tree is kept between searches: when the next search starts from a position found one or
+ * two moves below the previous root, that subtree becomes the new root. The arena is not
+ * compacted, so the tree is cleared once half of it is used.
+ */
+public class MonteCarloTree {
+
+    public static final int DEFAULT_CAPACITY = 1 << 19;
+    public static final double EXPLORATION = 1.5;
+
+    // Enough for the children of any root, so that a fresh tree can always expand it
+    private static final int MIN_CAPACITY = 256;
+
+    private static final ExecutorService WORKER_POOL =
+            Executors.newCachedThreadPool(
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "mcts-worker");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+
+    // Node states
+    private static final int UNEXPANDED = 0;
+    private static final int EXPANDING = 1;
+    private static final int EXPANDED = 2;
+    private static final int TERMINAL = 3;
+
+    // Values are summed as fixed point numbers, so that they can be added atomically
+    private static final double VALUE_SCALE = 1_000_000.0;
+
+    private final LeafEvaluator evaluator;
+    private final int capacity;
+
+    // The node arena
+    private final long[] moves;
+    private final float[] priors;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final AtomicIntegerArray states;
+    private final AtomicIntegerArray visits;
+    private final AtomicIntegerArray virtualLosses;
+    private final AtomicLongArray valueSums;
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final Position rootPosition = new Position(true);
+    private final MoveList rootMoves = new MoveList();
+    private int root = -1;
+    private int threadCount = 1;
+
+    private final AtomicLong started = new AtomicLong();
+    private long limit;
+    private long deadline;
+    private int playouts;
+
+    /**
+     * Creates an empty tree with the default capacity.
+     *
+     * @param evaluator scores the leaves and gives the priors of their moves
+     */
+    public MonteCarloTree(LeafEvaluator evaluator) {
+        this(evaluator, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty tree.
+     *
+     * @param evaluator scores the leaves and gives the priors of their moves
+     * @param capacity the number of nodes the arena can hold, at least 256
+     */
+    public MonteCarloTree(LeafEvaluator evaluator, int capacity) {
+        if (capacity < MIN_CAPACITY) {
+            throw new IllegalArgumentException(
+                    "Capacity must be at least " + MIN_CAPACITY + ": " + capacity);
+        }
+        this.evaluator = evaluator;
+        this.capacity = capacity;
+        this.moves = new long[capacity];
+        this.priors = new float[capacity];
+        this.firstChild = new int[capacity];
+        this.childCount = new int[capacity];
+        this.states = new AtomicIntegerArray(capacity);
+        this.visits = new AtomicIntegerArray(capacity);
+        this.virtualLosses = new AtomicIntegerArray(capacity);
+        this.valueSums = new AtomicLongArray(capacity);
+    }
+
+    /**
+     * Sets the number of threads that expand the tree, the calling thread included.
+     *
+     * @param threadCount the number of threads, at least 1
+     */
+    public void setThreadCount(int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1: " + threadCount);
+        }
+        this.threadCount = threadCount;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Searches for the best move of a game state.
+     *
+     * @param state the current state
+     * @param maxPlayouts the number of playouts to run
+     * @param timeBudgetMillis the time to stop after if the playouts are not done, in milliseconds
+     * @return the most visited move, or null if there is none
+     */
+    public Move search(GameState state, long maxPlayouts, long timeBudgetMillis) {
+        LegalMove bestMove = search(Position.fromGameState(state), maxPlayouts, timeBudgetMillis);
+        return bestMove == null ? null : bestMove.toMove();
+    }
+
+    /**
+     * Searches for the best move of a headless position, reusing the previous tree if the
+     * position is part of it.
+     *
+     * @param position the current position, left unchanged
+     * @param maxPlayouts the number of playouts to run
+     * @param timeBudgetMillis the time to stop after if the playouts are not done, in milliseconds
+     * @return the most visited move, or null if there is none
+     */
+    public LegalMove search(Position position, long maxPlayouts, long timeBudgetMillis) {
+        deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+        playouts = 0;
+        moveRoot(position);
+        if (states.get(root) == TERMINAL) {
+            return null;
+        }
+
+        int before = visits.get(root);
+        limit = maxPlayouts;
+        started.set(0);
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 1; i < threadCount; i++) {
+            running.add(WORKER_POOL.submit(this::runPlayouts));
+        }
+        try {
+            runPlayouts();
+        } finally {
+            // Wait for the workers even when interrupted, as they are still using the tree
+            boolean interrupted = false;
+            for (Future<?> worker : running) {
+                while (true) {
+                    try {
+                        worker.get();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    } catch (ExecutionException e) {
+                        throw new IllegalStateException("Search worker failed", e.getCause());
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        playouts = visits.get(root) - before;
+        int best = bestChild();
+        // Without room for the root's children the playouts only evaluated the root
+        long move = best < 0 ? rootMoves.get(0) : moves[best];
+        return PackedMove.toLegalMove(move, rootPosition);
+    }
+
+    /** Returns the number of playouts run by the last search. */
+    public int getPlayouts() {
+        return playouts;
+    }
+
+    /** Returns the number of playouts below the current root, including reused ones. */
+    public int getRootVisits() {
+        return root < 0 ? 0 : visits.get(root);
+    }
+
+    /** Returns the number of nodes allocated in the arena. */
+    public int getNodeCount() {
+        return Math.min(size.get(), capacity);
+    }
+
+    /**
+     * Returns the number of playouts through each move of the current root.
+     *
+     * @return the moves of the root with their visit counts, in generation order
+     */
+    public List<MoveVisits> getRootMoves() {
+        List<MoveVisits> moveVisits = new ArrayList<>();
+        if (root >= 0 && states.get(root) == EXPANDED) {
+            int first = firstChild[root];
+            for (int child = first; child < first + childCount[root]; child++) {
+                moveVisits.add(
+                        new MoveVisits(
+                                PackedMove.toLegalMove(moves[child], rootPosition),
+                                visits.get(child)));
+            }
+        }
+        return moveVisits;
+    }
+
+    /**
+     * A move of the root and the number of playouts that went through it.
+     *
+     * @param move the move
+     * @param visits the number of playouts through the move
+     */
+    public record MoveVisits(LegalMove move, int visits) {}
+
+    /** Discards the whole tree. */
+    public void clear() {
+        size.set(0);
+        root = -1;
+    }
+
+    /** Makes the node of the position the root, reusing a subtree if possible. */
+    private void moveRoot(Position position) {
+        int reused = root < 0 || size.get() > capacity / 2 ? -1 : findNode(position);
+        boolean fresh = reused < 0;
+        if (fresh) {
+            size.set(0);
+            reused = allocate(1);
+        }
+        root = reused;
+        rootPosition.copyFrom(position);
+        rootMoves.clear();
+        RulesEngine.generateMoves(position, rootMoves);
+
+        if (states.get(root) == UNEXPANDED) {
+            if (rootMoves.isEmpty()) {
+                states.set(root, TERMINAL);
+            } else {
+                float[] rootPriors = new float[rootMoves.size()];
+                evaluator.evaluate(new Position(position), rootMoves, rootPriors);
+                states.set(root, EXPANDING);
+                expand(root, rootMoves, rootPriors);
+                if (states.get(root) != EXPANDED && !fresh) {
+                    // The reused tree left no room for the children: start afresh
+                    size.set(0);
+                    root = allocate(1);
+                    states.set(root, EXPANDING);
+                    expand(root, rootMoves, rootPriors);
+                }
+            }
+        }
+    }
+
+    /** Looks for the position among the root and the two plies below it. */
+    private int findNode(Position position) {
+        long key = position.getKey();
+        if (rootPosition.getKey() == key) {
+            return root;
+        }
+        Position child = new Position(rootPosition);
+        UndoInfo childUndo = new UndoInfo();
+        UndoInfo grandchildUndo = new UndoInfo();
+        for (int i = firstChild[root]; i < firstChild[root] + childCount(root); i++) {
+            child.make(moves[i], childUndo);
+            if (child.getKey() == key) {
+                return i;
+            }
+            for (int j = firstChild[i]; j < firstChild[i] + childCount(i); j++) {
+                child.make(moves[j], grandchildUndo);
+                boolean found = child.getKey() == key;
+                child.unmake(grandchildUndo);
+                if (found) {
+                    return j;
+                }
+            }
+            child.unmake(childUndo);
+        }
+        return -1;
+    }
+
+    private int childCount(int node) {
+        return states.get(node) == EXPANDED ? childCount[node] : 0;
+    }
+
+    /**
+     * Claims the next playout for the calling thread. An interrupt of the thread that started the
+     * search cancels it, e.g. when a bot's move is cancelled, and stops the workers too.
+     *
+     * @return true if a playout may be run, false once the search is done
+     */
+    private boolean nextPlayout() {
+        if (Thread.currentThread().isInterrupted()) {
+            started.set(limit);
+            return false;
+        }
+        return started.getAndIncrement() < limit && System.nanoTime() < deadline;
+    }
+
+    /** Runs playouts on the calling thread until the search is done. */
+    private void runPlayouts() {
+        Position position = new Position(true);
+        UndoInfo undo = new UndoInfo();
+        MoveList legalMoves = new MoveList();
+        float[] leafPriors = new float[64];
+        int[] path = new int[64];
+
+        while (nextPlayout()) {
+            position.copyFrom(rootPosition);
+            int node = root;
+            int length = 0;
+            virtualLosses.incrementAndGet(node);
+            path[length++] = node;
+            while (states.get(node) == EXPANDED) {
+                node = selectChild(node);
+                virtualLosses.incrementAndGet(node);
+                position.make(moves[node], undo);
+                if (length == path.length) {
+                    path = Arrays.copyOf(path, 2 * length);
+                }
+                path[length++] = node;
+            }
+
+            // Value of the leaf for the player who moved into it
+            double value;
+            if (states.get(node) == TERMINAL) {
+                value = 1.0;
+            } else {
+                legalMoves.clear();
+                RulesEngine.generateMoves(position, legalMoves);
+                if (legalMoves.isEmpty()) {
+                    // The side to move is blocked or has no pieces left and loses
+                    states.compareAndSet(node, UNEXPANDED, TERMINAL);
+                    value = 1.0;
+                } else {
+                    if (leafPriors.length < legalMoves.size()) {
+                        leafPriors = new float[legalMoves.size()];
+                    }
+                    value = -evaluator.evaluate(position, legalMoves, leafPriors);
+                    // A node another thread is already expanding is only evaluated
+                    if (states.compareAndSet(node, UNEXPANDED, EXPANDING)) {
+                        expand(node, legalMoves, leafPriors);
+                    }
+                }
+            }
+
+            for (int i = length - 1; i >= 0; i--) {
+                visits.incrementAndGet(path[i]);
+                valueSums.addAndGet(path[i], Math.round(value * VALUE_SCALE));
+                virtualLosses.decrementAndGet(path[i]);
+                value = -value;
+            }
+        }
+    }
+
+    /** Picks the child with the highest PUCT score, counting virtual losses as lost playouts. */
+    private int selectChild(int node) {
+        int first = firstChild[node];
+        int parentVisits = visits.get(node) + virtualLosses.get(node);
+        double exploration = EXPLORATION * Math.sqrt(Math.max(1, parentVisits));
+        int best = first;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int child = first; child < first + childCount[node]; child++) {
+            int losses = virtualLosses.get(child);
+            int count = visits.get(child) + losses;
+            double value = count == 0 ? 0.0 : (valueSums.get(child) / VALUE_SCALE - losses) / count;
+            double score = value + exploration * priors[child] / (1 + count);
+            if (score > bestScore) {
+                bestScore = score;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /** Allocates the children of a node being expanded, leaving it a leaf if the arena is full. */
+    private void expand(int node, MoveList legalMoves, float[] leafPriors) {
+        int first = allocate(legalMoves.size());
+        if (first < 0) {
+            states.set(node, UNEXPANDED);
+            return;
+        }
+        for (int i = 0; i < legalMoves.size(); i++) {
+            moves[first + i] = legalMoves.get(i);
+            priors[first + i] = leafPriors[i];
+        }
+        firstChild[node] = first;
+        childCount[node] = legalMoves.size();
+        // Publishes the children to the threads that read the state
+        states.set(node, EXPANDED);
+    }
+
+    /** Reserves consecutive nodes and resets them, returning the first or -1 if they do not fit. */
+    private int allocate(int count) {
+        int first;
+        do {
+            first = size.get();
+            if (first + count > capacity) {
+                return -1;
+            }
+        } while (!size.compareAndSet(first, first + count));
+        for (int node = first; node < first + count; node++) {
+            moves[node] = PackedMove.NONE;
+            states.set(node, UNEXPANDED);
+            visits.set(node, 0);
+            virtualLosses.set(node, 0);
+            valueSums.set(node, 0L);
+        }
+        return first;
+    }
+
+    /** Returns the most visited child of the root, or -1 if the root could not be expanded. */
+    private int bestChild() {
+        if (states.get(root) != EXPANDED) {
+            return -1;
+        }
+        int best = firstChild[root];
+        for (int child = best + 1; child < firstChild[root] + childCount[root]; child++) {
+            if (visits.get(child) > visits.get(best)) {
+                best = child;
+            }
+        }
+        return best;
+    }
+}
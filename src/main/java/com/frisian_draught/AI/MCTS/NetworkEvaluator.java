@@ -0,0 +1,58 @@
+package com.frisian_draught.AI.MCTS;
+
+import com.frisian_draught.AI.DQNModel;
+import com.frisian_draught.board.rules.MoveList;
+import com.frisian_draught.board.rules.PackedMove;
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.Squares;
+
+/**
+ * Evaluates a leaf with a single forward pass of the {@link DQNModel}. The priors are a softmax
+ * of the Q-values of the moves' landing squares, and the value is the best Q-value, a sigmoid
+ * output, mapped from [0, 1] to [-1, 1].
+ */
+public class NetworkEvaluator implements LeafEvaluator {
+
+    private static final int TILES = Squares.BOARD_SIZE * Squares.BOARD_SIZE;
+
+    private final DQNModel dqnModel;
+
+    // Network input and output, one pair per search thread
+    private final ThreadLocal<double[]> inputs =
+            ThreadLocal.withInitial(() -> new double[TILES + 1]);
+    private final ThreadLocal<double[]> outputs = ThreadLocal.withInitial(() -> new double[TILES]);
+
+    /**
+     * Creates an evaluator backed by a model. The model is only read.
+     *
+     * @param dqnModel the model to predict with
+     */
+    public NetworkEvaluator(DQNModel dqnModel) {
+        this.dqnModel = dqnModel;
+    }
+
+    @Override
+    public double evaluate(Position position, MoveList moves, float[] priors) {
+        double[] input = inputs.get();
+        double[] qValues = outputs.get();
+        position.toInputArray(input);
+        dqnModel.predict(input, qValues);
+        double best = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < moves.size(); i++) {
+            int to = PackedMove.getTo(moves.get(i));
+            double q = qValues[Squares.getY(to) * Squares.BOARD_SIZE + Squares.getX(to)];
+            priors[i] = (float) q;
+            best = Math.max(best, q);
+        }
+
+        float sum = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            priors[i] = (float) Math.exp(priors[i] - best);
+            sum += priors[i];
+        }
+        for (int i = 0; i < moves.size(); i++) {
+            priors[i] /= sum;
+        }
+        return 2 * best - 1;
+    }
+}
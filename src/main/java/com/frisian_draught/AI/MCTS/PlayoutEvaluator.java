@@ -0,0 +1,51 @@
+package com.frisian_draught.AI.MCTS;
+
+import com.frisian_draught.AI.MiniMax.Evaluator;
+import com.frisian_draught.board.rules.MoveList;
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.RulesEngine;
+import com.frisian_draught.board.rules.UndoInfo;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Evaluates a leaf by playing random moves until one side cannot move, with uniform priors. A
+ * playout still running after {@link #MAX_PLIES} is scored by the static {@link Evaluator}.
+ */
+public class PlayoutEvaluator implements LeafEvaluator {
+
+    /** Length after which a playout is cut off and scored statically. */
+    public static final int MAX_PLIES = 150;
+
+    // Static score, in men, that maps to a value of about 0.76
+    private static final double SCORE_SCALE = 4.0;
+
+    // Every search thread plays out in a move list and undo record of its own
+    private final ThreadLocal<MoveList> playoutMoves = ThreadLocal.withInitial(MoveList::new);
+    private final ThreadLocal<UndoInfo> undoRecords = ThreadLocal.withInitial(UndoInfo::new);
+
+    @Override
+    public double evaluate(Position position, MoveList moves, float[] priors) {
+        Arrays.fill(priors, 0, moves.size(), 1.0f / moves.size());
+
+        boolean leafWhite = position.isWhiteToMove();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        UndoInfo undo = undoRecords.get();
+        MoveList scratch = playoutMoves.get();
+        // The first move is drawn from the leaf's own list, which belongs to the tree
+        MoveList current = moves;
+        for (int ply = 0; ply < MAX_PLIES; ply++) {
+            if (current.isEmpty()) {
+                // The side to move is blocked or has no pieces left and loses
+                return position.isWhiteToMove() == leafWhite ? -1.0 : 1.0;
+            }
+            position.make(current.get(random.nextInt(current.size())), undo);
+            current = scratch;
+            current.clear();
+            RulesEngine.generateMoves(position, current);
+        }
+        double value = Math.tanh(Evaluator.evaluate(position) / SCORE_SCALE);
+        return leafWhite ? value : -value;
+    }
+}
@@ -0,0 +1,20 @@
+package com.frisian_draught.AI.MiniMax;
+
+import java.util.List;
+
+/**
+ * Receives the results of a multi-PV analysis (see {@link MiniMaxTree#analyze}) as each
+ * iteration of the search completes, so that early results can be shown before the search ends.
+ */
+@FunctionalInterface
+public interface AnalysisListener {
+
+    /**
+     * Called on the searching thread when an iteration has searched all of its lines.
+     *
+     * @param depth the depth of the iteration
+     * @param lines the best root moves, best first, each with its score (positive is good for
+     *     white) and principal variation
+     */
+    void onIteration(int depth, List<MMResult> lines);
+}
@@ -0,0 +1,146 @@
+package com.frisian_draught.AI.MiniMax;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of leaf evaluations keyed by {@link
+ * com.frisian_draught.board.rules.Position#getKey() Zobrist keys}, for evaluations expensive
+ * enough to be worth remembering, such as a DQN forward pass.
+ *
+ * <p>The cache is split into buckets of a few entries. When a bucket is full, a clock hand sweeps
+ * over its entries: an entry read since the hand last passed gets a second chance, the first
+ * one that was not is replaced. Like the {@link TranspositionTable}, an entry is the value and
+ * the key XORed with it, so the threads of a parallel search share the cache without locks; a
+ * racing write at worst loses an entry.
+ */
+public class EvaluationCache {
+
+    public static final int DEFAULT_SIZE_MB = 8;
+
+    private static final int WAYS = 4;
+    private static final int ENTRY_BYTES = 2 * Long.BYTES + 1;
+
+    // Per entry: key ^ value bits, value bits
+    private final long[] table;
+    // Per entry: whether it was read since the clock hand last passed it
+    private final boolean[] referenced;
+    // Per bucket: the entry the clock hand points at
+    private final byte[] hands;
+    private final int bucketMask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param sizeMb Memory to use, in megabytes. Rounded down to a power of two of buckets.
+     */
+    public EvaluationCache(int sizeMb) {
+        long buckets = Math.max(1L, ((long) sizeMb << 20) / (ENTRY_BYTES * WAYS));
+        buckets = Long.highestOneBit(Math.min(buckets, Integer.MAX_VALUE / (2 * WAYS)));
+        this.table = new long[(int) buckets * WAYS * 2];
+        this.referenced = new boolean[(int) buckets * WAYS];
+        this.hands = new byte[(int) buckets];
+        this.bucketMask = (int) buckets - 1;
+    }
+
+    public EvaluationCache() {
+        this(DEFAULT_SIZE_MB);
+    }
+
+    /**
+     * Looks up the evaluation of a position.
+     *
+     * @param key Zobrist key of the position. Key 0, the empty board, is never cached.
+     * @return The cached evaluation, or {@link Double#NaN} if there is none.
+     */
+    public double get(long key) {
+        if (key != 0L) {
+            int first = bucket(key) * WAYS;
+            for (int entry = first; entry < first + WAYS; entry++) {
+                long value = table[2 * entry + 1];
+                if ((table[2 * entry] ^ value) == key) {
+                    referenced[entry] = true;
+                    hits.increment();
+                    return Double.longBitsToDouble(value);
+                }
+            }
+        }
+        misses.increment();
+        return Double.NaN;
+    }
+
+    /**
+     * Stores the evaluation of a position, replacing an entry of its bucket if needed.
+     *
+     * @param key Zobrist key of the position.
+     * @param evaluation The evaluation to remember.
+     */
+    public void put(long key, double evaluation) {
+        if (key == 0L) {
+            return;
+        }
+        long value = Double.doubleToRawLongBits(evaluation);
+        int bucket = bucket(key);
+        int first = bucket * WAYS;
+        int victim = -1;
+        for (int entry = first; entry < first + WAYS; entry++) {
+            long stored = table[2 * entry + 1];
+            long check = table[2 * entry];
+            if ((check ^ stored) == key || (check == 0L && stored == 0L)) {
+                victim = entry;
+                break;
+            }
+        }
+        if (victim < 0) {
+            // Clock sweep: clear reference bits until an entry without one comes up. Bounded, so
+            // that readers setting bits concurrently cannot keep it going
+            int hand = hands[bucket];
+            for (int i = 0; i < WAYS && referenced[first + hand]; i++) {
+                referenced[first + hand] = false;
+                hand = (hand + 1) % WAYS;
+            }
+            victim = first + hand;
+            hands[bucket] = (byte) ((hand + 1) % WAYS);
+        }
+        referenced[victim] = false;
+        table[2 * victim] = key ^ value;
+        table[2 * victim + 1] = value;
+    }
+
+    /** Empties the cache and resets the counters. */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        Arrays.fill(referenced, false);
+        Arrays.fill(hands, (byte) 0);
+        hits.reset();
+        misses.reset();
+    }
+
+    /** Returns the number of entries the cache can hold. */
+    public int capacity() {
+        return referenced.length;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /** Returns the fraction of lookups that found their position, 0 if there were none. */
+    public double getHitRate() {
+        long found = hits.sum();
+        long total = found + misses.sum();
+        return total == 0 ? 0.0 : (double) found / total;
+    }
+
+    private int bucket(long key) {
+        // Low bits, so that the bucket is independent of the transposition table's
+        return (int) key & bucketMask;
+    }
+}
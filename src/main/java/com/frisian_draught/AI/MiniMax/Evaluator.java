@@ -0,0 +1,81 @@
+package com.frisian_draught.AI.MiniMax;
+
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.Squares;
+
+/**
+ * Static evaluation of a headless {@link Position}, positive when white is better.
+ *
+ * <p>Material, kings, edge control and advancement are running totals the position keeps up to
+ * date through make/unmake, so reading them costs nothing. Mobility counts the empty squares
+ * each piece could step to, using precomputed neighbour masks, so no moves are generated. The
+ * weights of edge control and mobility are those of the per-move evaluation this replaced.
+ */
+public final class Evaluator {
+
+    public static final double MAN_WEIGHT = 1.0;
+    public static final double KING_WEIGHT = 3.0;
+    public static final double EDGE_WEIGHT = 0.5;
+    public static final double ADVANCEMENT_WEIGHT = 0.05;
+    public static final double MOBILITY_WEIGHT = 0.1;
+
+    // Squares a piece on a square can step to: forward diagonals for men, all diagonals for kings
+    private static final long[] WHITE_MAN_STEPS = steps(-1, -1);
+    private static final long[] BLACK_MAN_STEPS = steps(1, 1);
+    private static final long[] KING_STEPS = steps(-1, 1);
+
+    private Evaluator() {
+        throw new UnsupportedOperationException(
+                "This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Evaluates a position.
+     *
+     * @param position the position to evaluate, left unchanged
+     * @return the score, positive when white is better
+     */
+    public static double evaluate(Position position) {
+        double eval = position.getManBalance() * MAN_WEIGHT;
+        eval += position.getKingBalance() * KING_WEIGHT;
+        eval += position.getEdgeBalance() * EDGE_WEIGHT;
+        eval += position.getAdvancement() * ADVANCEMENT_WEIGHT;
+
+        long empty = Squares.ALL & ~position.getOccupied();
+        int mobility =
+                mobility(position.getWhiteMen(), WHITE_MAN_STEPS, empty)
+                        + mobility(position.getWhiteKings(), KING_STEPS, empty)
+                        - mobility(position.getBlackMen(), BLACK_MAN_STEPS, empty)
+                        - mobility(position.getBlackKings(), KING_STEPS, empty);
+        eval += mobility * MOBILITY_WEIGHT;
+
+        return eval;
+    }
+
+    /** Counts the empty squares the given pieces can step to. */
+    private static int mobility(long pieces, long[] steps, long empty) {
+        int count = 0;
+        for (long mask = pieces; mask != 0L; mask &= mask - 1) {
+            count += Long.bitCount(steps[Long.numberOfTrailingZeros(mask)] & empty);
+        }
+        return count;
+    }
+
+    /** Builds the diagonal neighbour masks for the rows between the two offsets, inclusive. */
+    private static long[] steps(int minDy, int maxDy) {
+        long[] steps = new long[Squares.COUNT];
+        for (int square = 0; square < Squares.COUNT; square++) {
+            int x = Squares.getX(square);
+            int y = Squares.getY(square);
+            for (int dy = minDy; dy <= maxDy; dy += 2) {
+                for (int dx = -1; dx <= 1; dx += 2) {
+                    int next = Squares.at(x + dx, y + dy);
+                    if (next >= 0) {
+                        steps[square] |= Squares.bit(next);
+                    }
+                }
+            }
+        }
+        return steps;
+    }
+}
@@ -1,21 +1,30 @@
 package com.frisian_draught.AI.MiniMax;
 
 import com.frisian_draught.board.GameState;
-import com.frisian_draught.board.Move;
+import com.frisian_draught.board.rules.MoveList;
+import com.frisian_draught.board.rules.PackedMove;
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.Squares;
 import com.frisian_draught.AI.DQNModel;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * The HybridAgent class combines the MiniMax algorithm with a Deep Q-Network (DQN) model
  * to determine the best move in a game state.
+ *
+ * <p>It reuses the make/unmake search of {@link MiniMaxTree}; the DQN scores the leaves and its
+ * Q-values serve as move ordering priors at every node.
  */
-public class HybridAgent {
+public class HybridAgent extends MiniMaxTree {
 
-    private final GameState rootState;
     private final DQNModel dqnModel;
 
+    private final EvaluationCache evaluationCache;
+
+    // Buffers of movePriors; every helper tree has its own
+    private final double[] input = new double[Squares.BOARD_SIZE * Squares.BOARD_SIZE + 1];
+    private final double[] qValues = new double[Squares.BOARD_SIZE * Squares.BOARD_SIZE];
+    private final double[] priors = new double[Squares.COUNT];
+
     /**
      * Constructs a HybridAgent with the given root state and DQN model.
      *
@@ -23,85 +32,79 @@ public class HybridAgent {
      * @param dqnModel the DQN model for evaluating game states
      */
     public HybridAgent(GameState rootState, DQNModel dqnModel) {
-        this.rootState = rootState;
+        super(rootState);
         this.dqnModel = dqnModel;
+        this.evaluationCache = new EvaluationCache();
     }
 
     /**
-     * Gets the best move for the given game state using the MiniMax algorithm.
+     * Constructs a HybridAgent that shares a transposition table.
      *
-     * @param state the current game state
-     * @param depth the depth to search in the game tree
-     * @param maximizingPlayer true if the current player is maximizing, false otherwise
-     * @return the best move found
+     * @param rootState the initial game state
+     * @param dqnModel the DQN model for evaluating game states
+     * @param transpositionTable the table to read and fill
      */
-    public Move getBestMove(GameState state, int depth, boolean maximizingPlayer) {
-        MMResult result = minimax(state.clone(), depth, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, maximizingPlayer, new ArrayList<>());
-        return result.getMoves().isEmpty() ? null : result.getMoves().get(0);
+    public HybridAgent(
+            GameState rootState, DQNModel dqnModel, TranspositionTable transpositionTable) {
+        this(rootState, dqnModel, transpositionTable, new EvaluationCache());
     }
 
     /**
-     * Implements the MiniMax algorithm with alpha-beta pruning.
+     * Constructs a HybridAgent that shares a transposition table and a cache of DQN evaluations.
+     * The cache must only hold evaluations of the same model.
      *
-     * @param state the current game state
-     * @param depth the depth to search in the game tree
-     * @param alpha the alpha value for alpha-beta pruning
-     * @param beta the beta value for alpha-beta pruning
-     * @param maximizingPlayer true if the current player is maximizing, false otherwise
-     * @param moveSequence the sequence of moves leading to the current state
-     * @return the result of the MiniMax evaluation
+     * @param rootState the initial game state
+     * @param dqnModel the DQN model for evaluating game states
+     * @param transpositionTable the table to read and fill
+     * @param evaluationCache the cache of leaf evaluations to read and fill
      */
-    private MMResult minimax(GameState state, int depth, double alpha, double beta, boolean maximizingPlayer, List<Move> moveSequence) {
-        if (depth == 0 || state.isTerminal()) {
-            double score = dqnModel.evaluate(state);
-            return new MMResult(score, moveSequence);
-        }
-
-        if (maximizingPlayer) {
-            double maxEval = Double.NEGATIVE_INFINITY;
-            List<Move> bestMoves = new ArrayList<>();
-
-            List<Move> possibleMoves = state.generateMoves();
-            possibleMoves.sort((m1, m2) -> Double.compare(dqnModel.predict(state).getOrDefault(m2.getEndPosition(), 0.0),
-                    dqnModel.predict(state).getOrDefault(m1.getEndPosition(), 0.0)));
+    public HybridAgent(
+            GameState rootState,
+            DQNModel dqnModel,
+            TranspositionTable transpositionTable,
+            EvaluationCache evaluationCache) {
+        super(rootState, transpositionTable);
+        this.dqnModel = dqnModel;
+        this.evaluationCache = evaluationCache;
+    }
 
-            for (Move move : possibleMoves) {
-                GameState newState = state.simulateMove(move).getNextState();
-                List<Move> newMoveSequence = new ArrayList<>(moveSequence);
-                newMoveSequence.add(move);
+    public EvaluationCache getEvaluationCache() {
+        return evaluationCache;
+    }
 
-                double eval = minimax(newState.clone(), depth - 1, alpha, beta, false, newMoveSequence).getScore();
-                if (eval > maxEval) {
-                    maxEval = eval;
-                    bestMoves = newMoveSequence;
-                }
-                alpha = Math.max(alpha, eval);
-                if (beta <= alpha) break;
-            }
-            return new MMResult(maxEval, bestMoves);
+    /** Helpers share the DQN model, whose predictions do not modify it, and the cache. */
+    @Override
+    protected MiniMaxTree createHelper() {
+        return new HybridAgent(rootState, dqnModel, transpositionTable, evaluationCache);
+    }
 
+    @Override
+    protected double evaluateLeaf(Position position, double currentEval) {
+        long key = position.getKey();
+        double eval = evaluationCache.get(key);
+        stats.evalCacheProbes++;
+        if (Double.isNaN(eval)) {
+            eval = dqnModel.evaluate(position);
+            evaluationCache.put(key, eval);
         } else {
-            double minEval = Double.POSITIVE_INFINITY;
-            List<Move> bestMoves = new ArrayList<>();
-
-            List<Move> possibleMoves = state.generateMoves();
-            possibleMoves.sort((m1, m2) -> Double.compare(dqnModel.predict(state).getOrDefault(m1.getEndPosition(), 0.0),
-                    dqnModel.predict(state).getOrDefault(m2.getEndPosition(), 0.0)));
-
-            for (Move move : possibleMoves) {
-                GameState newState = state.simulateMove(move).getNextState();
-                List<Move> newMoveSequence = new ArrayList<>(moveSequence);
-                newMoveSequence.add(move);
+            stats.evalCacheHits++;
+        }
+        return eval;
+    }
 
-                double eval = minimax(newState.clone(), depth - 1, alpha, beta, true, newMoveSequence).getScore();
-                if (eval < minEval) {
-                    minEval = eval;
-                    bestMoves = newMoveSequence;
-                }
-                beta = Math.min(beta, eval);
-                if (beta <= alpha) break;
-            }
-            return new MMResult(minEval, bestMoves);
+    /**
+     * Uses the DQN's Q-values of the landing squares, from a single pass through the network per
+     * node into buffers of this tree, so no move is generated again and nothing is allocated.
+     */
+    @Override
+    protected double[] movePriors(Position position, MoveList moves, boolean maximizingPlayer) {
+        position.toInputArray(input);
+        dqnModel.predict(input, qValues);
+        for (int i = 0; i < moves.size(); i++) {
+            int to = PackedMove.getTo(moves.get(i));
+            double q = qValues[Squares.getY(to) * Squares.BOARD_SIZE + Squares.getX(to)];
+            priors[to] = maximizingPlayer ? q : -q;
         }
+        return priors;
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,6 @@
 package com.frisian_draught.AI.MiniMax;
 
-import com.frisian_draught.board.Move;
+import com.frisian_draught.board.rules.LegalMove;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -11,7 +11,7 @@ import java.util.List;
  */
 public class MMResult {
     private double score;
-    private List<Move> moves;
+    private List<LegalMove> moves;
 
     /**
      * Constructs an MMResult with the given score and list of moves.
@@ -19,7 +19,7 @@ public class MMResult {
      * @param score the evaluation score
      * @param moves the sequence of moves leading to the score
      */
-    public MMResult(double score, List<Move> moves) {
+    public MMResult(double score, List<LegalMove> moves) {
         this.score = score;
         this.moves = new ArrayList<>(moves);
     }
@@ -38,7 +38,7 @@ public class MMResult {
      *
      * @return the list of moves
      */
-    public List<Move> getMoves() {
+    public List<LegalMove> getMoves() {
         return moves;
     }
 }
\ No newline at end of file
@@ -1,30 +1,207 @@
 package com.frisian_draught.AI.MiniMax;
 
+import com.frisian_draught.AI.Endgame.Tablebase;
 import com.frisian_draught.board.GameState;
 import com.frisian_draught.board.Move;
-import com.frisian_draught.board.Pawn;
-
-import org.joml.Vector2i;
+import com.frisian_draught.board.rules.LegalMove;
+import com.frisian_draught.board.rules.MoveList;
+import com.frisian_draught.board.rules.PackedMove;
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.RepetitionTracker;
+import com.frisian_draught.board.rules.RulesEngine;
+import com.frisian_draught.board.rules.UndoInfo;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * The MiniMaxTree class implements the MiniMax algorithm with alpha-beta pruning
  * to determine the best move in a game state.
+ *
+ * <p>The search runs on a single headless {@link Position} that is updated in place with
+ * make/unmake, so no game state is cloned per node. At the nominal depth the search goes on
+ * through forced captures (see {@link #quiesce}), so only quiet positions are evaluated.
+ *
+ * <p>A search can be given a fixed depth or a time budget. With a budget it deepens one ply at a
+ * time and returns the best move of the last iteration that finished before the time ran out.
+ *
+ * <p>With more than one thread (see {@link #setThreadCount(int)}) the search is a Lazy SMP:
+ * helper trees search the same root at staggered depths while this tree searches as usual. They
+ * only communicate through the shared transposition table, so the helpers fill it with results
+ * this tree then finds, and only this tree's result is returned.
+ *
+ * <p>With an endgame {@link Tablebase} (see {@link #setTablebase(Tablebase)}) positions with few
+ * enough pieces are not searched but scored from their exact result.
  */
 public class MiniMaxTree {
 
+    /** Maximum number of plies the search keeps undo records for. */
+    protected static final int MAX_PLY = 64;
+
+    /** Score of a position drawn by threefold repetition. */
+    protected static final double DRAW_SCORE = 0;
+
+    /** Half-width of the first aspiration window around the previous iteration's score. */
+    protected static final double ASPIRATION_WINDOW = 0.25;
+
+    /** Score of a position won according to the tablebase, less a little per ply to the win. */
+    protected static final double TABLEBASE_WIN_SCORE = 100;
+
+    // Score given up per ply to the end, so that faster wins and slower losses are preferred
+    private static final double TABLEBASE_PLY_PENALTY = 0.01;
+
+    // Past this half-width the aspiration window is opened on the failing side
+    private static final double MAX_ASPIRATION_WINDOW = 4.0;
+
+    // The clock is read once every this many nodes
+    private static final int TIME_CHECK_MASK = 1023;
+
+    private static final ExecutorService HELPER_POOL =
+            Executors.newCachedThreadPool(
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "search-helper");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+
     public GameState rootState;
 
+    protected final UndoInfo[] undoStack = UndoInfo.stack(MAX_PLY);
+
+    protected RepetitionTracker repetitions = new RepetitionTracker();
+
+    protected TranspositionTable transpositionTable;
+
+    protected final MoveOrderer moveOrderer = new MoveOrderer(MAX_PLY);
+
+    // Moves of the node being searched at each ply, reused so that the search allocates nothing
+    private final MoveList[] moveLists = MoveList.stack(MAX_PLY);
+
+    protected Tablebase tablebase;
+
+    // Triangular PV array: pv[ply] holds the best line from ply on, pvLength[ply] moves long
+    private final long[][] pv = new long[MAX_PLY + 1][];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+    private MMResult lastResult;
+
+    // System.nanoTime() at which a timed search gives up, Long.MAX_VALUE for none
+    private long deadline = Long.MAX_VALUE;
+    // Set while searching the first iteration, which runs to the end whatever happens
+    private boolean mustComplete;
+    private boolean aborted;
+    protected final SearchStats stats = new SearchStats();
+    private int completedDepth;
+
+    // Root moves skipped by the search, the lines an analysis has already found at this depth
+    private final MoveList excludedRootMoves = new MoveList();
+
+    private int threadCount = 1;
+    private final List<MiniMaxTree> helpers = new ArrayList<>();
+    // Set on helper trees; raised by the main tree when its search is over
+    private AtomicBoolean stopSignal;
+
     /**
      * Constructs a MiniMaxTree with the given root state.
      *
      * @param rootState the initial game state
      */
     public MiniMaxTree(GameState rootState) {
+        this(rootState, new TranspositionTable());
+    }
+
+    /**
+     * Constructs a MiniMaxTree that shares a transposition table, e.g. one kept by a bot across
+     * its moves.
+     *
+     * @param rootState the initial game state
+     * @param transpositionTable the table to read and fill
+     */
+    public MiniMaxTree(GameState rootState, TranspositionTable transpositionTable) {
         this.rootState = rootState;
+        this.transpositionTable = transpositionTable;
+        for (int ply = 0; ply <= MAX_PLY; ply++) {
+            pv[ply] = new long[MAX_PLY - ply + 1];
+        }
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    /**
+     * Sets the number of threads a search uses, this one included. Helper trees are created the
+     * first time they are needed and kept for later searches.
+     *
+     * @param threadCount the number of threads, at least 1
+     */
+    public void setThreadCount(int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1: " + threadCount);
+        }
+        this.threadCount = threadCount;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /** Returns the number of nodes visited by the last search, helper threads included. */
+    public long getNodes() {
+        return getStats().getNodes();
+    }
+
+    /**
+     * Returns the counters of the last search, summed over the helper threads, with the time it
+     * took.
+     *
+     * @return a copy of the counters
+     */
+    public SearchStats getStats() {
+        SearchStats total = new SearchStats(stats);
+        for (int i = 0; i < threadCount - 1 && i < helpers.size(); i++) {
+            total.add(helpers.get(i).stats);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the score and principal variation of the last completed search iteration, or null
+     * if there was none.
+     */
+    public MMResult getLastResult() {
+        return lastResult;
+    }
+
+    /** Returns the depth of the last search iteration that was completed. */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Sets the positions played so far in the game, so that repetitions inside the tree are
+     * scored as draws. The last entry must be the position searched. The tracker is copied.
+     *
+     * @param history the game's repetition tracker
+     */
+    public void setRepetitionTracker(RepetitionTracker history) {
+        this.repetitions = new RepetitionTracker(history);
+    }
+
+    /**
+     * Sets the endgame tables to score positions with few pieces from. Helper trees use the same
+     * tables.
+     *
+     * @param tablebase the tables, or null to search every position
+     */
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
     }
 
     /**
@@ -36,121 +213,641 @@ public class MiniMaxTree {
      * @return the best move found
      */
     public Move getBestMove(GameState state, int depth, boolean maximizingPlayer) {
-        MMResult result = minimax(state.clone(), depth, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, maximizingPlayer, 0, new ArrayList<>());
-        if (result.getMoves().isEmpty()) {
-            return null;
+        LegalMove bestMove = getBestMove(Position.fromGameState(state), depth, maximizingPlayer);
+        return bestMove == null ? null : bestMove.toMove();
+    }
+
+    /**
+     * Gets the best move for the given headless position using the MiniMax algorithm.
+     *
+     * @param position the current position, left unchanged
+     * @param depth the depth to search in the game tree
+     * @param maximizingPlayer true if the current player is maximizing, false otherwise
+     * @return the best move found, or null if there is none
+     */
+    public LegalMove getBestMove(Position position, int depth, boolean maximizingPlayer) {
+        long start = System.nanoTime();
+        startSearch();
+        deadline = Long.MAX_VALUE;
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Future<?>> running = startHelpers(position, maximizingPlayer, stop);
+        LegalMove bestMove;
+        try {
+            bestMove = searchRoot(position, depth, maximizingPlayer, Double.NaN);
+        } finally {
+            stopHelpers(stop, running);
+            stats.elapsedNanos = System.nanoTime() - start;
         }
-        return result.getMoves().get(0);
+        completedDepth = depth;
+        return bestMove;
     }
 
     /**
-     * Implements the MiniMax algorithm with alpha-beta pruning.
+     * Gets the best move for the given game state by iterative deepening within a time budget.
      *
      * @param state the current game state
+     * @param maximizingPlayer true if the current player is maximizing, false otherwise
+     * @param timeBudgetMillis the time to spend on the move, in milliseconds
+     * @return the best move found
+     */
+    public Move getBestMove(GameState state, boolean maximizingPlayer, long timeBudgetMillis) {
+        LegalMove bestMove =
+                getBestMove(Position.fromGameState(state), maximizingPlayer, timeBudgetMillis);
+        return bestMove == null ? null : bestMove.toMove();
+    }
+
+    /**
+     * Gets the best move for the given headless position by iterative deepening. Each iteration
+     * searches one ply deeper, starting from the best move of the previous one through the
+     * transposition table. An iteration that runs out of time or is interrupted is thrown away;
+     * the first one ignores both and is always completed, so a move is returned even with no time
+     * left or when the search is cancelled. With a budget of {@code Long.MAX_VALUE} the search
+     * deepens until the thread is interrupted, as when pondering.
+     *
+     * @param position the current position, left unchanged
+     * @param maximizingPlayer true if the current player is maximizing, false otherwise
+     * @param timeBudgetMillis the time to spend on the move, in milliseconds
+     * @return the best move of the deepest completed iteration, or null if the position has no
+     *     moves
+     */
+    public LegalMove getBestMove(
+            Position position, boolean maximizingPlayer, long timeBudgetMillis) {
+        long start = System.nanoTime();
+        long budget = TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+        startSearch();
+        try {
+            List<LegalMove> rootMoves = RulesEngine.generateMoves(position);
+            if (rootMoves.size() <= 1) {
+                return rootMoves.isEmpty() ? null : rootMoves.get(0);
+            }
+            if (isInTablebase(position)) {
+                LegalMove tablebaseMove = tablebase.bestMove(position);
+                if (tablebaseMove != null) {
+                    return tablebaseMove;
+                }
+            }
+            return deepen(position, maximizingPlayer, start, budget);
+        } finally {
+            stats.elapsedNanos = System.nanoTime() - start;
+        }
+    }
+
+    /** Runs the iterations of a timed search, see {@link #getBestMove(Position, boolean, long)}. */
+    private LegalMove deepen(
+            Position position, boolean maximizingPlayer, long start, long budget) {
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Future<?>> running = startHelpers(position, maximizingPlayer, stop);
+        LegalMove bestMove = null;
+        double guess = Double.NaN;
+        try {
+            for (int depth = 1; depth < MAX_PLY; depth++) {
+                deadline = budget == Long.MAX_VALUE ? Long.MAX_VALUE : start + budget;
+                mustComplete = depth == 1;
+                LegalMove move = searchRoot(position, depth, maximizingPlayer, guess);
+                if (aborted) {
+                    break;
+                }
+                bestMove = move;
+                guess = lastResult.getScore();
+                completedDepth = depth;
+                // The next iteration takes several times as long and would not finish
+                if (System.nanoTime() - start > budget / 2) {
+                    break;
+                }
+            }
+        } finally {
+            deadline = Long.MAX_VALUE;
+            mustComplete = false;
+            stopHelpers(stop, running);
+        }
+        return bestMove;
+    }
+
+    /**
+     * Analyses a position for its best few moves, a multi-PV search. Each iteration of the
+     * iterative deepening searches the root once per line, leaving out the moves of the lines it
+     * already has, so every line gets the exact score of its move. The lines of each completed
+     * iteration are handed to the listener; an iteration that runs out of time or is interrupted
+     * is thrown away, and the first one ignores both and is always completed.
+     *
+     * @param position the position, left unchanged
+     * @param maximizingPlayer true if the current player is maximizing, false otherwise
+     * @param lineCount the number of best moves to report, at least 1
+     * @param maxDepth the depth to stop after
+     * @param timeBudgetMillis the time to spend, in milliseconds; {@code Long.MAX_VALUE} to
+     *     search until the thread is interrupted
+     * @param listener told of each completed iteration, or null
+     * @return the lines of the deepest completed iteration, best first, empty if the position has
+     *     no moves
+     */
+    public List<MMResult> analyze(
+            Position position,
+            boolean maximizingPlayer,
+            int lineCount,
+            int maxDepth,
+            long timeBudgetMillis,
+            AnalysisListener listener) {
+        if (lineCount < 1) {
+            throw new IllegalArgumentException("Line count must be at least 1: " + lineCount);
+        }
+        long start = System.nanoTime();
+        long budget = TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+        startSearch();
+
+        int lines = Math.min(lineCount, RulesEngine.generateMoves(position).size());
+        List<MMResult> best = new ArrayList<>();
+        double[] guesses = new double[lines];
+        Arrays.fill(guesses, Double.NaN);
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Future<?>> running = startHelpers(position, maximizingPlayer, stop);
+        try {
+            for (int depth = 1; depth <= maxDepth && depth < MAX_PLY && lines > 0; depth++) {
+                deadline = budget == Long.MAX_VALUE ? Long.MAX_VALUE : start + budget;
+                mustComplete = depth == 1;
+                List<MMResult> found = new ArrayList<>();
+                for (int line = 0; line < lines; line++) {
+                    LegalMove move =
+                            searchRoot(position, depth, maximizingPlayer, guesses[line]);
+                    if (move == null) {
+                        break;
+                    }
+                    found.add(lastResult);
+                    excludedRootMoves.add(PackedMove.of(move));
+                }
+                excludedRootMoves.clear();
+                if (aborted) {
+                    lastResult = best.isEmpty() ? null : best.get(0);
+                    break;
+                }
+
+                found.sort(
+                        (a, b) ->
+                                maximizingPlayer
+                                        ? Double.compare(b.getScore(), a.getScore())
+                                        : Double.compare(a.getScore(), b.getScore()));
+                for (int line = 0; line < found.size(); line++) {
+                    guesses[line] = found.get(line).getScore();
+                }
+                best = found;
+                lastResult = found.get(0);
+                completedDepth = depth;
+                if (listener != null) {
+                    listener.onIteration(depth, List.copyOf(found));
+                }
+                if (System.nanoTime() - start > budget / 2) {
+                    break;
+                }
+            }
+        } finally {
+            excludedRootMoves.clear();
+            deadline = Long.MAX_VALUE;
+            mustComplete = false;
+            stopHelpers(stop, running);
+            stats.elapsedNanos = System.nanoTime() - start;
+        }
+        return best;
+    }
+
+    /**
+     * Creates a tree to help this one in a parallel search. It must share the transposition table
+     * and may share read-only data such as a model, but no per-search state.
+     *
+     * @return a new tree of the same kind as this one
+     */
+    protected MiniMaxTree createHelper() {
+        return new MiniMaxTree(rootState, transpositionTable);
+    }
+
+    private void startSearch() {
+        lastResult = null;
+        transpositionTable.newSearch();
+        moveOrderer.newSearch();
+        stats.reset();
+        completedDepth = 0;
+    }
+
+    /** Starts the helper trees on copies of the root; none when the search is single-threaded. */
+    private List<Future<?>> startHelpers(
+            Position position, boolean maximizingPlayer, AtomicBoolean stop) {
+        while (helpers.size() < threadCount - 1) {
+            helpers.add(createHelper());
+        }
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 0; i < threadCount - 1; i++) {
+            MiniMaxTree helper = helpers.get(i);
+            helper.repetitions = new RepetitionTracker(repetitions);
+            helper.tablebase = tablebase;
+            helper.stopSignal = stop;
+            helper.moveOrderer.newSearch();
+            helper.stats.reset();
+            // Every other helper starts one ply deeper, so the threads spread over two depths
+            int firstDepth = 1 + i % 2;
+            Position root = new Position(position);
+            running.add(HELPER_POOL.submit(() -> helper.help(root, maximizingPlayer, firstDepth)));
+        }
+        return running;
+    }
+
+    /** Deepens from the given depth until the main tree raises the stop signal. */
+    private void help(Position position, boolean maximizingPlayer, int firstDepth) {
+        for (int depth = firstDepth; depth < MAX_PLY && !stopSignal.get(); depth++) {
+            searchRoot(position, depth, maximizingPlayer, Double.NaN);
+        }
+    }
+
+    private static void stopHelpers(AtomicBoolean stop, List<Future<?>> running) {
+        stop.set(true);
+        // Wait for the helpers even when interrupted, as the next search reuses their trees
+        boolean interrupted = false;
+        for (Future<?> helper : running) {
+            while (true) {
+                try {
+                    helper.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Search helper failed", e.getCause());
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs one search of the given depth from the root, seeding the repetition history. With a
+     * previous score it starts from an aspiration window around it, widened on each fail until
+     * the score falls inside.
+     *
+     * @param position the root position, left unchanged
+     * @param depth the depth to search
+     * @param maximizingPlayer true if the current player is maximizing, false otherwise
+     * @param guess the score of the previous iteration, or NaN to search the full window
+     * @return the best move, or null if there is none or the search was aborted
+     */
+    private LegalMove searchRoot(
+            Position position, int depth, boolean maximizingPlayer, double guess) {
+        aborted = false;
+        boolean withoutHistory = repetitions.isEmpty();
+        if (withoutHistory) {
+            repetitions.reset(position.getKey());
+        }
+        Position root = new Position(position);
+        double delta = ASPIRATION_WINDOW;
+        double alpha = Double.isNaN(guess) ? Double.NEGATIVE_INFINITY : guess - delta;
+        double beta = Double.isNaN(guess) ? Double.POSITIVE_INFINITY : guess + delta;
+        double score;
+        while (true) {
+            score = minimax(root, depth, alpha, beta, maximizingPlayer, 0, 0);
+            if (aborted) {
+                break;
+            }
+            if (score <= alpha) {
+                delta *= 2;
+                alpha = delta > MAX_ASPIRATION_WINDOW ? Double.NEGATIVE_INFINITY : score - delta;
+            } else if (score >= beta) {
+                delta *= 2;
+                beta = delta > MAX_ASPIRATION_WINDOW ? Double.POSITIVE_INFINITY : score + delta;
+            } else {
+                break;
+            }
+        }
+        if (withoutHistory) {
+            repetitions.clear();
+        }
+        if (aborted || pvLength[0] == 0) {
+            return null;
+        }
+        // Unpacked on the way down the line, as a capture's value depends on the pieces it takes
+        List<LegalMove> line = new ArrayList<>(pvLength[0]);
+        UndoInfo undo = new UndoInfo();
+        for (int i = 0; i < pvLength[0]; i++) {
+            line.add(PackedMove.toLegalMove(pv[0][i], root));
+            root.make(pv[0][i], undo);
+        }
+        lastResult = new MMResult(score, line);
+        return line.get(0);
+    }
+
+    /**
+     * Implements the MiniMax algorithm with alpha-beta pruning, as a principal variation search:
+     * the first move of a node is searched with the full window, the others with a null window
+     * that only tells whether they beat it, and a move that does is searched again with the full
+     * window. The principal variation is collected in a triangular array, see {@link
+     * #getLastResult()}.
+     *
+     * <p>Scores are stored in the transposition table relative to {@code currentEval}, the running
+     * total at the node, so an entry is valid whichever path reaches the position.
+     *
+     * @param position the current position, updated in place and restored before returning
      * @param depth the depth to search in the game tree
      * @param alpha the alpha value for alpha-beta pruning
      * @param beta the beta value for alpha-beta pruning
      * @param maximizingPlayer true if the current player is maximizing, false otherwise
      * @param currentEval the current evaluation score
-     * @param moveSequence the sequence of moves leading to the current state
-     * @return the result of the MiniMax evaluation
-     */
-    public MMResult minimax(GameState state, int depth, double alpha, double beta, boolean maximizingPlayer, double currentEval, List<Move> moveSequence) {
-        if (depth == 0 || state.isTerminal()) {
-            return new MMResult(currentEval, moveSequence);
-        }
-
-        if (maximizingPlayer) {
-            double maxEval = Double.NEGATIVE_INFINITY;
-            List<Move> bestMoveSequence = new ArrayList<>();
-            for (Move move : state.generateMoves()) {
-                GameState newState = state.simulateMove(move).getNextState();
-                List<Move> newMoveSequence = new ArrayList<>(moveSequence);
-                newMoveSequence.add(move);
-                double eval = minimax(newState.clone(), depth - 1, alpha, beta, false, currentEval + evaluate(state, newState, maximizingPlayer), newMoveSequence).getScore();
-                if (eval > maxEval) {
-                    maxEval = eval;
-                    bestMoveSequence = newMoveSequence;
-                }
-                alpha = Math.max(alpha, eval);
-                if (beta <= alpha) {
-                    break;
+     * @param ply the distance from the root, used to pick the undo record
+     * @return the score of the position, meaningless if the search was aborted
+     */
+    public double minimax(
+            Position position,
+            int depth,
+            double alpha,
+            double beta,
+            boolean maximizingPlayer,
+            double currentEval,
+            int ply) {
+        pvLength[ply] = 0;
+        if ((++stats.nodes & TIME_CHECK_MASK) == 0 && shouldStop()) {
+            aborted = true;
+        }
+        stats.selectiveDepth = Math.max(stats.selectiveDepth, ply);
+        if (aborted) {
+            return currentEval;
+        }
+        if (ply >= MAX_PLY) {
+            return evaluateLeaf(position, currentEval);
+        }
+        if (ply > 0 && isInTablebase(position)) {
+            int result = tablebase.probe(position);
+            if (result != Tablebase.NOT_FOUND) {
+                return currentEval + tablebaseScore(result, position.isWhiteToMove());
+            }
+        }
+        if (depth == 0) {
+            return quiesce(position, alpha, beta, maximizingPlayer, currentEval, ply);
+        }
+
+        long key = position.getKey();
+        long entry = transpositionTable.probe(key);
+        stats.ttProbes++;
+        if (entry != TranspositionTable.MISS) {
+            stats.ttHits++;
+        }
+        if (entry != TranspositionTable.MISS
+                && ply > 0
+                && TranspositionTable.getDepth(entry) >= depth) {
+            double score = currentEval + TranspositionTable.getScore(entry);
+            switch (TranspositionTable.getBound(entry)) {
+                case TranspositionTable.EXACT -> {
+                    return score;
                 }
+                case TranspositionTable.LOWER -> alpha = Math.max(alpha, score);
+                case TranspositionTable.UPPER -> beta = Math.min(beta, score);
+                default -> {}
+            }
+            if (beta <= alpha) {
+                return score;
             }
-            return new MMResult(maxEval, bestMoveSequence);
-        } else {
-            double minEval = Double.POSITIVE_INFINITY;
-            List<Move> bestMoveSequence = new ArrayList<>();
-            for (Move move : state.generateMoves()) {
-                GameState newState = state.simulateMove(move).getNextState();
-                List<Move> newMoveSequence = new ArrayList<>(moveSequence);
-                newMoveSequence.add(move);
-                double eval = minimax(newState.clone(), depth - 1, alpha, beta, true, currentEval + evaluate(state, newState, maximizingPlayer), newMoveSequence).getScore();
-                if (eval < minEval) {
-                    minEval = eval;
-                    bestMoveSequence = newMoveSequence;
+        }
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        RulesEngine.generateMoves(position, moves);
+        if (moves.isEmpty()) {
+            return evaluateLeaf(position, currentEval);
+        }
+        int ttFrom = TranspositionTable.NO_SQUARE;
+        int ttTo = TranspositionTable.NO_SQUARE;
+        if (entry != TranspositionTable.MISS) {
+            ttFrom = TranspositionTable.getFrom(entry);
+            ttTo = TranspositionTable.getTo(entry);
+        }
+        moveOrderer.order(
+                moves,
+                position,
+                ply,
+                ttFrom,
+                ttTo,
+                movePriors(position, moves, maximizingPlayer));
+        UndoInfo undo = undoStack[ply];
+        double alphaOriginal = alpha;
+        double betaOriginal = beta;
+        double bestEval = maximizingPlayer ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        long bestMove = PackedMove.NONE;
+        int searched = 0;
+
+        for (int i = 0; i < moves.size(); i++) {
+            long move = moves.get(i);
+            if (ply == 0 && excludedRootMoves.contains(move)) {
+                continue;
+            }
+            searched++;
+            position.make(move, undo);
+            double eval;
+            if (repetitions.push(position, undo) >= 3) {
+                pvLength[ply + 1] = 0;
+                eval = DRAW_SCORE;
+            } else {
+                double childEval = currentEval + evaluate(position, undo);
+                boolean child = !maximizingPlayer;
+                if (bestMove == PackedMove.NONE) {
+                    eval = minimax(position, depth - 1, alpha, beta, child, childEval, ply + 1);
+                } else {
+                    // Null window: only whether the move beats the best one so far
+                    double scoutAlpha = maximizingPlayer ? alpha : Math.nextDown(beta);
+                    double scoutBeta = maximizingPlayer ? Math.nextUp(alpha) : beta;
+                    eval = minimax(
+                            position, depth - 1, scoutAlpha, scoutBeta, child, childEval, ply + 1);
+                    if (eval > alpha && eval < beta && !aborted) {
+                        eval = minimax(position, depth - 1, alpha, beta, child, childEval, ply + 1);
+                    }
                 }
+            }
+            repetitions.pop();
+            position.unmake(undo);
+            if (aborted) {
+                return currentEval;
+            }
+            if (bestMove == PackedMove.NONE
+                    || (maximizingPlayer ? eval > bestEval : eval < bestEval)) {
+                bestEval = eval;
+                bestMove = move;
+                updatePrincipalVariation(ply, move);
+            }
+            if (maximizingPlayer) {
+                alpha = Math.max(alpha, eval);
+            } else {
                 beta = Math.min(beta, eval);
-                if (beta <= alpha) {
-                    break;
+            }
+            if (beta <= alpha) {
+                moveOrderer.recordCutoff(move, ply, depth);
+                stats.betaCutoffs++;
+                if (searched == 1) {
+                    stats.firstMoveCutoffs++;
                 }
+                break;
             }
-            return new MMResult(minEval, bestMoveSequence);
         }
+
+        // With root moves left out the score is not the root's, so it is not stored
+        if (bestMove != PackedMove.NONE && (ply > 0 || excludedRootMoves.isEmpty())) {
+            storeResult(key, depth, bestEval, bestMove, alphaOriginal, betaOriginal, currentEval);
+        }
+        return bestEval;
+    }
+
+    /** Makes the move followed by the child's principal variation the variation of this ply. */
+    private void updatePrincipalVariation(int ply, long move) {
+        long[] line = pv[ply];
+        line[0] = move;
+        int childLength = pvLength[ply + 1];
+        System.arraycopy(pv[ply + 1], 0, line, 1, childLength);
+        pvLength[ply] = childLength + 1;
+    }
+
+    private void storeResult(
+            long key,
+            int depth,
+            double score,
+            long bestMove,
+            double alpha,
+            double beta,
+            double currentEval) {
+        int bound = TranspositionTable.EXACT;
+        if (score <= alpha) {
+            bound = TranspositionTable.UPPER;
+        } else if (score >= beta) {
+            bound = TranspositionTable.LOWER;
+        }
+        transpositionTable.store(
+                key,
+                depth,
+                bound,
+                score - currentEval,
+                PackedMove.getFrom(bestMove),
+                PackedMove.getTo(bestMove));
     }
 
     /**
-     * Evaluates the difference between the old and new game states.
+     * Resolves the pending captures past the nominal depth. Capturing is compulsory, so a side
+     * that has a capture cannot stand pat on the static score: every capture is searched until
+     * a quiet position is reached, and only quiet positions are evaluated.
      *
-     * @param oldState the previous game state
-     * @param newState the new game state
+     * @param position the current position, updated in place and restored before returning
+     * @param alpha the alpha value for alpha-beta pruning
+     * @param beta the beta value for alpha-beta pruning
      * @param maximizingPlayer true if the current player is maximizing, false otherwise
-     * @return the evaluation score
+     * @param currentEval the current evaluation score
+     * @param ply the distance from the root, used to pick the undo record
+     * @return the score of the position once the captures are played out
      */
-    public double evaluate(GameState oldState, GameState newState, boolean maximizingPlayer) {
-        Map<Vector2i, Pawn> oldBoardState = oldState.getBoardState();
-        Map<Vector2i, Pawn> newBoardState = newState.getBoardState();
-        double eval = 0;
+    protected double quiesce(
+            Position position,
+            double alpha,
+            double beta,
+            boolean maximizingPlayer,
+            double currentEval,
+            int ply) {
+        stats.quiescenceNodes++;
+        if ((++stats.nodes & TIME_CHECK_MASK) == 0 && shouldStop()) {
+            aborted = true;
+        }
+        stats.selectiveDepth = Math.max(stats.selectiveDepth, ply);
+        if (aborted) {
+            return currentEval;
+        }
+        if (ply >= MAX_PLY) {
+            return evaluateLeaf(position, currentEval);
+        }
+        MoveList captures = moveLists[ply];
+        captures.clear();
+        RulesEngine.generateCaptures(position, captures);
+        if (captures.isEmpty()) {
+            // Stand pat: nothing is forced, the static score holds
+            return evaluateLeaf(position, currentEval);
+        }
 
-        long oldWhitePawns = oldBoardState.values().stream().filter(pawn -> pawn.isWhite() && !pawn.isKing()).count();
-        long newWhitePawns = newBoardState.values().stream().filter(pawn -> pawn.isWhite() && !pawn.isKing()).count();
-        long oldBlackPawns = oldBoardState.values().stream().filter(pawn -> !pawn.isWhite() && !pawn.isKing()).count();
-        long newBlackPawns = newBoardState.values().stream().filter(pawn -> !pawn.isWhite() && !pawn.isKing()).count();
-        long oldWhiteKings = oldBoardState.values().stream().filter(pawn -> pawn.isWhite() && pawn.isKing()).count();
-        long newWhiteKings = newBoardState.values().stream().filter(pawn -> pawn.isWhite() && pawn.isKing()).count();
-        long oldBlackKings = oldBoardState.values().stream().filter(pawn -> !pawn.isWhite() && pawn.isKing()).count();
-        long newBlackKings = newBoardState.values().stream().filter(pawn -> !pawn.isWhite() && pawn.isKing()).count();
+        // A capture is irreversible, so no repetition can occur below it
+        UndoInfo undo = undoStack[ply];
+        double best = maximizingPlayer ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        for (int i = 0; i < captures.size(); i++) {
+            position.make(captures.get(i), undo);
+            double eval =
+                    quiesce(
+                            position,
+                            alpha,
+                            beta,
+                            !maximizingPlayer,
+                            currentEval + evaluate(position, undo),
+                            ply + 1);
+            position.unmake(undo);
+            if (aborted) {
+                return currentEval;
+            }
+            if (maximizingPlayer) {
+                best = Math.max(best, eval);
+                alpha = Math.max(alpha, eval);
+            } else {
+                best = Math.min(best, eval);
+                beta = Math.min(beta, eval);
+            }
+            if (beta <= alpha) {
+                break;
+            }
+        }
+        return best;
+    }
 
-        // Calculate the difference in pawns and kings, white maximizing, black minimizing
-        long whitePawnsCaptured = oldWhitePawns - newWhitePawns;
-        long blackPawnsCaptured = oldBlackPawns - newBlackPawns;
-        long whiteKingsCaptured = oldWhiteKings - newWhiteKings;
-        long blackKingsCaptured = oldBlackKings - newBlackKings;
+    // An interrupt of the searching thread cancels the search, e.g. when a bot's move is cancelled
+    private boolean shouldStop() {
+        return !mustComplete
+                && (System.nanoTime() > deadline
+                        || (stopSignal != null && stopSignal.get())
+                        || Thread.currentThread().isInterrupted());
+    }
 
-        // Evaluate based on captured pieces
-        eval += (blackPawnsCaptured * 1.0 + blackKingsCaptured * 3.0) - (whitePawnsCaptured * 1.0 + whiteKingsCaptured * 3.0);
+    private boolean isInTablebase(Position position) {
+        return tablebase != null
+                && Long.bitCount(position.getOccupied()) <= tablebase.getMaxPieces();
+    }
 
-        // Evaluate based on control of the edges
-        long whiteEdgeControl = newBoardState.values().stream().filter(pawn -> pawn.isWhite() && isEdge(pawn.getPosition())).count();
-        long blackEdgeControl = newBoardState.values().stream().filter(pawn -> !pawn.isWhite() && isEdge(pawn.getPosition())).count();
-        eval += (whiteEdgeControl - blackEdgeControl) * 0.5;
+    /** Converts a tablebase result for the side to move to a score, positive when white wins. */
+    private static double tablebaseScore(int result, boolean whiteToMove) {
+        if (result == Tablebase.DRAW) {
+            return DRAW_SCORE;
+        }
+        double score =
+                TABLEBASE_WIN_SCORE - Tablebase.distance(result) * TABLEBASE_PLY_PENALTY;
+        return Tablebase.isWin(result) == whiteToMove ? score : -score;
+    }
 
-        // Evaluate based on mobility (number of possible moves per piece)
-        long whiteMobility = newState.generateMoves().stream().filter(move -> newBoardState.get(move.getStartPosition()).isWhite()).count();
-        long blackMobility = newState.generateMoves().stream().filter(move -> !newBoardState.get(move.getStartPosition()).isWhite()).count();
-        eval += (whiteMobility - blackMobility) * 0.1;
+    /**
+     * Scores a leaf of the search: the static {@link Evaluator} score plus whatever the moves
+     * along the path added through {@link #evaluate(Position, UndoInfo)}.
+     *
+     * @param position the leaf position
+     * @param currentEval the sum of the move evaluations leading to the leaf
+     * @return the leaf score, positive when white is better
+     */
+    protected double evaluateLeaf(Position position, double currentEval) {
+        return currentEval + Evaluator.evaluate(position);
+    }
 
-        return eval;
+    /**
+     * Scores the landing squares of a node's moves for the side to move, once per node, to break
+     * ties between quiet moves in the {@link MoveOrderer}. The plain tree has no priors.
+     *
+     * @param position the position the moves belong to
+     * @param moves the moves generated for the node
+     * @param maximizingPlayer true if the current player is maximizing, false otherwise
+     * @return a score per square, read only at the landing squares of the moves and valid until
+     *     the next call, or null for none
+     */
+    protected double[] movePriors(Position position, MoveList moves, boolean maximizingPlayer) {
+        return null;
     }
 
     /**
-     * Checks if a position is on the edge of the board.
+     * Evaluates the move that was just made on the position, as a bonus added to the running
+     * total of the path. The plain tree scores positions only at the leaves, so moves add nothing.
      *
-     * @param position the position to check
-     * @return true if the position is on the edge, false otherwise
+     * @param position the position after the move
+     * @param undo the undo record of the move, holding the captured pieces and promotion
+     * @return the evaluation score, positive when white gains
      */
-    private boolean isEdge(Vector2i position) {
-        int x = position.x;
-        return (x == 0 || x == 1 || x == 8 || x == 9);
+    public double evaluate(Position position, UndoInfo undo) {
+        return 0;
     }
-}
\ No newline at end of file
+}
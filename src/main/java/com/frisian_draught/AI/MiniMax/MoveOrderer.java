@@ -0,0 +1,166 @@
+package com.frisian_draught.AI.MiniMax;
+
+import com.frisian_draught.board.rules.MoveList;
+import com.frisian_draught.board.rules.PackedMove;
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.Squares;
+
+import java.util.Arrays;
+
+/**
+ * Orders the moves of a search node so that the ones most likely to cause a cutoff are searched
+ * first: the transposition table move, then captures by value, then the killer moves of the ply,
+ * then the quiet moves by their history score.
+ *
+ * <p>Killers are the last two quiet moves that caused a cutoff at a ply, which often refute the
+ * sibling positions too. The history table counts cutoffs per from and to square over the whole
+ * search, weighted by the remaining depth. Optional priors per landing square, such as the DQN
+ * values, break ties between quiet moves with the same history.
+ */
+public class MoveOrderer {
+
+    private static final long TT_MOVE = 1L << 62;
+    private static final long CAPTURE = 1L << 61;
+    private static final long KILLER = 1L << 60;
+
+    // History scores are halved once one of them reaches this, keeping them below KILLER
+    private static final long HISTORY_LIMIT = 1L << 40;
+
+    private static final int NO_MOVE = -1;
+
+    // killers[ply][slot], a move packed as from * 64 + to
+    private final int[][] killers;
+    private final long[] history = new long[Squares.COUNT * Squares.COUNT];
+
+    private long[] keys = new long[64];
+    private double[] priorKeys = new double[64];
+
+    /**
+     * Creates an orderer with empty tables.
+     *
+     * @param maxPly Number of plies to keep killer moves for.
+     */
+    public MoveOrderer(int maxPly) {
+        killers = new int[maxPly][2];
+        clearKillers();
+    }
+
+    /**
+     * Sorts the moves of a node in place, best first. Moves with equal scores keep their order.
+     *
+     * @param moves The legal moves of the node, packed.
+     * @param position The position of the node, for the value of the captures.
+     * @param ply Distance of the node from the root.
+     * @param ttFrom Origin square of the transposition table move, or a value outside 0 to 49.
+     * @param ttTo Destination square of the transposition table move.
+     * @param priors Score per landing square for the side to move, higher first, or null.
+     */
+    public void order(
+            MoveList moves, Position position, int ply, int ttFrom, int ttTo, double[] priors) {
+        int count = moves.size();
+        if (keys.length < count) {
+            keys = new long[count];
+            priorKeys = new double[count];
+        }
+        long kings = position.getKings();
+        for (int i = 0; i < count; i++) {
+            long move = moves.get(i);
+            keys[i] = score(move, kings, ply, ttFrom, ttTo);
+            priorKeys[i] = priors == null ? 0.0 : priors[PackedMove.getTo(move)];
+        }
+
+        // Insertion sort: lists are short and it is stable
+        for (int i = 1; i < count; i++) {
+            long move = moves.get(i);
+            long key = keys[i];
+            double prior = priorKeys[i];
+            int j = i - 1;
+            while (j >= 0 && (keys[j] < key || (keys[j] == key && priorKeys[j] < prior))) {
+                moves.set(j + 1, moves.get(j));
+                keys[j + 1] = keys[j];
+                priorKeys[j + 1] = priorKeys[j];
+                j--;
+            }
+            moves.set(j + 1, move);
+            keys[j + 1] = key;
+            priorKeys[j + 1] = prior;
+        }
+    }
+
+    /**
+     * Records a move that caused a beta cutoff. Captures are ordered by value anyway and are
+     * not recorded.
+     *
+     * @param move The packed move searched when the cutoff happened.
+     * @param ply Distance of the node from the root.
+     * @param depth Remaining depth of the node.
+     */
+    public void recordCutoff(long move, int ply, int depth) {
+        if (PackedMove.isCapture(move)) {
+            return;
+        }
+        int killer = killer(move);
+        if (ply < killers.length && killers[ply][0] != killer) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = killer;
+        }
+        int index = PackedMove.getFrom(move) * Squares.COUNT + PackedMove.getTo(move);
+        history[index] += (long) depth * depth;
+        if (history[index] >= HISTORY_LIMIT) {
+            ageHistory();
+        }
+    }
+
+    /**
+     * Prepares for a new search from another root: the killers no longer match their plies and
+     * the history is aged so recent cutoffs weigh more.
+     */
+    public void newSearch() {
+        clearKillers();
+        ageHistory();
+    }
+
+    /** Returns the history score of a quiet move. */
+    public long getHistory(int from, int to) {
+        return history[from * Squares.COUNT + to];
+    }
+
+    private long score(long move, long kings, int ply, int ttFrom, int ttTo) {
+        int from = PackedMove.getFrom(move);
+        int to = PackedMove.getTo(move);
+        if (from == ttFrom && to == ttTo) {
+            return TT_MOVE;
+        }
+        if (PackedMove.isCapture(move)) {
+            return CAPTURE
+                    + (long) PackedMove.getCaptureValue(move, kings) * Squares.COUNT
+                    + PackedMove.getCaptureCount(move);
+        }
+        if (ply < killers.length) {
+            int killer = killer(move);
+            if (killers[ply][0] == killer) {
+                return KILLER + 1;
+            }
+            if (killers[ply][1] == killer) {
+                return KILLER;
+            }
+        }
+        return history[from * Squares.COUNT + to];
+    }
+
+    private void ageHistory() {
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 1;
+        }
+    }
+
+    private void clearKillers() {
+        for (int[] slots : killers) {
+            Arrays.fill(slots, NO_MOVE);
+        }
+    }
+
+    private static int killer(long move) {
+        return PackedMove.getFrom(move) << 6 | PackedMove.getTo(move);
+    }
+}
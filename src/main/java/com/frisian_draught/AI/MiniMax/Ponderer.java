@@ -0,0 +1,157 @@
+package com.frisian_draught.AI.MiniMax;
+
+import com.frisian_draught.board.rules.LegalMove;
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.RepetitionTracker;
+import com.frisian_draught.board.rules.RulesEngine;
+import com.frisian_draught.board.rules.UndoInfo;
+
+import java.util.List;
+
+/**
+ * Searches on the opponent's time. After each move the bot's search expects a reply, the second
+ * move of its principal variation; {@link #ponder} then searches the position after that reply
+ * until it is interrupted, filling the shared transposition table as it goes.
+ *
+ * <p>When the opponent plays the expected reply, a ponder hit, the next {@link #search} finds
+ * the table already filled for its position, so it gets deeper in the same time, and it plays the
+ * ponder move if pondering got deeper still. On a miss the ponder result is thrown away; its
+ * table entries belong to an older search and are the first to be replaced.
+ *
+ * <p>{@link #search} and {@link #ponder} must be called from one thread at a time, in turn.
+ */
+public class Ponderer {
+
+    // Position expected after the opponent's reply, with its history; null when there is none
+    private Position expected;
+    private RepetitionTracker expectedHistory;
+    private boolean expectedMaximizing;
+
+    // Result of the last ponder search, for the position with the given key
+    private boolean pondered;
+    private long ponderKey;
+    private LegalMove ponderMove;
+    private int ponderDepth;
+
+    private long hits;
+    private long misses;
+
+    /**
+     * Searches a position for the best move, using the last ponder search if it was for the same
+     * position, and prepares the next ponder search from the result.
+     *
+     * @param tree the tree to search with; its transposition table is the one pondered into
+     * @param position the current position, left unchanged
+     * @param history the positions played so far, ending with the current one; copied
+     * @param maximizingPlayer true if the current player is maximizing, false otherwise
+     * @param timeBudgetMillis the time to spend on the move, in milliseconds
+     * @return the best move found, or null if there is none
+     */
+    public LegalMove search(
+            MiniMaxTree tree,
+            Position position,
+            RepetitionTracker history,
+            boolean maximizingPlayer,
+            long timeBudgetMillis) {
+        boolean hit = pondered && ponderKey == position.getKey();
+        if (pondered) {
+            if (hit) {
+                hits++;
+            } else {
+                misses++;
+            }
+        }
+        pondered = false;
+        expected = null;
+
+        tree.setRepetitionTracker(history);
+        LegalMove bestMove = tree.getBestMove(position, maximizingPlayer, timeBudgetMillis);
+        if (hit && ponderMove != null && ponderDepth > tree.getCompletedDepth()) {
+            bestMove = ponderMove;
+        }
+        ponderMove = null;
+        expect(tree, position, history, maximizingPlayer, bestMove);
+        return bestMove;
+    }
+
+    /**
+     * Searches the position expected after the opponent's reply until the calling thread is
+     * interrupted. Does nothing if the last search did not expect a reply.
+     *
+     * @param tree the tree to ponder with; it must share the transposition table of the trees
+     *     that {@link #search} is given
+     */
+    public void ponder(MiniMaxTree tree) {
+        if (expected == null) {
+            return;
+        }
+        pondered = true;
+        ponderKey = expected.getKey();
+        ponderMove = null;
+        tree.setRepetitionTracker(expectedHistory);
+        ponderMove = tree.getBestMove(expected, expectedMaximizing, Long.MAX_VALUE);
+        ponderDepth = tree.getCompletedDepth();
+        expected = null;
+    }
+
+    /** Returns the number of searches whose position was the one pondered. */
+    public long getHits() {
+        return hits;
+    }
+
+    /** Returns the number of searches after a ponder search of another position. */
+    public long getMisses() {
+        return misses;
+    }
+
+    public double getHitRate() {
+        return hits + misses == 0 ? 0.0 : (double) hits / (hits + misses);
+    }
+
+    /**
+     * Sets up the position after the best move and the reply the search expects to it, if the
+     * search's principal variation starts with the move.
+     */
+    private void expect(
+            MiniMaxTree tree,
+            Position position,
+            RepetitionTracker history,
+            boolean maximizingPlayer,
+            LegalMove bestMove) {
+        MMResult result = tree.getLastResult();
+        if (bestMove == null || result == null || result.getMoves().size() < 2) {
+            return;
+        }
+        List<LegalMove> variation = result.getMoves();
+        Position next = new Position(position);
+        RepetitionTracker nextHistory = new RepetitionTracker(history);
+        for (int ply = 0; ply < 2; ply++) {
+            LegalMove move = variation.get(ply);
+            // The reply must follow the move played, and be legal after it
+            if (ply == 0 ? !isSameMove(move, bestMove) : !isLegal(next, move)) {
+                return;
+            }
+            UndoInfo undo = new UndoInfo();
+            next.make(move, undo);
+            nextHistory.push(next, undo);
+        }
+        expected = next;
+        expectedHistory = nextHistory;
+        expectedMaximizing = maximizingPlayer;
+    }
+
+    private static boolean isLegal(Position position, LegalMove move) {
+        for (LegalMove legalMove : RulesEngine.generateMoves(position)) {
+            if (isSameMove(legalMove, move)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSameMove(LegalMove a, LegalMove b) {
+        return a.getFrom() == b.getFrom()
+                && a.getTo() == b.getTo()
+                && a.getCaptured() == b.getCaptured();
+    }
+}
@@ -0,0 +1,171 @@
+package com.frisian_draught.AI.MiniMax;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counters of a search, see {@link MiniMaxTree#getStats()}. Each tree counts into its own
+ * instance without synchronization; the stats of a parallel search are the sum over its trees.
+ *
+ * <p>Nodes include the quiescence nodes. A beta cutoff is counted when a move of the main search
+ * refutes its node, and a first-move cutoff when that move was the first one searched, so the
+ * first-move cutoff rate tells how well the moves are ordered. The selective depth is the
+ * deepest ply reached, captures included.
+ */
+public class SearchStats {
+
+    long nodes;
+    long quiescenceNodes;
+    long betaCutoffs;
+    long firstMoveCutoffs;
+    long ttProbes;
+    long ttHits;
+    long evalCacheProbes;
+    long evalCacheHits;
+    int selectiveDepth;
+    long elapsedNanos;
+
+    public SearchStats() {}
+
+    /**
+     * Constructs a copy of other stats.
+     *
+     * @param other the stats to copy
+     */
+    public SearchStats(SearchStats other) {
+        nodes = other.nodes;
+        quiescenceNodes = other.quiescenceNodes;
+        betaCutoffs = other.betaCutoffs;
+        firstMoveCutoffs = other.firstMoveCutoffs;
+        ttProbes = other.ttProbes;
+        ttHits = other.ttHits;
+        evalCacheProbes = other.evalCacheProbes;
+        evalCacheHits = other.evalCacheHits;
+        selectiveDepth = other.selectiveDepth;
+        elapsedNanos = other.elapsedNanos;
+    }
+
+    /** Sets every counter back to zero, for a new search. */
+    void reset() {
+        nodes = 0;
+        quiescenceNodes = 0;
+        betaCutoffs = 0;
+        firstMoveCutoffs = 0;
+        ttProbes = 0;
+        ttHits = 0;
+        evalCacheProbes = 0;
+        evalCacheHits = 0;
+        selectiveDepth = 0;
+        elapsedNanos = 0;
+    }
+
+    /**
+     * Adds the counters of another tree that searched alongside this one. The selective depth is
+     * the deeper of the two; the elapsed time is left as it is, as the trees ran at once.
+     *
+     * @param other the stats of the other tree
+     */
+    void add(SearchStats other) {
+        nodes += other.nodes;
+        quiescenceNodes += other.quiescenceNodes;
+        betaCutoffs += other.betaCutoffs;
+        firstMoveCutoffs += other.firstMoveCutoffs;
+        ttProbes += other.ttProbes;
+        ttHits += other.ttHits;
+        evalCacheProbes += other.evalCacheProbes;
+        evalCacheHits += other.evalCacheHits;
+        selectiveDepth = Math.max(selectiveDepth, other.selectiveDepth);
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getQuiescenceNodes() {
+        return quiescenceNodes;
+    }
+
+    public long getBetaCutoffs() {
+        return betaCutoffs;
+    }
+
+    public long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+
+    /** Returns the share of the beta cutoffs made by the first move searched. */
+    public double getFirstMoveCutoffRate() {
+        return betaCutoffs == 0 ? 0.0 : (double) firstMoveCutoffs / betaCutoffs;
+    }
+
+    public long getTtProbes() {
+        return ttProbes;
+    }
+
+    public long getTtHits() {
+        return ttHits;
+    }
+
+    public double getTtHitRate() {
+        return ttProbes == 0 ? 0.0 : (double) ttHits / ttProbes;
+    }
+
+    /** Returns the number of leaf evaluations looked up in an evaluation cache, if any. */
+    public long getEvalCacheProbes() {
+        return evalCacheProbes;
+    }
+
+    public long getEvalCacheHits() {
+        return evalCacheHits;
+    }
+
+    public int getSelectiveDepth() {
+        return selectiveDepth;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /** Returns the number of nodes searched per second, 0 if no time was measured. */
+    public long getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : (long) (nodes * 1_000_000_000.0 / elapsedNanos);
+    }
+
+    /**
+     * Returns the counters by name, in a fixed order, for structured logging.
+     *
+     * @return a new map of the counters and the rates derived from them
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("nodes", nodes);
+        map.put("qnodes", quiescenceNodes);
+        map.put("nps", getNodesPerSecond());
+        map.put("betaCutoffs", betaCutoffs);
+        map.put("firstMoveCutoffRate", getFirstMoveCutoffRate());
+        map.put("ttProbes", ttProbes);
+        map.put("ttHits", ttHits);
+        map.put("evalCacheProbes", evalCacheProbes);
+        map.put("evalCacheHits", evalCacheHits);
+        map.put("selDepth", selectiveDepth);
+        map.put("elapsedNanos", elapsedNanos);
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%d nodes (%d quiescence) in %d ms, %d nps, seldepth %d, "
+                        + "first-move cutoffs %.1f%% of %d, TT hits %.1f%%, eval cache hits %d",
+                nodes,
+                quiescenceNodes,
+                elapsedNanos / 1_000_000,
+                getNodesPerSecond(),
+                selectiveDepth,
+                getFirstMoveCutoffRate() * 100,
+                betaCutoffs,
+                getTtHitRate() * 100,
+                evalCacheHits);
+    }
+}
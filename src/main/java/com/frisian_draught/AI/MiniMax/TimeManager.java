@@ -0,0 +1,37 @@
+package com.frisian_draught.AI.MiniMax;
+
+/**
+ * Splits the time left on a player's clock into a budget for one move, for the iterative
+ * deepening search of {@link MiniMaxTree}.
+ */
+public final class TimeManager {
+
+    /** Budget used when the game has no clock. */
+    public static final long DEFAULT_BUDGET_MILLIS = 1000;
+
+    /** Smallest budget handed out while there is time left. */
+    public static final long MIN_BUDGET_MILLIS = 50;
+
+    // Moves the remaining time is assumed to be spread over
+    private static final int MOVES_TO_GO = 30;
+
+    private TimeManager() {
+        throw new UnsupportedOperationException(
+                "This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Computes the time to spend on the next move.
+     *
+     * @param remainingSeconds Time left on the mover's clock, negative if there is no clock.
+     * @return The budget in milliseconds, never more than a quarter of the remaining time.
+     */
+    public static long budgetMillis(int remainingSeconds) {
+        if (remainingSeconds < 0) {
+            return DEFAULT_BUDGET_MILLIS;
+        }
+        long remaining = remainingSeconds * 1000L;
+        long budget = Math.max(remaining / MOVES_TO_GO, MIN_BUDGET_MILLIS);
+        return Math.min(budget, remaining / 4);
+    }
+}
@@ -0,0 +1,158 @@
+package com.frisian_draught.AI.MiniMax;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size transposition table keyed by {@link
+ * com.frisian_draught.board.rules.Position#getKey() Zobrist keys}.
+ *
+ * <p>The table is a power-of-two array of buckets. Each bucket has a depth-preferred slot, which
+ * only gives way to an entry searched at least as deep (or to any entry once its search is
+ * older), and an always-replace slot that takes everything else. An entry is two longs: the
+ * packed data and the key XORed with the data, so that an entry torn by a concurrent write fails
+ * the key check instead of returning mixed data.
+ *
+ * <p>The data packs the score as a float, the depth, the bound type, the best move as its from
+ * and to squares, and the search generation. {@link #probe(long)} returns it as a long, or
+ * {@link #MISS}, and the static accessors unpack it.
+ *
+ * <p>The threads of a parallel search share one table without locking. A racing write can at
+ * worst lose an entry. The table keeps no counters, as every probe would write the same cache
+ * line from all threads; each search counts its own probes and hits in {@link SearchStats}.
+ */
+public class TranspositionTable {
+
+    public static final int DEFAULT_SIZE_MB = 16;
+
+    /** Returned by {@link #probe(long)} when the position is not in the table. */
+    public static final long MISS = 0L;
+
+    /** The score is the exact minimax value. */
+    public static final int EXACT = 1;
+
+    /** The search failed high: the value is at least the score. */
+    public static final int LOWER = 2;
+
+    /** The search failed low: the value is at most the score. */
+    public static final int UPPER = 3;
+
+    /** Square value for "no best move". */
+    public static final int NO_SQUARE = 63;
+
+    private static final int BUCKET_BYTES = 4 * Long.BYTES;
+
+    private static final int DEPTH_SHIFT = 32;
+    private static final int BOUND_SHIFT = 40;
+    private static final int FROM_SHIFT = 42;
+    private static final int TO_SHIFT = 48;
+    private static final int GENERATION_SHIFT = 54;
+
+    // Per bucket: depth-preferred key ^ data, data, always-replace key ^ data, data
+    private final long[] table;
+    private final int bucketMask;
+    private int generation;
+
+    /**
+     * Creates an empty table.
+     *
+     * @param sizeMb Memory to use, in megabytes. Rounded down to a power of two of buckets.
+     */
+    public TranspositionTable(int sizeMb) {
+        long buckets = Math.max(1L, ((long) sizeMb << 20) / BUCKET_BYTES);
+        buckets = Long.highestOneBit(Math.min(buckets, Integer.MAX_VALUE / 4));
+        this.table = new long[(int) buckets * 4];
+        this.bucketMask = (int) buckets - 1;
+    }
+
+    public TranspositionTable() {
+        this(DEFAULT_SIZE_MB);
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param key Zobrist key of the position.
+     * @return The packed entry, or {@link #MISS}.
+     */
+    public long probe(long key) {
+        int index = index(key);
+        for (int slot = index; slot < index + 4; slot += 2) {
+            long data = table[slot + 1];
+            if (data != MISS && (table[slot] ^ data) == key) {
+                return data;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores the result of a search.
+     *
+     * @param key Zobrist key of the position.
+     * @param depth Remaining depth of the search, 0 to 255.
+     * @param bound {@link #EXACT}, {@link #LOWER} or {@link #UPPER}.
+     * @param score Score of the search.
+     * @param from Origin square of the best move, or {@link #NO_SQUARE}.
+     * @param to Destination square of the best move, or {@link #NO_SQUARE}.
+     */
+    public void store(long key, int depth, int bound, double score, int from, int to) {
+        long data =
+                (Float.floatToRawIntBits((float) score) & 0xFFFFFFFFL)
+                        | (long) Math.min(depth, 255) << DEPTH_SHIFT
+                        | (long) bound << BOUND_SHIFT
+                        | (long) from << FROM_SHIFT
+                        | (long) to << TO_SHIFT
+                        | (long) (generation & 0xFF) << GENERATION_SHIFT;
+
+        int index = index(key);
+        long preferred = table[index + 1];
+        boolean replacePreferred =
+                preferred == MISS
+                        || (table[index] ^ preferred) == key
+                        || depth >= getDepth(preferred)
+                        || getGeneration(preferred) != (generation & 0xFF);
+        int slot = replacePreferred ? index : index + 2;
+        table[slot] = key ^ data;
+        table[slot + 1] = data;
+    }
+
+    /** Marks the start of a new search, so entries of earlier searches can be replaced first. */
+    public void newSearch() {
+        generation++;
+    }
+
+    /** Empties the table. */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        generation = 0;
+    }
+
+    public static double getScore(long data) {
+        return Float.intBitsToFloat((int) data);
+    }
+
+    public static int getDepth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int getBound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 0x3;
+    }
+
+    public static int getFrom(long data) {
+        return (int) (data >>> FROM_SHIFT) & 0x3F;
+    }
+
+    public static int getTo(long data) {
+        return (int) (data >>> TO_SHIFT) & 0x3F;
+    }
+
+    private static int getGeneration(long data) {
+        return (int) (data >>> GENERATION_SHIFT) & 0xFF;
+    }
+
+    private int index(long key) {
+        // High bits pick the bucket; the low bits feed other hash tables
+        return ((int) (key >>> 32) & bucketMask) << 2;
+    }
+}
@@ -1,13 +1,51 @@
 package com.frisian_draught.AI;
 
+import java.util.Arrays;
+
 /**
  * The NeuralNetwork class represents a simple feedforward neural network with one hidden layer.
  * It supports training using backpropagation and predicting outputs based on inputs.
+ *
+ * <p>Weights are single precision and stored row-major in one flat array per layer, one row per
+ * unit of the layer they come from. A layer adds up the rows of its inputs scaled by the inputs'
+ * values, so every inner loop runs over contiguous memory without a sum that depends on its own
+ * previous step. Inputs that are zero, such as the empty squares of the board, are skipped. A
+ * transposed layout, with a dot product per unit over its own row, was measured slower on both
+ * kernels: the scalar dot is a sequential sum, as Java may not reorder floating point additions,
+ * and the vector one pays a lane reduction per unit and cannot skip zero inputs. {@link
+ * #getWeights()} and {@link #setWeights} exchange the weights as {@code [from][to]} double
+ * matrices, the shape models are saved in.
+ *
+ * <p>The loops themselves are {@link Kernels}, on the Vector API when built with the {@code
+ * vector} profile and run with {@code --add-modules jdk.incubator.vector}; the {@code
+ * NeuralNetworkBenchmark} among the tests compares the two.
+ *
+ * <p>Each thread works in scratch buffers of its own, so predictions may run on several threads
+ * at once, such as the helpers of a parallel search; training must not run alongside them.
  */
 public class NeuralNetwork {
-    private double[][] weightsInputHidden; // Weights between input and hidden layers
-    private double[][] weightsHiddenOutput; // Weights between hidden and output layers
-    private double learningRate;
+    // Picked once, when the class is loaded
+    static final Kernels DEFAULT_KERNELS = Kernels.select();
+
+    private final int inputSize;
+    private final int hiddenSize;
+    private final int outputSize;
+    // weightsInputHidden[i * hiddenSize + h] is the weight from input i to hidden unit h
+    private final float[] weightsInputHidden;
+    // weightsHiddenOutput[h * outputSize + o] is the weight from hidden unit h to output o
+    private final float[] weightsHiddenOutput;
+    private final float learningRate;
+    private final Kernels kernels;
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    /** The layers of one pass through the network, reused by every pass on a thread. */
+    private final class Scratch {
+        final float[] input = new float[inputSize];
+        final float[] hidden = new float[hiddenSize];
+        final float[] output = new float[outputSize];
+        final float[] outputError = new float[outputSize];
+        final float[] hiddenError = new float[hiddenSize];
+    }
 
     /**
      * Constructs a NeuralNetwork with the specified layer sizes and learning rate.
@@ -18,11 +56,29 @@ public class NeuralNetwork {
      * @param learningRate the learning rate for weight updates
      */
     public NeuralNetwork(int inputSize, int hiddenSize, int outputSize, double learningRate) {
-        this.learningRate = learningRate;
+        this(inputSize, hiddenSize, outputSize, learningRate, DEFAULT_KERNELS);
+    }
+
+    /**
+     * Constructs a NeuralNetwork that runs on the given kernels, to compare them.
+     *
+     * @param inputSize the size of the input layer
+     * @param hiddenSize the size of the hidden layer
+     * @param outputSize the size of the output layer
+     * @param learningRate the learning rate for weight updates
+     * @param kernels the loops to compute the layers with
+     */
+    NeuralNetwork(
+            int inputSize, int hiddenSize, int outputSize, double learningRate, Kernels kernels) {
+        this.kernels = kernels;
+        this.inputSize = inputSize;
+        this.hiddenSize = hiddenSize;
+        this.outputSize = outputSize;
+        this.learningRate = (float) learningRate;
 
         // Initialize weights with small random values
-        weightsInputHidden = new double[inputSize][hiddenSize];
-        weightsHiddenOutput = new double[hiddenSize][outputSize];
+        weightsInputHidden = new float[inputSize * hiddenSize];
+        weightsHiddenOutput = new float[hiddenSize * outputSize];
         initializeWeights(weightsInputHidden);
         initializeWeights(weightsHiddenOutput);
     }
@@ -32,31 +88,34 @@ public class NeuralNetwork {
      *
      * @param weights the weights to initialize
      */
-    private void initializeWeights(double[][] weights) {
+    private void initializeWeights(float[] weights) {
         for (int i = 0; i < weights.length; i++) {
-            for (int j = 0; j < weights[i].length; j++) {
-                weights[i][j] = Math.random() * 0.01;
-            }
+            weights[i] = (float) (Math.random() * 0.01);
         }
     }
 
     /**
-     * Returns the weights of the network.
+     * Returns a copy of the weights of the network.
      *
-     * @return a 3D array containing the weights
+     * @return a 3D array holding the {@code [input][hidden]} and {@code [hidden][output]} weights
      */
     public double[][][] getWeights() {
-        return new double[][][] {weightsInputHidden, weightsHiddenOutput};
+        return new double[][][] {
+            toMatrix(weightsInputHidden, inputSize, hiddenSize),
+            toMatrix(weightsHiddenOutput, hiddenSize, outputSize)
+        };
     }
 
     /**
-     * Sets the weights of the network.
+     * Sets the weights of the network, copying them.
      *
-     * @param weights a 3D array containing the weights to set
+     * @param weights a 3D array holding the {@code [input][hidden]} and {@code [hidden][output]}
+     *     weights to set
+     * @throws IllegalArgumentException if the weights do not match the layer sizes
      */
     public void setWeights(double[][][] weights) {
-        weightsInputHidden = weights[0];
-        weightsHiddenOutput = weights[1];
+        fromMatrix(weights[0], weightsInputHidden, inputSize, hiddenSize);
+        fromMatrix(weights[1], weightsHiddenOutput, hiddenSize, outputSize);
     }
 
     /**
@@ -66,9 +125,22 @@ public class NeuralNetwork {
      * @return the predicted output array
      */
     public double[] predict(double[] input) {
-        double[] hiddenLayer = activate(multiply(input, weightsInputHidden));
-        double[] outputLayer = activate(multiply(hiddenLayer, weightsHiddenOutput));
-        return outputLayer;
+        double[] output = new double[outputSize];
+        predict(input, output);
+        return output;
+    }
+
+    /**
+     * Predicts the output based on the given input without allocating.
+     *
+     * @param input the input array
+     * @param output the array the predicted output is written to
+     */
+    public void predict(double[] input, double[] output) {
+        Scratch buffers = forward(input);
+        for (int o = 0; o < outputSize; o++) {
+            output[o] = buffers.output[o];
+        }
     }
 
     /**
@@ -78,99 +150,98 @@ public class NeuralNetwork {
      * @param target the target output array
      */
     public void train(double[] input, double[] target) {
-        double[] hiddenLayer = activate(multiply(input, weightsInputHidden));
-        double[] outputLayer = activate(multiply(hiddenLayer, weightsHiddenOutput));
+        Scratch buffers = forward(input);
+        float[] hidden = buffers.hidden;
+        float[] outputError = buffers.outputError;
+        float[] hiddenError = buffers.hiddenError;
 
         // Calculate output layer error
-        double[] outputError = new double[outputLayer.length];
-        for (int i = 0; i < outputError.length; i++) {
-            outputError[i] = target[i] - outputLayer[i];
+        for (int o = 0; o < outputSize; o++) {
+            outputError[o] = (float) target[o] - buffers.output[o];
         }
 
-        // Backpropagate to hidden layer
-        double[] hiddenError = backpropagate(outputError, weightsHiddenOutput);
-
-        // Update weights between hidden and output layers
-        updateWeights(weightsHiddenOutput, hiddenLayer, outputError);
+        // Backpropagate to hidden layer, then update the weights between hidden and output
+        // layers in the same pass over their rows
+        for (int h = 0; h < hiddenSize; h++) {
+            int row = h * outputSize;
+            hiddenError[h] = kernels.dot(outputError, 0, weightsHiddenOutput, row, outputSize);
+            kernels.axpy(
+                    learningRate * hidden[h], outputError, 0, weightsHiddenOutput, row, outputSize);
+        }
 
         // Update weights between input and hidden layers
-        updateWeights(weightsInputHidden, input, hiddenError);
-    }
-
-    /**
-     * Applies the sigmoid activation function to the given layer.
-     *
-     * @param layer the layer to activate
-     * @return the activated layer
-     */
-    private double[] activate(double[] layer) {
-        double[] activated = new double[layer.length];
-        for (int i = 0; i < layer.length; i++) {
-            activated[i] = sigmoid(layer[i]);
+        float[] in = buffers.input;
+        for (int i = 0; i < inputSize; i++) {
+            float step = learningRate * in[i];
+            if (step == 0f) {
+                continue;
+            }
+            kernels.axpy(step, hiddenError, 0, weightsInputHidden, i * hiddenSize, hiddenSize);
         }
-        return activated;
     }
 
-    /**
-     * Applies the sigmoid function to the given value.
-     *
-     * @param x the value to apply the sigmoid function to
-     * @return the result of the sigmoid function
-     */
-    private double sigmoid(double x) {
-        return 1 / (1 + Math.exp(-x));
+    /** Runs the input through both layers into the calling thread's buffers. */
+    private Scratch forward(double[] input) {
+        if (input.length != inputSize) {
+            throw new IllegalArgumentException("Input length does not match weights dimensions!");
+        }
+        Scratch buffers = scratch.get();
+        for (int i = 0; i < inputSize; i++) {
+            buffers.input[i] = (float) input[i];
+        }
+        layer(weightsInputHidden, buffers.input, inputSize, buffers.hidden, hiddenSize);
+        layer(weightsHiddenOutput, buffers.hidden, hiddenSize, buffers.output, outputSize);
+        return buffers;
     }
 
     /**
-     * Multiplies the input array by the weights matrix.
+     * Computes a layer: the weighted sum of the inputs for every unit, passed through the sigmoid.
      *
-     * @param input the input array
-     * @param weights the weights matrix
-     * @return the result of the multiplication
+     * @param weights the layer's weights, one row of {@code outSize} per input
+     * @param in the layer's input
+     * @param inSize the size of the input
+     * @param out the array the activations are written to
+     * @param outSize the number of units
      */
-    private double[] multiply(double[] input, double[][] weights) {
-        if (input.length != weights.length) {
-            throw new IllegalArgumentException("Input length does not match weights dimensions!");
-        }
-
-        double[] output = new double[weights[0].length];
-        for (int i = 0; i < weights[0].length; i++) {
-            for (int j = 0; j < input.length; j++) {
-                output[i] += input[j] * weights[j][i];
+    private void layer(float[] weights, float[] in, int inSize, float[] out, int outSize) {
+        Arrays.fill(out, 0f);
+        for (int i = 0; i < inSize; i++) {
+            float x = in[i];
+            if (x == 0f) {
+                continue;
             }
+            kernels.axpy(x, weights, i * outSize, out, 0, outSize);
         }
-        return output;
+        kernels.sigmoid(out, outSize);
     }
 
-    /**
-     * Backpropagates the error through the network.
-     *
-     * @param error the error array
-     * @param weights the weights matrix
-     * @return the propagated error array
-     */
-    private double[] backpropagate(double[] error, double[][] weights) {
-        double[] propagatedError = new double[weights.length];
-        for (int i = 0; i < weights.length; i++) {
-            for (int j = 0; j < weights[i].length; j++) {
-                propagatedError[i] += error[j] * weights[i][j];
+    /** Copies flat weights to a {@code [from][to]} matrix. */
+    private static double[][] toMatrix(float[] weights, int fromSize, int toSize) {
+        double[][] matrix = new double[fromSize][toSize];
+        for (int from = 0; from < fromSize; from++) {
+            int row = from * toSize;
+            for (int to = 0; to < toSize; to++) {
+                matrix[from][to] = weights[row + to];
             }
         }
-        return propagatedError;
+        return matrix;
     }
 
-    /**
-     * Updates the weights of the network using the given inputs and errors.
-     *
-     * @param weights the weights matrix to update
-     * @param inputs the input array
-     * @param errors the error array
-     */
-    private void updateWeights(double[][] weights, double[] inputs, double[] errors) {
-        for (int i = 0; i < weights.length; i++) {
-            for (int j = 0; j < weights[i].length; j++) {
-                weights[i][j] += learningRate * errors[j] * inputs[i];
+    /** Copies a {@code [from][to]} matrix into flat weights. */
+    private static void fromMatrix(double[][] matrix, float[] weights, int fromSize, int toSize) {
+        if (matrix.length != fromSize) {
+            throw new IllegalArgumentException(
+                    "Expected " + fromSize + " weight rows, got " + matrix.length);
+        }
+        for (int from = 0; from < fromSize; from++) {
+            if (matrix[from].length != toSize) {
+                throw new IllegalArgumentException(
+                        "Expected " + toSize + " weight columns, got " + matrix[from].length);
+            }
+            int row = from * toSize;
+            for (int to = 0; to < toSize; to++) {
+                weights[row + to] = (float) matrix[from][to];
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,40 @@
+package com.frisian_draught.AI;
+
+/**
+ * Plain loops of the {@link Kernels}. The JIT compiler may still vectorize {@link #axpy} and
+ * {@link #sigmoid}, but not {@link #dot}, as Java may not reorder a floating point sum.
+ */
+final class ScalarKernels implements Kernels {
+
+    static final ScalarKernels INSTANCE = new ScalarKernels();
+
+    private ScalarKernels() {}
+
+    @Override
+    public void axpy(float a, float[] x, int xFrom, float[] y, int yFrom, int length) {
+        for (int i = 0; i < length; i++) {
+            y[yFrom + i] += a * x[xFrom + i];
+        }
+    }
+
+    @Override
+    public float dot(float[] a, int aFrom, float[] b, int bFrom, int length) {
+        float sum = 0f;
+        for (int i = 0; i < length; i++) {
+            sum += a[aFrom + i] * b[bFrom + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void sigmoid(float[] v, int length) {
+        for (int i = 0; i < length; i++) {
+            v[i] = (float) (1 / (1 + Math.exp(-v[i])));
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "scalar kernels";
+    }
+}
@@ -0,0 +1,70 @@
+package com.frisian_draught.AI;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@link Kernels} on the Vector API, in lanes of the machine's preferred vector width, with
+ * scalar loops for the elements left over. Only {@link Kernels#select()} refers to this class,
+ * by name, as loading it fails without the {@code jdk.incubator.vector} module. It is compiled by
+ * the {@code vector} Maven profile only.
+ */
+final class VectorKernels implements Kernels {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    VectorKernels() {
+        if (SPECIES.length() < 2) {
+            throw new UnsupportedOperationException("No vector instructions for floats");
+        }
+    }
+
+    @Override
+    public void axpy(float a, float[] x, int xFrom, float[] y, int yFrom, int length) {
+        FloatVector as = FloatVector.broadcast(SPECIES, a);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector xs = FloatVector.fromArray(SPECIES, x, xFrom + i);
+            FloatVector ys = FloatVector.fromArray(SPECIES, y, yFrom + i);
+            xs.fma(as, ys).intoArray(y, yFrom + i);
+        }
+        for (; i < length; i++) {
+            y[yFrom + i] += a * x[xFrom + i];
+        }
+    }
+
+    @Override
+    public float dot(float[] a, int aFrom, float[] b, int bFrom, int length) {
+        FloatVector sums = FloatVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector as = FloatVector.fromArray(SPECIES, a, aFrom + i);
+            FloatVector bs = FloatVector.fromArray(SPECIES, b, bFrom + i);
+            sums = as.fma(bs, sums);
+        }
+        float sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += a[aFrom + i] * b[bFrom + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void sigmoid(float[] v, int length) {
+        FloatVector ones = FloatVector.broadcast(SPECIES, 1f);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector xs = FloatVector.fromArray(SPECIES, v, i);
+            ones.div(xs.neg().lanewise(VectorOperators.EXP).add(ones)).intoArray(v, i);
+        }
+        for (; i < length; i++) {
+            v[i] = (float) (1 / (1 + Math.exp(-v[i])));
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "vector kernels, " + SPECIES.vectorBitSize() + "-bit " + SPECIES.length() + " lanes";
+    }
+}
@@ -209,6 +209,8 @@ public class Game {
                     e.consume();
                     showExitConfirmation();
                 });
+        // However the window is closed, stop the bots from thinking
+        this.gameStage.setOnHidden(_ -> mainBoard.boardState.cancelBotMoves());
 
         if (isAgainstBot) {
             setBotPlayer(playerBot);
@@ -223,7 +225,10 @@ public class Game {
      * @param botType
      */
     public void setBotPlayer(BotType botType) {
-        mainBoard.boardState.setBotPlayer(BotFactory.createBot(botType, mainBoard));
+        Bot bot = BotFactory.createBot(botType, mainBoard);
+        // Against a human the bot keeps thinking on the player's time
+        bot.setPondering(true);
+        mainBoard.boardState.setBotPlayer(bot);
     }
 
     /**
@@ -444,6 +449,7 @@ public class Game {
                                     Duration.seconds(1),
                                     _ -> {
                                         remainingTimePlayerOne--;
+                                        gameInfo.remainingTimePlayerOne.set(remainingTimePlayerOne);
                                         int minutes = remainingTimePlayerOne / 60;
                                         int seconds = remainingTimePlayerOne % 60;
                                         playerTime.setText(
@@ -456,6 +462,7 @@ public class Game {
                                     }));
             gameTimerPlayerOne.setCycleCount(Timeline.INDEFINITE);
             gameTimerPlayerOne.play();
+            gameInfo.remainingTimePlayerOne.set(remainingTimePlayerOne);
         }
 
         // Initialize timeline/timer for Player 2 if needed
@@ -466,6 +473,7 @@ public class Game {
                                     Duration.seconds(1),
                                     _ -> {
                                         remainingTimePlayerTwo--;
+                                        gameInfo.remainingTimePlayerTwo.set(remainingTimePlayerTwo);
                                         int minutes = remainingTimePlayerTwo / 60;
                                         int seconds = remainingTimePlayerTwo % 60;
                                         playerTime.setText(
@@ -478,6 +486,7 @@ public class Game {
                                     }));
             gameTimerPlayerTwo.setCycleCount(Timeline.INDEFINITE);
             gameTimerPlayerTwo.play();
+            gameInfo.remainingTimePlayerTwo.set(remainingTimePlayerTwo);
         }
 
         // Combine text nodes in an HBox
@@ -834,10 +843,12 @@ public class Game {
             if (gameTimerPlayerOne != null) {
                 gameTimerPlayerOne.stop();
                 remainingTimePlayerOne = gameTimeLimit; // Reset Player 1 time
+                gameInfo.remainingTimePlayerOne.set(remainingTimePlayerOne);
             }
             if (gameTimerPlayerTwo != null) {
                 gameTimerPlayerTwo.stop();
                 remainingTimePlayerTwo = gameTimeLimit; // Reset Player 2 time
+                gameInfo.remainingTimePlayerTwo.set(remainingTimePlayerTwo);
             }
 
             // Reset the board and game state
@@ -861,6 +872,7 @@ public class Game {
                                 Duration.seconds(1),
                                 _ -> {
                                     remainingTimePlayerOne--;
+                                    gameInfo.remainingTimePlayerOne.set(remainingTimePlayerOne);
                                     int minutes = remainingTimePlayerOne / 60;
                                     int seconds = remainingTimePlayerOne % 60;
                                     // Update the Player One UI time
@@ -884,6 +896,7 @@ public class Game {
                                 Duration.seconds(1),
                                 _ -> {
                                     remainingTimePlayerTwo--;
+                                    gameInfo.remainingTimePlayerTwo.set(remainingTimePlayerTwo);
                                     int minutes = remainingTimePlayerTwo / 60;
                                     int seconds = remainingTimePlayerTwo % 60;
                                     // Update the Player Two UI time
@@ -79,6 +79,7 @@ public class GameSimulator {
         // Add black pawns
         addPawns.accept(6, true);
 
+        boardState.reindexPawns();
         boardState.getAllPawns().clear();
         boardState.getAllPawns().addAll(boardState.getPawns());
     }
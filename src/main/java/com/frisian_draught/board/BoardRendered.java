@@ -59,6 +59,7 @@ public class BoardRendered {
             addPawns.accept(6, true);
         }
 
+        boardState.reindexPawns();
         boardState.getAllPawns().clear();
         boardState.getAllPawns().addAll(boardState.getPawns());
     }
@@ -6,6 +6,7 @@ import com.frisian_draught.Launcher;
 import com.frisian_draught.Player;
 import com.frisian_draught.Server.NetworkClient;
 import com.frisian_draught.board.Bot.Bot;
+import com.frisian_draught.board.rules.RepetitionTracker;
 import com.frisian_draught.util.SoundPlayer;
 
 import javafx.scene.Node;
@@ -16,6 +17,7 @@ import javafx.scene.layout.Pane;
 import org.joml.Vector2i;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -43,6 +45,8 @@ public class BoardState {
 
     private List<Pawn> allPawns = new ArrayList<>();
     private List<Pawn> pawns = new ArrayList<>();
+    // Occupancy index over the tiles, [x][y], kept in sync with the positions of 'pawns'
+    private final Pawn[][] occupancy = new Pawn[BOARD_SIZE][BOARD_SIZE];
     private List<Pawn> requiredPawns = new ArrayList<>();
     private List<Vector2i> possibleMoves = new ArrayList<>();
     private List<CapturePath> currentCapturePaths = new ArrayList<>();
@@ -50,7 +54,7 @@ public class BoardState {
     private List<Move> takenMoves = new ArrayList<>();
 
     private MovesListManager movesListManager;
-    private List<GameState> pastStates = new ArrayList<>();
+    private RepetitionTracker repetitionTracker = new RepetitionTracker();
     private Map<Pawn, ImageView> pawnViews = new HashMap<>();
     private List<Node> highlightNodes = new ArrayList<>();
     // Sound and game info
@@ -154,6 +158,15 @@ public class BoardState {
         BotvsBotBlack = botvsBotBlack;
     }
 
+    /** Cancels the moves the bots are thinking about, e.g. when the board is reset. */
+    public void cancelBotMoves() {
+        for (Bot bot : new Bot[] {botPlayer, BotvsBotWhite, BotvsBotBlack}) {
+            if (bot != null) {
+                bot.cancel();
+            }
+        }
+    }
+
     public NetworkClient getNetworkClient() {
         return networkClient;
     }
@@ -264,6 +277,80 @@ public class BoardState {
 
     public void setPawns(List<Pawn> pawns) {
         this.pawns = pawns;
+        reindexPawns();
+    }
+
+    /**
+     * Returns the active pawn on a tile in constant time.
+     *
+     * @param position Tile to check.
+     * @return Pawn on the tile, or null if it is empty or off the board.
+     */
+    public Pawn getPawnAt(Vector2i position) {
+        return getPawnAt(position.x, position.y);
+    }
+
+    public Pawn getPawnAt(int x, int y) {
+        return isOnBoard(x, y) ? occupancy[x][y] : null;
+    }
+
+    /**
+     * Adds a pawn to the active pawns at its current position.
+     *
+     * @param pawn Pawn to add.
+     */
+    public void addPawn(Pawn pawn) {
+        pawns.add(pawn);
+        setTile(pawn.getPosition(), pawn);
+    }
+
+    /**
+     * Removes a pawn from the active pawns and frees its tile.
+     *
+     * @param pawn Pawn to remove.
+     */
+    public void removePawn(Pawn pawn) {
+        pawns.remove(pawn);
+        clearTile(pawn);
+    }
+
+    /**
+     * Moves a pawn in the data model, keeping the occupancy index in sync. Any change of an active
+     * pawn's position should go through here.
+     *
+     * @param pawn Pawn to move.
+     * @param position New position of the pawn.
+     */
+    public void movePawn(Pawn pawn, Vector2i position) {
+        clearTile(pawn);
+        pawn.setPosition(position);
+        setTile(position, pawn);
+    }
+
+    /** Rebuilds the occupancy index from the active pawns, after they were changed in bulk. */
+    public void reindexPawns() {
+        for (Pawn[] column : occupancy) {
+            Arrays.fill(column, null);
+        }
+        for (Pawn pawn : pawns) {
+            setTile(pawn.getPosition(), pawn);
+        }
+    }
+
+    private void setTile(Vector2i position, Pawn pawn) {
+        if (isOnBoard(position.x, position.y)) {
+            occupancy[position.x][position.y] = pawn;
+        }
+    }
+
+    private static boolean isOnBoard(int x, int y) {
+        return x >= 0 && x < BOARD_SIZE && y >= 0 && y < BOARD_SIZE;
+    }
+
+    private void clearTile(Pawn pawn) {
+        if (getPawnAt(pawn.getPosition()) == pawn) {
+            occupancy[pawn.getPosition().x][pawn.getPosition().y] = null;
+        }
     }
 
     public List<Pawn> getRequiredPawns() {
@@ -306,12 +393,12 @@ public class BoardState {
         this.movesListManager = movesListManager;
     }
 
-    public List<GameState> getPastStates() {
-        return pastStates;
+    public RepetitionTracker getRepetitionTracker() {
+        return repetitionTracker;
     }
 
-    public void setPastStates(List<GameState> pastStates) {
-        this.pastStates = pastStates;
+    public void setRepetitionTracker(RepetitionTracker repetitionTracker) {
+        this.repetitionTracker = repetitionTracker;
     }
 
     public Map<Pawn, ImageView> getPawnViews() {
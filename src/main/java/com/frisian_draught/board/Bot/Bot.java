@@ -1,29 +1,78 @@
 package com.frisian_draught.board.Bot;
 
+import com.frisian_draught.AI.Book.OpeningBook;
+import com.frisian_draught.AI.MiniMax.Ponderer;
+import com.frisian_draught.AI.MiniMax.SearchStats;
+import com.frisian_draught.AI.MiniMax.TimeManager;
 import com.frisian_draught.AI.ReplayBuffer;
 import com.frisian_draught.board.BoardRendered;
 import com.frisian_draught.board.BoardState;
 import com.frisian_draught.board.CapturePath;
+import com.frisian_draught.board.GameInfo;
+import com.frisian_draught.board.GameState;
 import com.frisian_draught.board.MainBoard;
+import com.frisian_draught.board.Move;
 import com.frisian_draught.board.MoveManager;
 import com.frisian_draught.board.MoveResult;
 import com.frisian_draught.board.Pawn;
+import com.frisian_draught.board.rules.LegalMove;
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.RepetitionTracker;
+
+import javafx.application.Platform;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.StringMapMessage;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
  * The Bot class represents an abstract bot that can play the game.
  * It contains methods for making moves, computing capture paths, applying moves, and computing rewards.
+ *
+ * <p>A bot thinks on a search thread of its own, so the JavaFX application thread only picks
+ * captures and animates the chosen move; the board stays responsive while the bot searches.
  */
 public abstract class Bot {
 
+    // Runs the bots' searches one at a time, off the JavaFX application thread
+    private static final ExecutorService SEARCH_EXECUTOR =
+            Executors.newSingleThreadExecutor(
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "bot-search");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+
+    private static final Logger logger = LogManager.getLogger(Bot.class);
+
+    // One structured event per searched move, for graphing engine performance over many games
+    private static final Logger searchLogger = LogManager.getLogger("com.frisian_draught.search");
+
     protected BoardState boardState;
     protected MoveManager moveManager;
     protected MainBoard mainBoard;
     protected ReplayBuffer replayBuffer;
     protected BoardRendered boardRendered;
+    // Threads used by the searching bots, see MiniMaxTree#setThreadCount
+    protected int searchThreads = Runtime.getRuntime().availableProcessors();
+    // Picks among the book moves of a position
+    private final Random bookRandom = new Random();
+    // The last move asked for, cancelled by cancel()
+    private volatile CompletableFuture<Move> pendingMove;
+    // Whether the bot searches on the opponent's time, and that search while it runs
+    private volatile boolean pondering;
+    private volatile Future<?> ponderSearch;
 
     /**
      * Constructs a Bot with the specified parameters.
@@ -48,9 +97,234 @@ public abstract class Bot {
     }
 
     /**
-     * Makes a move. This method should be implemented by subclasses.
+     * Sets how many threads a searching bot may use for its moves.
+     *
+     * @param searchThreads the number of threads, at least 1
+     */
+    public void setSearchThreads(int searchThreads) {
+        this.searchThreads = searchThreads;
+    }
+
+    /**
+     * Sets whether the bot keeps searching while the opponent thinks, see {@link #ponder()}.
+     * Meant for games against a human: a ponder search holds the search thread, which the bots
+     * share, until the bot's next move.
+     *
+     * @param pondering true to ponder after each move
+     */
+    public void setPondering(boolean pondering) {
+        this.pondering = pondering;
+        if (!pondering) {
+            stopPondering();
+        }
+    }
+
+    /**
+     * Makes the bot's move. A capture is chosen and played on the JavaFX application thread; any
+     * other move is searched for with {@link #chooseMove} on the search thread, and only its
+     * animation comes back to the JavaFX application thread.
+     *
+     * @return the move, completed once it is being played, with null if the bot has no move;
+     *     cancelling it stops the search and the move is not played
+     */
+    public CompletableFuture<Move> move() {
+        CompletableFuture<Move> result = new CompletableFuture<>();
+        pendingMove = result;
+        Platform.runLater(() -> startMove(result));
+        return result;
+    }
+
+    /**
+     * Cancels the move the bot is making, if any: its search is interrupted and its result is
+     * dropped. Called when the board changes under the bot, on reset, undo or close.
+     */
+    public void cancel() {
+        stopPondering();
+        CompletableFuture<Move> move = pendingMove;
+        if (move != null) {
+            move.cancel(true);
+        }
+    }
+
+    /**
+     * What a search needs from the game besides the board, taken on the JavaFX application thread
+     * when the bot is asked for its move, so that the search thread never reads the live game.
+     *
+     * @param history a copy of the positions played so far, ending with the current one
+     * @param whiteToMove true if white is to move
+     * @param timeBudget the time the bot may think about its move, in milliseconds
+     */
+    protected record MoveContext(
+            RepetitionTracker history, boolean whiteToMove, long timeBudget) {}
+
+    /**
+     * Chooses a non-capturing move. Runs on the search thread, so it must not touch the scene
+     * graph, and takes the turn, clocks and history of the game from its arguments rather than
+     * the board state; a long search should give up when the thread is interrupted.
+     *
+     * @param state a snapshot of the current game state
+     * @param possibleMoves the legal moves of the state, not empty
+     * @param context a snapshot of the rest of the game the search needs
+     * @return the move to play, or null if the bot found none
+     */
+    protected abstract Move chooseMove(
+            GameState state, List<Move> possibleMoves, MoveContext context);
+
+    /**
+     * Searches on the opponent's time, after the bot has played a move found by {@link
+     * #chooseMove}, until the search thread is interrupted when the bot is asked for its next
+     * move. Runs on the search thread; by default the bot does not ponder.
+     */
+    protected void ponder() {}
+
+    /**
+     * Chooses among the capture paths of the bot, on the JavaFX application thread. By default a
+     * random path among those capturing the most.
+     *
+     * @param capturePaths the capture paths, not empty
+     * @return the path to play, or null to play a normal move instead
+     */
+    protected CapturePath chooseCapture(List<CapturePath> capturePaths) {
+        // Find the maximum capture value
+        double maxCaptureValue =
+                capturePaths.stream()
+                        .mapToDouble(CapturePath::getCaptureValue)
+                        .max()
+                        .orElse(Double.NEGATIVE_INFINITY);
+
+        // Filter paths with the maximum value
+        List<CapturePath> bestPaths =
+                capturePaths.stream()
+                        .filter(path -> path.getCaptureValue() == maxCaptureValue)
+                        .collect(Collectors.toList());
+
+        // Randomly select one of the best paths
+        return bestPaths.get(new Random().nextInt(bestPaths.size()));
+    }
+
+    /** Plays a capture, or hands the search for a normal move to the search thread. */
+    private void startMove(CompletableFuture<Move> result) {
+        stopPondering();
+        if (result.isDone()) {
+            return; // Cancelled before it started
+        }
+        try {
+            // Compute capture paths for the bot
+            List<CapturePath> capturePaths = computeCapturePathsForBot();
+            if (capturePaths != null && !capturePaths.isEmpty()) {
+                if (logger.isDebugEnabled()) {
+                    for (CapturePath path : capturePaths) {
+                        logger.debug(
+                                "Capture path: {}, captures: {}",
+                                path.positions,
+                                path.capturedPawns);
+                    }
+                }
+
+                CapturePath bestPath = chooseCapture(capturePaths);
+                if (bestPath != null && bestPath.initialPawn != null) {
+                    logger.debug("Bot executing capture path: {}", bestPath);
+                    result.complete(playCapture(bestPath));
+                    return; // Ensure no fallback to normal moves
+                }
+            }
+
+            // If no captures, search for a normal move on a snapshot of the board
+            GameState currentState = mainBoard.getBoardState();
+            List<Move> possibleMoves = currentState.generateMoves();
+            if (possibleMoves.isEmpty()) {
+                logger.debug("No possible moves for the bot");
+                result.complete(null);
+                return;
+            }
+            MoveContext context =
+                    new MoveContext(
+                            new RepetitionTracker(boardState.getRepetitionTracker()),
+                            currentState.isWhiteTurn(),
+                            moveTimeBudget());
+
+            Future<?> search =
+                    SEARCH_EXECUTOR.submit(
+                            () -> {
+                                try {
+                                    Move move = chooseMove(currentState, possibleMoves, context);
+                                    Platform.runLater(
+                                            () -> finishMove(result, currentState, move));
+                                } catch (Exception e) {
+                                    logger.error("Bot search failed", e);
+                                    result.completeExceptionally(e);
+                                }
+                            });
+            result.whenComplete(
+                    (move, error) -> {
+                        if (result.isCancelled()) {
+                            search.cancel(true);
+                        }
+                    });
+        } catch (Exception e) {
+            logger.error("Bot move failed", e);
+            result.completeExceptionally(e);
+        }
+    }
+
+    /** Plays the move found by the search, unless the move was cancelled meanwhile. */
+    private void finishMove(CompletableFuture<Move> result, GameState state, Move move) {
+        if (result.isDone()) {
+            return; // Cancelled while searching
+        }
+        if (move == null) {
+            logger.debug("Bot found no move to play");
+            result.complete(null);
+            return;
+        }
+        logger.debug(
+                "Selected move: start {}, end {}", move.getStartPosition(), move.getEndPosition());
+        playMove(state, move);
+        result.complete(move);
+
+        if (pondering) {
+            ponderSearch =
+                    SEARCH_EXECUTOR.submit(
+                            () -> {
+                                try {
+                                    ponder();
+                                } catch (Exception e) {
+                                    logger.error("Bot ponder search failed", e);
+                                }
+                            });
+        }
+    }
+
+    /** Interrupts the ponder search, if any; the next search waits for it to stop. */
+    private void stopPondering() {
+        Future<?> search = ponderSearch;
+        if (search != null) {
+            search.cancel(true);
+            ponderSearch = null;
+        }
+    }
+
+    /**
+     * Plays a capture path: animates the pawn along it, then lets the move manager finish the
+     * capture.
+     *
+     * @param path the capture path to play
+     * @return the move played
      */
-    public abstract void move();
+    private Move playCapture(CapturePath path) {
+        Pawn pawn = path.initialPawn;
+        Move move =
+                new Move(
+                        pawn.getPosition(),
+                        path.getLastPosition(),
+                        path.capturedPawns.stream()
+                                .map(Pawn::getPosition)
+                                .collect(Collectors.toList()));
+        boardState.getTakenMoves().add(move);
+        mainBoard.animatePawnCaptureMovement(
+                pawn, path, () -> moveManager.processAfterCaptureMove(pawn, path));
+        return move;
+    }
 
     /**
      * Computes the capture paths for the bot.
@@ -84,26 +358,126 @@ public abstract class Bot {
     }
 
     /**
-     * Applies the given move result to the board state.
+     * Applies the given move result to the board state, and records the position reached for
+     * repetitions; captures are recorded by the move manager instead.
      *
      * @param result the move result to apply
+     * @param irreversible whether the move was a man move, after which no earlier position can
+     *     repeat
      */
-    public void applyMove(MoveResult result) {
+    public void applyMove(MoveResult result, boolean irreversible) {
         if (result != null) {
-            // Update the board state
-
-            boardState.getPastStates().add(result.getNextState());
+            // Update the board
             boardRendered.renderPawns();
 
             if (result.isGameOver()) {
                 moveManager.checkGameOver();
             }
+            moveManager.recordBoardState(irreversible);
 
             // Switch turn
             moveManager.switchTurn();
         }
     }
 
+    /**
+     * Looks the position up in the opening book, so that known positions are played without a
+     * search.
+     *
+     * @param state the current game state
+     * @return a book move, or null if there is no book or the position is not in it
+     */
+    protected Move bookMove(GameState state) {
+        OpeningBook book = OpeningBook.openDefault();
+        if (book == null) {
+            return null;
+        }
+        LegalMove move = book.select(Position.fromGameState(state), bookRandom);
+        if (move == null) {
+            return null;
+        }
+        logger.debug("Playing book move: {}", move);
+        return move.toMove();
+    }
+
+    /**
+     * Plays a non-capturing move: animates the pawn, then applies the move to the board.
+     *
+     * @param state the game state the move is played in
+     * @param move the move to play
+     */
+    protected void playMove(GameState state, Move move) {
+        Pawn pawn = moveManager.getPawnAtPosition(move.getStartPosition());
+        // Read before the move, which may promote the man
+        boolean manMove = pawn == null || !pawn.isKing();
+        boardState.getTakenMoves().add(move);
+        if (pawn != null) {
+            mainBoard.animatePawnMovement(
+                    pawn, move.getEndPosition(), () -> applyMove(state.applyMove(move), manMove));
+        } else {
+            applyMove(state.applyMove(move), manMove);
+        }
+    }
+
+    /**
+     * Computes how long the bot may think about its move, from the time left on the clock of the
+     * side to move (player one plays white). Reads the game's clocks, so it must be called on
+     * the JavaFX application thread.
+     *
+     * @return the time budget in milliseconds
+     */
+    protected long moveTimeBudget() {
+        GameInfo gameInfo = boardState.getGameInfo();
+        if (gameInfo == null) {
+            return TimeManager.DEFAULT_BUDGET_MILLIS;
+        }
+        int remainingSeconds =
+                boardState.isWhiteTurn()
+                        ? gameInfo.getRemainingTimePlayerOne()
+                        : gameInfo.getRemainingTimePlayerTwo();
+        return TimeManager.budgetMillis(remainingSeconds);
+    }
+
+    /**
+     * Logs the search of a move as a structured event, with the search counters as its fields,
+     * on the {@code com.frisian_draught.search} logger.
+     *
+     * @param context the snapshot the search was given
+     * @param stats the counters of the search
+     * @param depth the depth of the deepest completed iteration
+     * @param ponderer the ponderer the search went through, for its hit counts
+     * @param move the move chosen, or null if there was none
+     */
+    protected void logSearch(
+            MoveContext context, SearchStats stats, int depth, Ponderer ponderer, Move move) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("depth", depth);
+        fields.putAll(stats.toMap());
+        fields.put("ponderHits", ponderer.getHits());
+        fields.put("ponderMisses", ponderer.getMisses());
+        logSearch(context, move, fields);
+    }
+
+    /**
+     * Logs the search of a move as a structured event on the {@code com.frisian_draught.search}
+     * logger: the bot, side, move, time budget and threads, then the given fields.
+     *
+     * @param context the snapshot the search was given
+     * @param move the move chosen, or null if there was none
+     * @param fields the counters of the search by name
+     */
+    protected void logSearch(MoveContext context, Move move, Map<String, ?> fields) {
+        StringMapMessage event =
+                new StringMapMessage()
+                        .with("bot", getClass().getSimpleName())
+                        .with("side", context.whiteToMove() ? "white" : "black")
+                        .with("move", String.valueOf(move))
+                        .with("budgetMillis", context.timeBudget())
+                        .with("threads", searchThreads);
+        fields.forEach((key, value) -> event.with(key, String.valueOf(value)));
+        searchLogger.info(event);
+    }
+
     /**
      * Computes the reward for the given move result.
      *
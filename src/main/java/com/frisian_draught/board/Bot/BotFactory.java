@@ -34,6 +34,13 @@ public class BotFactory {
                         mainBoard,
                         mainBoard.boardState.getReplayBuffer(),
                         mainBoard.boardRendered);
+            case MCTS_BOT:
+                return new MCTSBot(
+                        mainBoard.boardState,
+                        mainBoard.moveManager,
+                        mainBoard,
+                        mainBoard.boardState.getReplayBuffer(),
+                        mainBoard.boardRendered);
             default:
                 throw new IllegalArgumentException("Unknown BotType: " + botType);
         }
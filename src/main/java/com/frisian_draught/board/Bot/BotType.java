@@ -4,5 +4,6 @@ public enum BotType {
     DQN_BOT,
     RANDOM_BOT,
     MINIMAX_BOT,
-    HYBRID_BOT
+    HYBRID_BOT,
+    MCTS_BOT
 }
@@ -1,7 +1,11 @@
 package com.frisian_draught.board.Bot;
 
 import com.frisian_draught.AI.DQNModel;
+import com.frisian_draught.AI.Endgame.Tablebase;
+import com.frisian_draught.AI.MiniMax.EvaluationCache;
 import com.frisian_draught.AI.MiniMax.HybridAgent;
+import com.frisian_draught.AI.MiniMax.Ponderer;
+import com.frisian_draught.AI.MiniMax.TranspositionTable;
 import com.frisian_draught.AI.ReplayBuffer;
 import com.frisian_draught.board.BoardRendered;
 import com.frisian_draught.board.BoardState;
@@ -10,15 +14,29 @@ import com.frisian_draught.board.GameState;
 import com.frisian_draught.board.MainBoard;
 import com.frisian_draught.board.Move;
 import com.frisian_draught.board.MoveManager;
-import com.frisian_draught.board.Pawn;
+import com.frisian_draught.board.rules.LegalMove;
+import com.frisian_draught.board.rules.Position;
 
-import javafx.application.Platform;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.joml.Vector2i;
 
+import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 public class HybridBot extends Bot {
 
+    private static final Logger logger = LogManager.getLogger(HybridBot.class);
+
+    // Kept across moves, so the search can reuse what it learned on the previous turn
+    private final TranspositionTable transpositionTable = new TranspositionTable();
+    private final EvaluationCache evaluationCache = new EvaluationCache();
+    // Model whose evaluations the cache holds
+    private DQNModel cachedModel;
+    // Searches the expected reply position on the opponent's time, into the same tables
+    private final Ponderer ponderer = new Ponderer();
+
     public HybridBot(
             BoardState boardState,
             MoveManager moveManager,
@@ -29,139 +47,86 @@ public class HybridBot extends Bot {
     }
 
     @Override
-    public void move() {
-        Platform.runLater(
-                () -> {
-                    try {
-                        // Access the DQNModel
-                        DQNModel dqnModel = boardState.getBotModel();
-                        if (dqnModel == null) {
-                            System.out.println("DQNModel is not initialized.");
-                            return;
-                        }
-
-                        // Compute capture paths for the bot
-                        List<CapturePath> capturePaths = computeCapturePathsForBot();
-                        if (capturePaths != null && !capturePaths.isEmpty()) {
-                            System.out.println("Bot has capture opportunities. Available paths:");
-                            for (CapturePath path : capturePaths) {
-                                System.out.println(
-                                        " - Path: "
-                                                + path.positions
-                                                + ", Captures: "
-                                                + path.capturedPawns);
-                            }
-
-                            // Use DQN to prioritize capture paths
-                            CapturePath bestPath =
-                                    capturePaths.stream()
-                                            .max(
-                                                    (path1, path2) ->
-                                                            Double.compare(
-                                                                    dqnModel.predict(
-                                                                                    mainBoard
-                                                                                            .getBoardState())
-                                                                            .getOrDefault(
-                                                                                    path1
-                                                                                            .getLastPosition(),
-                                                                                    0.0),
-                                                                    dqnModel.predict(
-                                                                                    mainBoard
-                                                                                            .getBoardState())
-                                                                            .getOrDefault(
-                                                                                    path2
-                                                                                            .getLastPosition(),
-                                                                                    0.0)))
-                                            .orElse(null);
-
-                            if (bestPath != null) {
-                                System.out.println("Selected capture path: " + bestPath);
-                                Pawn pawn = bestPath.initialPawn;
-                                if (pawn != null) {
-                                    System.out.println("Bot executing capture path: " + bestPath);
-
-                                    boardState
-                                            .getTakenMoves()
-                                            .add(
-                                                    new Move(
-                                                            pawn.getPosition(),
-                                                            bestPath.getLastPosition(),
-                                                            bestPath.capturedPawns.stream()
-                                                                    .map(Pawn::getPosition)
-                                                                    .collect(Collectors.toList())));
-
-                                    mainBoard.animatePawnCaptureMovement(
-                                            pawn,
-                                            bestPath,
-                                            () ->
-                                                    moveManager.processAfterCaptureMove(
-                                                            pawn, bestPath));
-                                    return; // Ensure no fallback to normal moves
-                                }
-                            }
-                        }
-
-                        // If no captures, proceed with normal moves
-                        GameState currentState = mainBoard.getBoardState();
-                        List<Move> possibleMoves = currentState.generateMoves();
-
-                        if (possibleMoves.isEmpty()) {
-                            System.out.println("No possible moves for the agent.");
-                            return;
-                        }
-
-                        // Initialize Minimax with DQN model for evaluation
-                        HybridAgent miniMaxTree = new HybridAgent(currentState, dqnModel);
-                        Move[] selectedMove = {
-                            miniMaxTree.getBestMove(currentState, 3, boardState.isWhiteTurn())
-                        };
-
-                        // Fallback to DQN-guided random move if Minimax fails
-                        if (selectedMove[0] == null) {
-                            System.out.println(
-                                    "Minimax did not find a valid move, falling back to DQN.");
-                            selectedMove[0] =
-                                    possibleMoves.stream()
-                                            .max(
-                                                    (move1, move2) ->
-                                                            Double.compare(
-                                                                    dqnModel.predict(currentState)
-                                                                            .getOrDefault(
-                                                                                    move1
-                                                                                            .getEndPosition(),
-                                                                                    0.0),
-                                                                    dqnModel.predict(currentState)
-                                                                            .getOrDefault(
-                                                                                    move2
-                                                                                            .getEndPosition(),
-                                                                                    0.0)))
-                                            .orElse(null);
-                        }
+    protected CapturePath chooseCapture(List<CapturePath> capturePaths) {
+        DQNModel dqnModel = boardState.getBotModel();
+        if (dqnModel == null) {
+            return super.chooseCapture(capturePaths);
+        }
+
+        // Use DQN to prioritize capture paths
+        Map<Vector2i, Double> qValues = dqnModel.predict(mainBoard.getBoardState());
+        return capturePaths.stream()
+                .max(
+                        Comparator.comparingDouble(
+                                path -> qValues.getOrDefault(path.getLastPosition(), 0.0)))
+                .orElse(null);
+    }
 
-                        if (selectedMove != null) {
-                            Pawn pawn =
-                                    moveManager.getPawnAtPosition(
-                                            selectedMove[0].getStartPosition());
-                            System.out.println(
-                                    "Selected move: Start = "
-                                            + selectedMove[0].getStartPosition()
-                                            + ", End = "
-                                            + selectedMove[0].getEndPosition());
+    @Override
+    protected Move chooseMove(
+            GameState currentState, List<Move> possibleMoves, MoveContext context) {
+        // Access the DQNModel
+        DQNModel dqnModel = boardState.getBotModel();
+        if (dqnModel == null) {
+            logger.warn("DQNModel is not initialized");
+            return null;
+        }
+
+        Move bookMove = bookMove(currentState);
+        if (bookMove != null) {
+            return bookMove;
+        }
+
+        // Initialize Minimax with DQN model for evaluation
+        if (dqnModel != cachedModel) {
+            evaluationCache.clear();
+            cachedModel = dqnModel;
+        }
+        HybridAgent miniMaxTree =
+                new HybridAgent(currentState, dqnModel, transpositionTable, evaluationCache);
+        miniMaxTree.setTablebase(Tablebase.openDefault());
+        miniMaxTree.setThreadCount(searchThreads);
+        LegalMove bestMove =
+                ponderer.search(
+                        miniMaxTree,
+                        Position.fromGameState(currentState),
+                        context.history(),
+                        context.whiteToMove(),
+                        context.timeBudget());
+        Move selectedMove = bestMove == null ? null : bestMove.toMove();
+
+        logSearch(
+                context,
+                miniMaxTree.getStats(),
+                miniMaxTree.getCompletedDepth(),
+                ponderer,
+                selectedMove);
+
+        // Fallback to DQN-guided move if Minimax fails
+        if (selectedMove == null) {
+            logger.debug("Minimax did not find a valid move, falling back to DQN");
+            Map<Vector2i, Double> qValues = dqnModel.predict(currentState);
+            selectedMove =
+                    possibleMoves.stream()
+                            .max(
+                                    Comparator.comparingDouble(
+                                            move ->
+                                                    qValues.getOrDefault(
+                                                            move.getEndPosition(), 0.0)))
+                            .orElse(null);
+        }
+        return selectedMove;
+    }
 
-                            if (pawn != null) {
-                                boardState.getTakenMoves().add(selectedMove[0]);
-                                mainBoard.animatePawnMovement(
-                                        pawn,
-                                        selectedMove[0].getEndPosition(),
-                                        () -> applyMove(currentState.applyMove(selectedMove[0])));
-                            } else {
-                                boardState.getTakenMoves().add(selectedMove[0]);
-                                applyMove(currentState.applyMove(selectedMove[0]));
-                            }
-                        }
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                });
+    @Override
+    protected void ponder() {
+        if (cachedModel == null) {
+            return;
+        }
+        HybridAgent miniMaxTree =
+                new HybridAgent(null, cachedModel, transpositionTable, evaluationCache);
+        miniMaxTree.setTablebase(Tablebase.openDefault());
+        miniMaxTree.setThreadCount(searchThreads);
+        ponderer.ponder(miniMaxTree);
     }
 }
@@ -0,0 +1,86 @@
+package com.frisian_draught.board.Bot;
+
+import com.frisian_draught.AI.DQNModel;
+import com.frisian_draught.AI.MCTS.MonteCarloTree;
+import com.frisian_draught.AI.MCTS.NetworkEvaluator;
+import com.frisian_draught.AI.MCTS.PlayoutEvaluator;
+import com.frisian_draught.AI.ReplayBuffer;
+import com.frisian_draught.board.BoardRendered;
+import com.frisian_draught.board.BoardState;
+import com.frisian_draught.board.GameState;
+import com.frisian_draught.board.MainBoard;
+import com.frisian_draught.board.Move;
+import com.frisian_draught.board.MoveManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class MCTSBot extends Bot {
+
+    public static final int DEFAULT_PLAYOUTS_PER_SECOND = 5_000;
+
+    private int playoutsPerSecond = DEFAULT_PLAYOUTS_PER_SECOND;
+    // Kept across moves, so the search can continue from the subtree of the position reached
+    private MonteCarloTree monteCarloTree;
+    // Model the tree's leaves were evaluated with, null for random playouts
+    private DQNModel treeModel;
+
+    public MCTSBot(
+            BoardState boardState,
+            MoveManager moveManager,
+            MainBoard mainBoard,
+            ReplayBuffer replayBuffer,
+            BoardRendered boardRendered) {
+        super(boardState, moveManager, mainBoard, replayBuffer, boardRendered);
+    }
+
+    /**
+     * Sets how many playouts the bot runs per second of its time budget.
+     *
+     * @param playoutsPerSecond the number of playouts per second, at least 1
+     */
+    public void setPlayoutsPerSecond(int playoutsPerSecond) {
+        if (playoutsPerSecond < 1) {
+            throw new IllegalArgumentException(
+                    "Playouts per second must be at least 1: " + playoutsPerSecond);
+        }
+        this.playoutsPerSecond = playoutsPerSecond;
+    }
+
+    @Override
+    protected Move chooseMove(
+            GameState currentState, List<Move> possibleMoves, MoveContext context) {
+        Move bookMove = bookMove(currentState);
+        if (bookMove != null) {
+            return bookMove;
+        }
+
+        // Evaluate leaves with the DQN when there is one, else with playouts
+        DQNModel dqnModel = boardState.getBotModel();
+        if (monteCarloTree == null || dqnModel != treeModel) {
+            monteCarloTree =
+                    new MonteCarloTree(
+                            dqnModel == null
+                                    ? new PlayoutEvaluator()
+                                    : new NetworkEvaluator(dqnModel));
+            treeModel = dqnModel;
+        }
+        monteCarloTree.setThreadCount(searchThreads);
+        long timeBudget = context.timeBudget();
+        long maxPlayouts = Math.max(1, playoutsPerSecond * timeBudget / 1000);
+        Move selectedMove = monteCarloTree.search(currentState, maxPlayouts, timeBudget);
+        if (selectedMove == null) {
+            Random random = new Random();
+            selectedMove = possibleMoves.get(random.nextInt(possibleMoves.size()));
+        }
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("playouts", monteCarloTree.getPlayouts());
+        fields.put("maxPlayouts", maxPlayouts);
+        fields.put("rootVisits", monteCarloTree.getRootVisits());
+        fields.put("nodes", monteCarloTree.getNodeCount());
+        logSearch(context, selectedMove, fields);
+        return selectedMove;
+    }
+}
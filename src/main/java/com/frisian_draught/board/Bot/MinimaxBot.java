@@ -1,24 +1,29 @@
 package com.frisian_draught.board.Bot;
 
+import com.frisian_draught.AI.Endgame.Tablebase;
 import com.frisian_draught.AI.MiniMax.MiniMaxTree;
+import com.frisian_draught.AI.MiniMax.Ponderer;
+import com.frisian_draught.AI.MiniMax.TranspositionTable;
 import com.frisian_draught.AI.ReplayBuffer;
 import com.frisian_draught.board.BoardRendered;
 import com.frisian_draught.board.BoardState;
-import com.frisian_draught.board.CapturePath;
 import com.frisian_draught.board.GameState;
 import com.frisian_draught.board.MainBoard;
 import com.frisian_draught.board.Move;
 import com.frisian_draught.board.MoveManager;
-import com.frisian_draught.board.Pawn;
-
-import javafx.application.Platform;
+import com.frisian_draught.board.rules.LegalMove;
+import com.frisian_draught.board.rules.Position;
 
 import java.util.List;
 import java.util.Random;
-import java.util.stream.Collectors;
 
 public class MinimaxBot extends Bot {
 
+    // Kept across moves, so the search can reuse what it learned on the previous turn
+    private final TranspositionTable transpositionTable = new TranspositionTable();
+    // Searches the expected reply position on the opponent's time, into the same table
+    private final Ponderer ponderer = new Ponderer();
+
     public MinimaxBot(
             BoardState boardState,
             MoveManager moveManager,
@@ -29,118 +34,42 @@ public class MinimaxBot extends Bot {
     }
 
     @Override
-    public void move() {
-        Platform.runLater(
-                () -> {
-                    try {
-                        // Compute capture paths for the bot
-                        List<CapturePath> capturePaths = computeCapturePathsForBot();
-                        if (capturePaths != null && !capturePaths.isEmpty()) {
-                            System.out.println("Bot has capture opportunities. Available paths:");
-                            for (CapturePath path : capturePaths) {
-                                System.out.println(
-                                        " - Path: "
-                                                + path.positions
-                                                + ", Captures: "
-                                                + path.capturedPawns);
-                            }
-
-                            // Find the maximum capture value
-                            double maxCaptureValue =
-                                    capturePaths.stream()
-                                            .mapToDouble(CapturePath::getCaptureValue)
-                                            .max()
-                                            .orElse(Double.NEGATIVE_INFINITY);
-
-                            // Filter paths with the maximum value
-                            List<CapturePath> bestPaths =
-                                    capturePaths.stream()
-                                            .filter(
-                                                    path ->
-                                                            path.getCaptureValue()
-                                                                    == maxCaptureValue)
-                                            .collect(Collectors.toList());
-
-                            // Randomly select one of the best paths
-                            CapturePath bestPath =
-                                    bestPaths.get(new Random().nextInt(bestPaths.size()));
-
-                            System.out.println("Selected capture path: " + bestPath);
-
-                            if (bestPath != null) {
-                                Pawn pawn = bestPath.initialPawn;
-                                if (pawn != null) {
-                                    System.out.println("Bot executing capture path: " + bestPath);
-
-                                    boardState
-                                            .getTakenMoves()
-                                            .add(
-                                                    new Move(
-                                                            pawn.getPosition(),
-                                                            bestPath.getLastPosition(),
-                                                            bestPath.capturedPawns.stream()
-                                                                    .map(Pawn::getPosition)
-                                                                    .collect(Collectors.toList())));
-                                    mainBoard.animatePawnCaptureMovement(
-                                            pawn,
-                                            bestPath,
-                                            () ->
-                                                    moveManager.processAfterCaptureMove(
-                                                            pawn, bestPath));
-                                    return; // Ensure no fallback to normal moves
-                                }
-                            }
-                        }
-
-                        // If no captures, proceed with normal moves
-                        GameState currentState = mainBoard.getBoardState();
-                        List<Move> possibleMoves = currentState.generateMoves();
-
-                        if (possibleMoves.isEmpty()) {
-                            System.out.println("No possible moves for the agent.");
-                            return;
-                        }
-
-                        MiniMaxTree miniMaxTree = new MiniMaxTree(currentState);
-                        Move selMove = null;
-                        GameState newState = null;
-                        if (boardState.isWhiteTurn()) {
-                            selMove = miniMaxTree.getBestMove(currentState, 4, true);
-                            if (selMove == null) {
-                                Random random = new Random();
-                                selMove = possibleMoves.get(random.nextInt(possibleMoves.size()));
-                            }
-                            newState = miniMaxTree.rootState;
-                        } else {
-                            selMove = miniMaxTree.getBestMove(currentState, 4, false);
-                            if (selMove == null) {
-                                Random random = new Random();
-                                selMove = possibleMoves.get(random.nextInt(possibleMoves.size()));
-                            }
-                            newState = miniMaxTree.rootState;
-                        }
-                        GameState resetState = newState;
-                        Move selectedMove = selMove;
-                        System.out.println("Move start: " + selectedMove.getStartPosition());
-                        System.out.println("Move end: " + selectedMove.getEndPosition());
+    protected Move chooseMove(
+            GameState currentState, List<Move> possibleMoves, MoveContext context) {
+        Move bookMove = bookMove(currentState);
+        if (bookMove != null) {
+            return bookMove;
+        }
+
+        MiniMaxTree miniMaxTree = new MiniMaxTree(currentState, transpositionTable);
+        miniMaxTree.setTablebase(Tablebase.openDefault());
+        miniMaxTree.setThreadCount(searchThreads);
+        LegalMove bestMove =
+                ponderer.search(
+                        miniMaxTree,
+                        Position.fromGameState(currentState),
+                        context.history(),
+                        context.whiteToMove(),
+                        context.timeBudget());
+        Move selectedMove = bestMove == null ? null : bestMove.toMove();
+        if (selectedMove == null) {
+            Random random = new Random();
+            selectedMove = possibleMoves.get(random.nextInt(possibleMoves.size()));
+        }
+        logSearch(
+                context,
+                miniMaxTree.getStats(),
+                miniMaxTree.getCompletedDepth(),
+                ponderer,
+                selectedMove);
+        return selectedMove;
+    }
 
-                        if (selectedMove != null) {
-                            Pawn pawn =
-                                    moveManager.getPawnAtPosition(selectedMove.getStartPosition());
-                            if (pawn != null) {
-                                boardState.getTakenMoves().add(selectedMove);
-                                mainBoard.animatePawnMovement(
-                                        pawn,
-                                        selectedMove.getEndPosition(),
-                                        () -> applyMove(resetState.applyMove(selectedMove)));
-                            } else {
-                                boardState.getTakenMoves().add(selectedMove);
-                                applyMove(resetState.applyMove(selectedMove));
-                            }
-                        }
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                });
+    @Override
+    protected void ponder() {
+        MiniMaxTree miniMaxTree = new MiniMaxTree(null, transpositionTable);
+        miniMaxTree.setTablebase(Tablebase.openDefault());
+        miniMaxTree.setThreadCount(searchThreads);
+        ponderer.ponder(miniMaxTree);
     }
 }
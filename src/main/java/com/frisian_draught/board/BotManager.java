@@ -2,6 +2,7 @@ package com.frisian_draught.board;
 
 import com.frisian_draught.AI.Experience;
 import com.frisian_draught.AI.MiniMax.MiniMaxTree;
+import com.frisian_draught.board.Bot.Bot;
 
 import javafx.animation.PauseTransition;
 import javafx.application.Platform;
@@ -65,6 +66,7 @@ public class BotManager {
 
         // Low confidence: Fall back to MiniMax
         MiniMaxTree miniMaxTree = new MiniMaxTree(state);
+        miniMaxTree.setRepetitionTracker(boardState.getRepetitionTracker());
         return miniMaxTree.getBestMove(state, depth, maximizingPlayer);
     }
 
@@ -109,33 +111,49 @@ public class BotManager {
                     }
 
                     if (boardState.isBotvsBot()) {
-                        if (boardState.isWhiteTurn()) {
-                            boardState.getBotvsBotWhite().move();
-                        } else {
-                            boardState.getBotvsBotBlack().move();
-                        }
-
-                        // Train the model with a batch from the replay buffer
-                        if (boardState.getReplayBuffer().size() >= boardState.getBATCH_SIZE()) {
-                            List<Experience> batch =
-                                    boardState.getReplayBuffer().sample(boardState.getBATCH_SIZE());
-                            trainModel(batch);
-                        }
-
-                        // Save the model every 100 episodes
-                        boardState.setEpisodeCounter(boardState.getEpisodeCounter() + 1);
-                        if (boardState.getEpisodeCounter() % 100 == 0) {
-                            String filename = generateUniqueFilename(savePath + "/dqn_model");
-                            boardState.getBotModel().saveModel(filename);
-                        }
-
-                        PauseTransition pause = new PauseTransition(Duration.millis(1500));
-                        pause.setOnFinished(_ -> playBotVsBot(savePath));
-                        pause.play();
+                        Bot bot =
+                                boardState.isWhiteTurn()
+                                        ? boardState.getBotvsBotWhite()
+                                        : boardState.getBotvsBotBlack();
+
+                        // Train and go on once the bot has moved; a cancelled move ends the loop
+                        bot.move()
+                                .whenComplete(
+                                        (move, error) -> {
+                                            if (error == null) {
+                                                Platform.runLater(
+                                                        () -> afterBotVsBotMove(savePath));
+                                            }
+                                        });
                     }
                 });
     }
 
+    /**
+     * Trains the model after a bot-vs-bot move and schedules the next one.
+     *
+     * @param savePath the directory the model is saved to
+     */
+    private void afterBotVsBotMove(String savePath) {
+        // Train the model with a batch from the replay buffer
+        if (boardState.getReplayBuffer().size() >= boardState.getBATCH_SIZE()) {
+            List<Experience> batch =
+                    boardState.getReplayBuffer().sample(boardState.getBATCH_SIZE());
+            trainModel(batch);
+        }
+
+        // Save the model every 100 episodes
+        boardState.setEpisodeCounter(boardState.getEpisodeCounter() + 1);
+        if (boardState.getEpisodeCounter() % 100 == 0) {
+            String filename = generateUniqueFilename(savePath + "/dqn_model");
+            boardState.getBotModel().saveModel(filename);
+        }
+
+        PauseTransition pause = new PauseTransition(Duration.millis(1500));
+        pause.setOnFinished(_ -> playBotVsBot(savePath));
+        pause.play();
+    }
+
     private void trainModel(List<Experience> batch) {
         double totalLoss = 0.0;
         for (Experience experience : batch) {
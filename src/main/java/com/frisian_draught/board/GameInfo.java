@@ -7,6 +7,9 @@ public class GameInfo {
     public IntegerProperty scorePlayerOne = new SimpleIntegerProperty(0);
     public IntegerProperty scorePlayerTwo = new SimpleIntegerProperty(0);
     public IntegerProperty playerTurn = new SimpleIntegerProperty(1);
+    // Seconds left on each player's clock, -1 when the game has no clock
+    public IntegerProperty remainingTimePlayerOne = new SimpleIntegerProperty(-1);
+    public IntegerProperty remainingTimePlayerTwo = new SimpleIntegerProperty(-1);
 
     public int getScorePlayerOne() {
         return scorePlayerOne.get();
@@ -31,4 +34,20 @@ public class GameInfo {
     public IntegerProperty playerTurnProperty() {
         return playerTurn;
     }
+
+    public int getRemainingTimePlayerOne() {
+        return remainingTimePlayerOne.get();
+    }
+
+    public IntegerProperty remainingTimePlayerOneProperty() {
+        return remainingTimePlayerOne;
+    }
+
+    public int getRemainingTimePlayerTwo() {
+        return remainingTimePlayerTwo.get();
+    }
+
+    public IntegerProperty remainingTimePlayerTwoProperty() {
+        return remainingTimePlayerTwo;
+    }
 }
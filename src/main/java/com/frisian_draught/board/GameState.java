@@ -1,12 +1,16 @@
 package com.frisian_draught.board;
 
+import com.frisian_draught.board.rules.MoveList;
+import com.frisian_draught.board.rules.PackedMove;
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.RulesEngine;
+
 import org.joml.Vector2i;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
 public class GameState implements Cloneable {
     Map<Vector2i, Pawn> boardState; // Tracks positions of pawns
@@ -56,7 +60,8 @@ public class GameState implements Cloneable {
 
     @Override
     public int hashCode() {
-        return Objects.hash(boardState, isWhiteTurn);
+        // Content-based: the map's Vector2i keys are mutable and Pawn has identity equality
+        return Long.hashCode(Position.fromGameState(this).getKey());
     }
 
     @Override
@@ -82,8 +87,14 @@ public class GameState implements Cloneable {
     }
 
     public List<Move> generateMoves() {
-
-        return mainBoard.getValidMovesForState(this);
+        // Headless generation: no highlights, no shared BoardState bookkeeping
+        MoveList packed = new MoveList();
+        RulesEngine.generateMoves(Position.fromGameState(this), packed);
+        List<Move> moves = new ArrayList<>(packed.size());
+        for (int i = 0; i < packed.size(); i++) {
+            moves.add(PackedMove.toMove(packed.get(i)));
+        }
+        return moves;
     }
 
     public List<Pawn> generateMovablePawnList() {
@@ -196,10 +196,11 @@ public class MainBoard {
      * @param boardPixelSize Size of the board in pixels.
      */
     public void resetGame(float boardPixelSize) {
+        boardState.cancelBotMoves();
         boardState.setTileSize(boardPixelSize / BoardState.getMainBoardSize());
         boardState.setWhiteTurn(true);
         boardState.setActive(true); // Ensure game is active
-        boardState.getPastStates().clear(); // Clear game history
+        boardState.getRepetitionTracker().clear(); // Clear game history
         boardState.getGameInfo().scorePlayerOne.set(0);
         boardState.getGameInfo().scorePlayerTwo.set(0);
         boardState.getGameInfo().playerTurn.set(1);
@@ -237,6 +238,7 @@ public class MainBoard {
             GridPane.setColumnIndex(pawnView, initialPosition.x);
             GridPane.setRowIndex(pawnView, initialPosition.y);
         }
+        boardState.reindexPawns();
     }
 
     public void highlightMovablePawns() {
@@ -346,7 +348,7 @@ public class MainBoard {
                     // Update the pawn's position in the GridPane
                     GridPane.setColumnIndex(pawnView, landingPos.x);
                     GridPane.setRowIndex(pawnView, landingPos.y);
-                    pawn.setPosition(landingPos);
+                    boardState.movePawn(pawn, landingPos);
 
                     boardState.setAnimating(false);
 
@@ -524,7 +526,7 @@ public class MainBoard {
 
     private void resetTakenMoves() {
         boardState.getTakenMoves().clear();
-        boardState.getPastStates().clear();
+        boardState.getRepetitionTracker().clear();
         boardState.getRequiredPawns().clear();
         updateMovesListUI();
     }
@@ -552,41 +554,15 @@ public class MainBoard {
                 this);
     }
 
+    /**
+     * Generates the legal moves of a game state with the headless {@link
+     * com.frisian_draught.board.rules.RulesEngine}, leaving the board and its highlights alone.
+     *
+     * @param state the game state
+     * @return the legal moves, only the captures of maximal value if there are any
+     */
     public List<Move> getValidMovesForState(GameState state) {
-        List<Move> validMoves = new ArrayList<>();
-        // Iterate through all pawns in the game state
-        for (Map.Entry<Vector2i, Pawn> entry : state.getBoardState().entrySet()) {
-            Vector2i position = entry.getKey();
-            Pawn pawn = entry.getValue();
-            // Ensure this pawn belongs to the current player
-            if (pawn.isWhite() != state.isWhiteTurn()) {
-                continue;
-            }
-            // Generate moves for this pawn
-            moveManager.seePossibleMove(pawn, false);
-            validMoves.addAll(
-                    boardState.getPossibleMoves().stream()
-                            .map(
-                                    move ->
-                                            new Move(
-                                                    position,
-                                                    move,
-                                                    new ArrayList<>(
-                                                            boardState.getRequiredPawns().stream()
-                                                                    .map(Pawn::getPosition)
-                                                                    .collect(Collectors.toList()))))
-                            .collect(Collectors.toList()));
-        }
-        List<Move> captureMoves =
-                validMoves.stream()
-                        .filter(move -> !move.getCapturedPositions().isEmpty())
-                        .collect(Collectors.toList());
-        if (!captureMoves.isEmpty()) {
-            System.out.println("Capture moves found: " + captureMoves);
-            return captureMoves;
-        }
-        System.out.println("Normal moves found: " + validMoves);
-        return validMoves;
+        return state.generateMoves();
     }
 
     private Stage primaryStage;
@@ -1,6 +1,8 @@
 package com.frisian_draught.board;
 
 import com.frisian_draught.Launcher;
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.RepetitionTracker;
 
 import javafx.animation.FadeTransition;
 import javafx.application.Platform;
@@ -18,6 +20,7 @@ import org.apache.logging.log4j.util.TriConsumer;
 import org.joml.Vector2i;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -59,10 +62,7 @@ public class MoveManager {
      * @return Pawn at the position, or null if none.
      */
     public Pawn getPawnAtPosition(Vector2i position) {
-        return boardState.getPawns().stream()
-                .filter(p -> p.getPosition().equals(position))
-                .findFirst()
-                .orElse(null);
+        return boardState.getPawnAt(position);
     }
 
     /**
@@ -287,7 +287,7 @@ public class MoveManager {
         GridPane.setRowIndex(pawnView, nextPos.y);
 
         // Update the pawn's position in the data model
-        pawn.setPosition(nextPos);
+        boardState.movePawn(pawn, nextPos);
 
         // Capture any pawn at this step if one exists
         if (stepIndex < capturedPawns.size()) {
@@ -301,7 +301,7 @@ public class MoveManager {
         checkGameOver();
         promotePawnIfNeeded(pawn, path.getLastPosition());
         mainBoard.updateMovesListUI();
-        recordBoardState();
+        recordBoardState(true);
         switchTurn();
         boardState.setFocusedPawn(null);
         boardRendered.renderPawns();
@@ -418,7 +418,8 @@ public class MoveManager {
     }
 
     public void executeMove(Pawn pawn, Vector2i landingPos) {
-        pawn.setPosition(landingPos);
+        boolean manMove = !pawn.isKing();
+        boardState.movePawn(pawn, landingPos);
         ImageView pawnView = boardState.getPawnViews().get(pawn);
         System.out.println("Moving pawn to " + landingPos);
 
@@ -444,7 +445,7 @@ public class MoveManager {
         checkGameOver();
         boardRendered.clearHighlights();
         mainBoard.updateMovesListUI();
-        recordBoardState();
+        recordBoardState(manMove);
         switchTurn();
         boardState.setFocusedPawn(null);
     }
@@ -561,21 +562,21 @@ public class MoveManager {
         return capturedPositions;
     }
 
-    /** Records the current state of the board. */
-    private void recordBoardState() {
-        Map<Vector2i, Pawn> currentState = new HashMap<>();
-        for (Pawn pawn : boardState.getPawns()) {
-            currentState.put(pawn.getPosition(), pawn);
-        }
-        GameState newState = new GameState(currentState, boardState.isWhiteTurn(), mainBoard);
-
-        boardState.getPastStates().add(newState);
-
+    /**
+     * Records the current state of the board, called after a move and before the turn switches.
+     * The player's moves and every capture are recorded here; a bot's quiet moves are recorded
+     * by {@link com.frisian_draught.board.Bot.Bot#applyMove}.
+     *
+     * @param irreversible Whether the move was a capture or a man move, after which no earlier
+     *     position can repeat.
+     */
+    public void recordBoardState(boolean irreversible) {
         // Check for threefold repetition
-        long repetitionCount =
-                boardState.getPastStates().stream().filter(state -> state.equals(newState)).count();
-
-        if (repetitionCount >= 3) {
+        if (recordPosition(
+                boardState.getRepetitionTracker(),
+                boardState.getPawns(),
+                boardState.isWhiteTurn(),
+                irreversible)) {
             // Declare a draw
             Platform.runLater(
                     () -> {
@@ -591,6 +592,31 @@ public class MoveManager {
         }
     }
 
+    /**
+     * Pushes the position of the pawns after a move onto a repetition tracker.
+     *
+     * @param tracker The game's repetition tracker.
+     * @param pawns The pawns on the board after the move.
+     * @param whiteMoved Whether white played the move.
+     * @param irreversible Whether the move was a capture or a man move.
+     * @return Whether the position has now occurred three times.
+     */
+    public static boolean recordPosition(
+            RepetitionTracker tracker,
+            Collection<Pawn> pawns,
+            boolean whiteMoved,
+            boolean irreversible) {
+        long key = Position.fromPawns(pawns, !whiteMoved).getKey();
+        return tracker.push(key, irreversible) >= 3;
+    }
+
+    /** Forgets the most recently recorded board state, when its move is taken back. */
+    private void popBoardState() {
+        if (!boardState.getRepetitionTracker().isEmpty()) {
+            boardState.getRepetitionTracker().pop();
+        }
+    }
+
     public void checkGameOver() {
         checkGameOver(false);
     }
@@ -684,7 +710,7 @@ public class MoveManager {
      */
     public void removePawn(Pawn capturedPawn) {
 
-        boardState.getPawns().remove(capturedPawn);
+        boardState.removePawn(capturedPawn);
         boardState.getRequiredPawns().remove(capturedPawn);
 
         ImageView capturedPawnView = boardState.getPawnViews().get(capturedPawn);
@@ -747,7 +773,7 @@ public class MoveManager {
         Pawn movedPawn = getPawnAtPosition(finalPos);
         if (movedPawn != null) {
             // Move the pawn back to its original position
-            movedPawn.setPosition(initialPos);
+            boardState.movePawn(movedPawn, initialPos);
 
             // Clear the existing pawn view for the moved pawn
             ImageView movedPawnView = boardState.getPawnViews().remove(movedPawn);
@@ -762,7 +788,7 @@ public class MoveManager {
                     Pawn capturedPawn = new Pawn(capturedPostion, !movedPawn.isWhite());
 
                     // Restore the captured pawn to its original position
-                    boardState.getPawns().add(capturedPawn);
+                    boardState.addPawn(capturedPawn);
                 }
             }
         }
@@ -778,12 +804,12 @@ public class MoveManager {
     }
 
     public void undoLastMove() {
+        boardState.cancelBotMoves();
         if (boardState.getTakenMoves().size() > 0) {
-            if (boardState.getPastStates().size() > 0) {
-                boardState.getPastStates().removeLast();
-            }
+            popBoardState();
             undoMove(boardState.getTakenMoves().removeLast());
             if (boardState.isBotActive()) {
+                popBoardState();
                 undoMove(boardState.getTakenMoves().removeLast());
             }
             mainBoard.updateMovesListUI();
@@ -820,6 +846,7 @@ public class MoveManager {
             GridPane.setColumnIndex(pawnView, pawn.getPosition().x);
             GridPane.setRowIndex(pawnView, pawn.getPosition().y);
         }
+        boardState.reindexPawns();
     }
 
     /** Checks if only kings are left on the board. */
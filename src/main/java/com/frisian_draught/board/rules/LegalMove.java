@@ -0,0 +1,70 @@
+package com.frisian_draught.board.rules;
+
+import com.frisian_draught.board.Move;
+
+/**
+ * A legal move produced by the {@link RulesEngine}. Squares use the 0 to 49 indexing of {@link
+ * Squares}; captured pieces are kept as a bit mask over those squares. The search works on the
+ * same moves packed into a {@code long}, see {@link PackedMove}.
+ */
+public class LegalMove {
+
+    private final int from;
+    private final int to;
+    private final long captured;
+    private final int captureValue;
+
+    /**
+     * Creates a legal move.
+     *
+     * @param from Square the piece starts on.
+     * @param to Square the piece ends on.
+     * @param captured Bit mask of the captured squares.
+     * @param captureValue Value of the captured pieces, see {@link RulesEngine#MAN_VALUE}.
+     */
+    public LegalMove(int from, int to, long captured, int captureValue) {
+        this.from = from;
+        this.to = to;
+        this.captured = captured;
+        this.captureValue = captureValue;
+    }
+
+    public LegalMove(int from, int to) {
+        this(from, to, 0L, 0);
+    }
+
+    public int getFrom() {
+        return from;
+    }
+
+    public int getTo() {
+        return to;
+    }
+
+    public long getCaptured() {
+        return captured;
+    }
+
+    public int getCaptureValue() {
+        return captureValue;
+    }
+
+    public int getCaptureCount() {
+        return Long.bitCount(captured);
+    }
+
+    public boolean isCapture() {
+        return captured != 0L;
+    }
+
+    /** Converts this move to the {@link Move} used by the UI, PDN and bot code. */
+    public Move toMove() {
+        return PackedMove.toMove(PackedMove.of(this));
+    }
+
+    // PDN notation, same as Move
+    @Override
+    public String toString() {
+        return (from + 1) + (isCapture() ? "x" : "-") + (to + 1);
+    }
+}
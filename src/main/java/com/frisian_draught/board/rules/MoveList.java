@@ -0,0 +1,77 @@
+package com.frisian_draught.board.rules;
+
+import java.util.Arrays;
+
+/**
+ * A reusable list of {@link PackedMove}s backed by a {@code long[]}. A search keeps one list per
+ * ply and clears it at every node, so once the arrays have grown to the largest node seen,
+ * generating and ordering moves allocates nothing.
+ */
+public class MoveList {
+
+    // Enough for nearly every position; a list grows past it when needed
+    private static final int INITIAL_CAPACITY = 128;
+
+    private long[] moves = new long[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Allocates a stack of move lists, one per ply.
+     *
+     * @param size Number of plies.
+     * @return An array filled with empty lists.
+     */
+    public static MoveList[] stack(int size) {
+        MoveList[] stack = new MoveList[size];
+        for (int i = 0; i < size; i++) {
+            stack[i] = new MoveList();
+        }
+        return stack;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, long move) {
+        moves[index] = move;
+    }
+
+    public void add(long move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    /** Checks whether the list holds the given packed move. */
+    public boolean contains(long move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Shortens the list, dropping the moves from the given index on.
+     *
+     * @param size The new size, at most the current one.
+     */
+    public void truncate(int size) {
+        this.size = size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,143 @@
+package com.frisian_draught.board.rules;
+
+import com.frisian_draught.board.Move;
+
+import org.joml.Vector2i;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A move packed into a {@code long}, so that the search can generate, order and play moves
+ * without allocating. Bits 0 to 49 are the bit mask of the captured squares, indexed like a
+ * {@link Squares} bitboard; bits 50 to 55 hold the origin square and bits 56 to 61 the
+ * destination. A packed move is never negative, and 0 is no move, as a piece cannot move onto
+ * its own square.
+ *
+ * <p>Like a {@link LegalMove}, a move is defined by its squares and the pieces it takes, not by
+ * the order it takes them in.
+ */
+public final class PackedMove {
+
+    /** Stands for the absence of a move. */
+    public static final long NONE = 0L;
+
+    private static final int FROM_SHIFT = Squares.COUNT;
+    private static final int TO_SHIFT = Squares.COUNT + 6;
+    private static final int SQUARE_MASK = 0x3F;
+
+    private PackedMove() {
+        throw new UnsupportedOperationException(
+                "This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Packs a move.
+     *
+     * @param from Square the piece starts on.
+     * @param to Square the piece ends on.
+     * @param captured Bit mask of the captured squares.
+     * @return The packed move.
+     */
+    public static long of(int from, int to, long captured) {
+        return (long) to << TO_SHIFT | (long) from << FROM_SHIFT | captured;
+    }
+
+    /** Packs a move produced by the {@link RulesEngine}. */
+    public static long of(LegalMove move) {
+        return of(move.getFrom(), move.getTo(), move.getCaptured());
+    }
+
+    /**
+     * Packs a move of the UI, PDN and bot code.
+     *
+     * @param move The move, with its captured pieces.
+     * @return The packed move, or {@link #NONE} if a square is not playable.
+     */
+    public static long of(Move move) {
+        int from = square(move.getStartPosition());
+        int to = square(move.getEndPosition());
+        if (from < 0 || to < 0) {
+            return NONE;
+        }
+        long captured = 0L;
+        for (Vector2i position : move.getCapturedPositions()) {
+            int square = square(position);
+            if (square < 0) {
+                return NONE;
+            }
+            captured |= Squares.bit(square);
+        }
+        return of(from, to, captured);
+    }
+
+    public static int getFrom(long move) {
+        return (int) (move >>> FROM_SHIFT) & SQUARE_MASK;
+    }
+
+    public static int getTo(long move) {
+        return (int) (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    public static long getCaptured(long move) {
+        return move & Squares.ALL;
+    }
+
+    public static boolean isCapture(long move) {
+        return (move & Squares.ALL) != 0L;
+    }
+
+    public static int getCaptureCount(long move) {
+        return Long.bitCount(move & Squares.ALL);
+    }
+
+    /**
+     * Computes the capture value of a move, see {@link RulesEngine#MAN_VALUE}.
+     *
+     * @param move The packed move.
+     * @param kings Bit mask of the kings in the position the move is played from.
+     * @return The value of the captured pieces, 0 for a quiet move.
+     */
+    public static int getCaptureValue(long move, long kings) {
+        long captured = move & Squares.ALL;
+        return Long.bitCount(captured & ~kings) * RulesEngine.MAN_VALUE
+                + Long.bitCount(captured & kings) * RulesEngine.KING_VALUE;
+    }
+
+    /**
+     * Unpacks a move for the code that works with {@link LegalMove}s.
+     *
+     * @param move The packed move.
+     * @param position The position the move is played from, for its capture value.
+     * @return A new legal move.
+     */
+    public static LegalMove toLegalMove(long move, Position position) {
+        return new LegalMove(
+                getFrom(move),
+                getTo(move),
+                getCaptured(move),
+                getCaptureValue(move, position.getKings()));
+    }
+
+    /** Unpacks a move to the {@link Move} used by the UI, PDN and bot code. */
+    public static Move toMove(long move) {
+        List<Vector2i> capturedPositions = new ArrayList<>();
+        for (long mask = getCaptured(move); mask != 0L; mask &= mask - 1) {
+            capturedPositions.add(vector(Long.numberOfTrailingZeros(mask)));
+        }
+        return new Move(vector(getFrom(move)), vector(getTo(move)), capturedPositions);
+    }
+
+    /** Returns the move in PDN notation, same as {@link Move}. */
+    public static String toString(long move) {
+        return (getFrom(move) + 1) + (isCapture(move) ? "x" : "-") + (getTo(move) + 1);
+    }
+
+    private static int square(Vector2i position) {
+        return position == null ? -1 : Squares.at(position.x, position.y);
+    }
+
+    private static Vector2i vector(int square) {
+        return new Vector2i(Squares.getX(square), Squares.getY(square));
+    }
+}
@@ -0,0 +1,127 @@
+package com.frisian_draught.board.rules;
+
+import com.frisian_draught.util.PDNParser;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Perft (performance test) over the {@link RulesEngine}: counts the leaf nodes of the legal move
+ * tree to a fixed depth, using {@link Position#make} and {@link Position#unmake}. The counts are
+ * a regression check for the move generator and the node rate is a measure of its speed.
+ *
+ * <p>Command line usage:
+ *
+ * <pre>
+ * Perft &lt;depth&gt; [divide] [file.pdn]
+ * </pre>
+ *
+ * Without a file the start position is used; with a file the position comes from its {@code
+ * BoardPosition} tag and the side to move from its {@code Turn} tag. {@code divide} prints the
+ * count below every root move.
+ *
+ * <p>Reference counts from the start position: 9, 81, 658, 3874, 21265, 102431, 540126.
+ */
+public final class Perft {
+
+    private Perft() {
+        throw new UnsupportedOperationException(
+                "This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Counts the leaf nodes of the move tree.
+     *
+     * @param position Position to search, restored before returning.
+     * @param depth Number of plies, at least 1.
+     * @return The number of move sequences of exactly {@code depth} plies.
+     */
+    public static long perft(Position position, int depth) {
+        return perft(position, depth, UndoInfo.stack(depth), MoveList.stack(depth), 0);
+    }
+
+    /**
+     * Counts the leaf nodes below every root move.
+     *
+     * @param position Position to search, restored before returning.
+     * @param depth Number of plies, at least 1.
+     * @return The count for each root move, in generation order.
+     */
+    public static Map<LegalMove, Long> divide(Position position, int depth) {
+        Map<LegalMove, Long> counts = new LinkedHashMap<>();
+        UndoInfo[] undoStack = UndoInfo.stack(depth);
+        MoveList[] moveLists = MoveList.stack(depth);
+        for (LegalMove move : RulesEngine.generateMoves(position)) {
+            if (depth == 1) {
+                counts.put(move, 1L);
+                continue;
+            }
+            position.make(move, undoStack[0]);
+            counts.put(move, perft(position, depth - 1, undoStack, moveLists, 1));
+            position.unmake(undoStack[0]);
+        }
+        return counts;
+    }
+
+    private static long perft(
+            Position position, int depth, UndoInfo[] undoStack, MoveList[] moveLists, int ply) {
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        RulesEngine.generateMoves(position, moves);
+        if (depth == 1) {
+            return moves.size(); // Bulk counting: the leaves need not be made
+        }
+        long nodes = 0;
+        UndoInfo undo = undoStack[ply];
+        for (int i = 0; i < moves.size(); i++) {
+            position.make(moves.get(i), undo);
+            nodes += perft(position, depth - 1, undoStack, moveLists, ply + 1);
+            position.unmake(undo);
+        }
+        return nodes;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: Perft <depth> [divide] [file.pdn]");
+            System.exit(1);
+        }
+        int depth = Integer.parseInt(args[0]);
+        boolean divide = false;
+        Position position = Position.initial();
+        for (int i = 1; i < args.length; i++) {
+            if ("divide".equals(args[i])) {
+                divide = true;
+            } else {
+                position = load(args[i]);
+            }
+        }
+
+        long start = System.nanoTime();
+        long nodes;
+        if (divide) {
+            nodes = 0;
+            for (Map.Entry<LegalMove, Long> entry : divide(position, depth).entrySet()) {
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+                nodes += entry.getValue();
+            }
+        } else {
+            nodes = perft(position, depth);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        double seconds = elapsed / 1e9;
+        System.out.printf(
+                "depth %d: %d nodes in %.3f s (%.0f nodes/s)%n",
+                depth, nodes, seconds, seconds > 0 ? nodes / seconds : 0.0);
+    }
+
+    private static Position load(String pdnFilePath) {
+        PDNParser parser = new PDNParser(pdnFilePath);
+        parser.parseFile();
+        if (parser.getBoardPosition() == null) {
+            throw new IllegalArgumentException("No BoardPosition tag in " + pdnFilePath);
+        }
+        return Position.fromBoardPosition(parser.getBoardPosition(), !"B".equals(parser.getTurn()));
+    }
+}
@@ -0,0 +1,614 @@
+package com.frisian_draught.board.rules;
+
+import com.frisian_draught.board.GameState;
+import com.frisian_draught.board.MainBoard;
+import com.frisian_draught.board.Pawn;
+import com.frisian_draught.util.PDNParser;
+
+import org.joml.Vector2i;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A headless Frisian draughts position, stored as four bitboards over the 50 playable squares
+ * (see {@link Squares}) plus the side to move and the state needed for the three-move king rule.
+ * Holds no JavaFX types, and copying it copies a handful of primitives.
+ */
+public class Position {
+
+    public static final byte EMPTY = 0;
+    public static final byte WHITE_MAN = 1;
+    public static final byte WHITE_KING = 2;
+    public static final byte BLACK_MAN = 3;
+    public static final byte BLACK_KING = 4;
+
+    private long whiteMen;
+    private long blackMen;
+    private long whiteKings;
+    private long blackKings;
+    private boolean whiteToMove;
+
+    // Three-move king rule: the king that made the last non-capturing moves of each side
+    // (-1 if none) and how many of them it made in a row.
+    private int whiteKingSquare = -1;
+    private int whiteKingMoves;
+    private int blackKingSquare = -1;
+    private int blackKingMoves;
+
+    // Zobrist key of the pieces and side to move, kept up to date by every mutator
+    private long key;
+
+    // Terms of the static evaluation, each white minus black, kept up to date the same way:
+    // men, kings, pieces on the edge columns, and rows advanced by the men
+    private int manBalance;
+    private int kingBalance;
+    private int edgeBalance;
+    private int advancement;
+
+    public Position(boolean whiteToMove) {
+        this.whiteToMove = whiteToMove;
+        this.key = whiteToMove ? 0L : Zobrist.blackToMove();
+    }
+
+    /** Creates a copy of the given position. */
+    public Position(Position other) {
+        copyFrom(other);
+    }
+
+    /** Returns the standard starting position, white to move. */
+    public static Position initial() {
+        Position position = new Position(true);
+        position.blackMen = (1L << 20) - 1;
+        position.whiteMen = Squares.ALL & ~((1L << 30) - 1);
+        position.key = position.computeKey();
+        position.edgeBalance =
+                Long.bitCount(position.whiteMen & Squares.EDGE)
+                        - Long.bitCount(position.blackMen & Squares.EDGE);
+        position.advancement = position.computeAdvancement();
+        return position;
+    }
+
+    /**
+     * Builds a position from the pawn map of a {@link GameState}. The map keys are used as the
+     * squares, since {@link GameState#applyMove} does not update the pawns' own positions.
+     *
+     * @param state The game state to convert.
+     * @return The equivalent headless position.
+     */
+    public static Position fromGameState(GameState state) {
+        Position position = new Position(state.isWhiteTurn());
+        for (Map.Entry<Vector2i, Pawn> entry : state.getBoardState().entrySet()) {
+            position.addPawn(entry.getKey(), entry.getValue());
+        }
+        return position;
+    }
+
+    /**
+     * Builds a position from a collection of pawns, e.g. {@code BoardState.getPawns()} or the
+     * pawns read by {@code PDNParser}.
+     *
+     * @param pawns The pawns on the board.
+     * @param whiteToMove Whether white is to move.
+     * @return The equivalent headless position.
+     */
+    public static Position fromPawns(Collection<Pawn> pawns, boolean whiteToMove) {
+        Position position = new Position(whiteToMove);
+        for (Pawn pawn : pawns) {
+            position.addPawn(pawn.getPosition(), pawn);
+        }
+        return position;
+    }
+
+    /**
+     * Builds a position from the value of a PDN {@code BoardPosition} tag, e.g. {@code
+     * "W:33:B:12,14,27"}, without creating any pawns.
+     *
+     * @param boardPosition The tag value, parsed by {@link PDNParser#parseBoardPosition}.
+     * @param whiteToMove Whether white is to move.
+     * @return The equivalent headless position.
+     */
+    public static Position fromBoardPosition(String boardPosition, boolean whiteToMove) {
+        Position position = new Position(whiteToMove);
+        PDNParser.parseBoardPosition(
+                boardPosition,
+                (square, isWhite, isKing) -> position.setPiece(square - 1, piece(isWhite, isKing)));
+        return position;
+    }
+
+    private void addPawn(Vector2i coordinates, Pawn pawn) {
+        int square = Squares.at(coordinates.x, coordinates.y);
+        if (square < 0) {
+            return;
+        }
+        setPiece(square, piece(pawn.isWhite(), pawn.isKing()));
+
+        int moves = pawn.getNumberOfNonCapturingMoves();
+        if (pawn.isKing() && moves > getKingMoves(pawn.isWhite())) {
+            setKingMoves(pawn.isWhite(), square, moves);
+        }
+    }
+
+    /**
+     * Converts this position to a pawn map keyed by board coordinates, the layout used by {@link
+     * GameState}. New {@link Pawn} objects are created, so this is meant for the UI boundary
+     * rather than for search.
+     *
+     * @return A new map from coordinates to pawns.
+     */
+    public Map<Vector2i, Pawn> toPawnMap() {
+        Map<Vector2i, Pawn> pawns = new HashMap<>();
+        for (long mask = getOccupied(); mask != 0L; mask &= mask - 1) {
+            int square = Long.numberOfTrailingZeros(mask);
+            Vector2i coordinates = new Vector2i(Squares.getX(square), Squares.getY(square));
+            Pawn pawn = new Pawn(coordinates, isWhite(square), isKing(square));
+            if (square == getKingSquare(pawn.isWhite())) {
+                for (int i = 0; i < getKingMoves(pawn.isWhite()); i++) {
+                    pawn.incrementNumberOfNonCapturingMoves();
+                }
+            }
+            pawns.put(coordinates, pawn);
+        }
+        return pawns;
+    }
+
+    /**
+     * Converts this position to a {@link GameState}.
+     *
+     * @param mainBoard The board the game state belongs to.
+     * @return A new game state with freshly created pawns.
+     */
+    public GameState toGameState(MainBoard mainBoard) {
+        return new GameState(toPawnMap(), whiteToMove, mainBoard);
+    }
+
+    /** Overwrites this position with the content of another one. */
+    public void copyFrom(Position other) {
+        whiteMen = other.whiteMen;
+        blackMen = other.blackMen;
+        whiteKings = other.whiteKings;
+        blackKings = other.blackKings;
+        whiteToMove = other.whiteToMove;
+        whiteKingSquare = other.whiteKingSquare;
+        whiteKingMoves = other.whiteKingMoves;
+        blackKingSquare = other.blackKingSquare;
+        blackKingMoves = other.blackKingMoves;
+        key = other.key;
+        manBalance = other.manBalance;
+        kingBalance = other.kingBalance;
+        edgeBalance = other.edgeBalance;
+        advancement = other.advancement;
+    }
+
+    public static byte piece(boolean white, boolean king) {
+        if (white) {
+            return king ? WHITE_KING : WHITE_MAN;
+        }
+        return king ? BLACK_KING : BLACK_MAN;
+    }
+
+    public byte getPiece(int square) {
+        long bit = Squares.bit(square);
+        if ((whiteMen & bit) != 0L) return WHITE_MAN;
+        if ((blackMen & bit) != 0L) return BLACK_MAN;
+        if ((whiteKings & bit) != 0L) return WHITE_KING;
+        if ((blackKings & bit) != 0L) return BLACK_KING;
+        return EMPTY;
+    }
+
+    public void setPiece(int square, byte piece) {
+        byte previous = getPiece(square);
+        if (previous != EMPTY) {
+            key ^= Zobrist.piece(previous, square);
+        }
+        if (piece != EMPTY) {
+            key ^= Zobrist.piece(piece, square);
+        }
+        addTerms(previous, square, -1);
+        addTerms(piece, square, 1);
+        long bit = Squares.bit(square);
+        whiteMen &= ~bit;
+        blackMen &= ~bit;
+        whiteKings &= ~bit;
+        blackKings &= ~bit;
+        switch (piece) {
+            case WHITE_MAN -> whiteMen |= bit;
+            case BLACK_MAN -> blackMen |= bit;
+            case WHITE_KING -> whiteKings |= bit;
+            case BLACK_KING -> blackKings |= bit;
+            default -> {}
+        }
+    }
+
+    public long getWhiteMen() {
+        return whiteMen;
+    }
+
+    public long getBlackMen() {
+        return blackMen;
+    }
+
+    public long getWhiteKings() {
+        return whiteKings;
+    }
+
+    public long getBlackKings() {
+        return blackKings;
+    }
+
+    /** Returns the bitboard of all pieces of one colour. */
+    public long getPieces(boolean white) {
+        return white ? whiteMen | whiteKings : blackMen | blackKings;
+    }
+
+    public long getKings() {
+        return whiteKings | blackKings;
+    }
+
+    public long getOccupied() {
+        return whiteMen | blackMen | whiteKings | blackKings;
+    }
+
+    public boolean isEmpty(int square) {
+        return (getOccupied() & Squares.bit(square)) == 0L;
+    }
+
+    public boolean isWhite(int square) {
+        return ((whiteMen | whiteKings) & Squares.bit(square)) != 0L;
+    }
+
+    public boolean isBlack(int square) {
+        return ((blackMen | blackKings) & Squares.bit(square)) != 0L;
+    }
+
+    public boolean isKing(int square) {
+        return (getKings() & Squares.bit(square)) != 0L;
+    }
+
+    /** Checks whether the square holds a piece of the given colour. */
+    public boolean isOwn(int square, boolean white) {
+        return (getPieces(white) & Squares.bit(square)) != 0L;
+    }
+
+    /** Checks whether the given side still has at least one man (non-king) on the board. */
+    public boolean hasMen(boolean white) {
+        return (white ? whiteMen : blackMen) != 0L;
+    }
+
+    public boolean isWhiteToMove() {
+        return whiteToMove;
+    }
+
+    public void setWhiteToMove(boolean whiteToMove) {
+        if (this.whiteToMove != whiteToMove) {
+            key ^= Zobrist.blackToMove();
+        }
+        this.whiteToMove = whiteToMove;
+    }
+
+    /**
+     * Returns the 64-bit Zobrist key of the pieces and the side to move. The key is updated
+     * incrementally by {@link #make}, {@link #unmake} and the setters, and is meant to be shared by
+     * transposition tables, repetition detection and evaluation caches. The three-move king
+     * counters are not part of it.
+     */
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * Computes the Zobrist key from scratch. {@link #getKey()} always equals this value; it is
+     * exposed to check the incremental updates.
+     *
+     * @return The key of the current pieces and side to move.
+     */
+    public long computeKey() {
+        long computed = whiteToMove ? 0L : Zobrist.blackToMove();
+        computed ^= Zobrist.pieces(WHITE_MAN, whiteMen);
+        computed ^= Zobrist.pieces(WHITE_KING, whiteKings);
+        computed ^= Zobrist.pieces(BLACK_MAN, blackMen);
+        computed ^= Zobrist.pieces(BLACK_KING, blackKings);
+        return computed;
+    }
+
+    /** Returns the number of white men minus black men, updated incrementally like the key. */
+    public int getManBalance() {
+        return manBalance;
+    }
+
+    /** Returns the number of white kings minus black kings, updated incrementally. */
+    public int getKingBalance() {
+        return kingBalance;
+    }
+
+    /**
+     * Returns the number of white pieces on the {@link Squares#EDGE} columns minus black ones,
+     * updated incrementally.
+     */
+    public int getEdgeBalance() {
+        return edgeBalance;
+    }
+
+    /**
+     * Returns how many rows the white men have advanced from their back row, minus the same for
+     * the black men. Kings count 0. Like the key, it is updated incrementally.
+     */
+    public int getAdvancement() {
+        return advancement;
+    }
+
+    /**
+     * Computes {@link #getAdvancement()} from scratch, to check the incremental updates.
+     *
+     * @return The advancement of the current pieces.
+     */
+    public int computeAdvancement() {
+        int computed = 0;
+        for (long mask = whiteMen | blackMen; mask != 0L; mask &= mask - 1) {
+            int square = Long.numberOfTrailingZeros(mask);
+            computed += advancement(getPiece(square), square);
+        }
+        return computed;
+    }
+
+    /**
+     * Adds a piece on a square to the evaluation terms, or removes it.
+     *
+     * @param piece Piece, or {@link #EMPTY} for nothing.
+     * @param square Square of the piece.
+     * @param sign 1 to add the piece, -1 to remove it.
+     */
+    private void addTerms(byte piece, int square, int sign) {
+        if (piece == EMPTY) {
+            return;
+        }
+        int side = piece == WHITE_MAN || piece == WHITE_KING ? sign : -sign;
+        if (piece == WHITE_KING || piece == BLACK_KING) {
+            kingBalance += side;
+        } else {
+            manBalance += side;
+        }
+        if ((Squares.EDGE & Squares.bit(square)) != 0L) {
+            edgeBalance += side;
+        }
+        advancement += sign * advancement(piece, square);
+    }
+
+    /** Returns the advancement of one piece, negative for black men. */
+    private static int advancement(byte piece, int square) {
+        return switch (piece) {
+            case WHITE_MAN -> Squares.BOARD_SIZE - 1 - Squares.getY(square);
+            case BLACK_MAN -> -Squares.getY(square);
+            default -> 0;
+        };
+    }
+
+    public int getKingSquare(boolean white) {
+        return white ? whiteKingSquare : blackKingSquare;
+    }
+
+    public int getKingMoves(boolean white) {
+        return white ? whiteKingMoves : blackKingMoves;
+    }
+
+    public void setKingMoves(boolean white, int square, int moves) {
+        if (white) {
+            whiteKingSquare = square;
+            whiteKingMoves = moves;
+        } else {
+            blackKingSquare = square;
+            blackKingMoves = moves;
+        }
+    }
+
+    /**
+     * Plays a legal move in place. Captured pieces are removed, a man ending on the far row is
+     * promoted, the three-move king counters are updated and the side to move switches.
+     *
+     * @param move A move generated by {@link RulesEngine} for this position.
+     * @param undo Record filled with what {@link #unmake(UndoInfo)} needs to restore.
+     */
+    public void make(LegalMove move, UndoInfo undo) {
+        make(PackedMove.of(move), undo);
+    }
+
+    /**
+     * Plays a legal move in place, as {@link #make(LegalMove, UndoInfo)} does, without
+     * allocating.
+     *
+     * @param move A {@link PackedMove} generated by {@link RulesEngine} for this position.
+     * @param undo Record filled with what {@link #unmake(UndoInfo)} needs to restore.
+     */
+    public void make(long move, UndoInfo undo) {
+        boolean white = whiteToMove;
+        int fromSquare = PackedMove.getFrom(move);
+        int toSquare = PackedMove.getTo(move);
+        long from = Squares.bit(fromSquare);
+        long to = Squares.bit(toSquare);
+        long captured = PackedMove.getCaptured(move);
+
+        undo.move = move;
+        undo.capturedKings = captured & getKings();
+        undo.promoted = false;
+        undo.whiteKingSquare = whiteKingSquare;
+        undo.whiteKingMoves = whiteKingMoves;
+        undo.blackKingSquare = blackKingSquare;
+        undo.blackKingMoves = blackKingMoves;
+        undo.key = key;
+        undo.manBalance = manBalance;
+        undo.kingBalance = kingBalance;
+        undo.edgeBalance = edgeBalance;
+        undo.advancement = advancement;
+
+        boolean king = (getKings() & from) != 0L;
+        byte moving = piece(white, king);
+        byte landing = moving;
+        if (captured != 0L) {
+            // Captured pieces are the opponent's, so removing them counts for the mover
+            int side = white ? 1 : -1;
+            long capturedMen = captured & ~undo.capturedKings;
+            manBalance += side * Long.bitCount(capturedMen);
+            kingBalance += side * Long.bitCount(undo.capturedKings);
+            edgeBalance += side * Long.bitCount(captured & Squares.EDGE);
+            byte capturedMan = white ? BLACK_MAN : WHITE_MAN;
+            for (long mask = capturedMen; mask != 0L; mask &= mask - 1) {
+                advancement -= advancement(capturedMan, Long.numberOfTrailingZeros(mask));
+            }
+        }
+        if (white) {
+            if (captured != 0L) {
+                key ^= Zobrist.pieces(BLACK_MAN, blackMen & captured);
+                key ^= Zobrist.pieces(BLACK_KING, blackKings & captured);
+                blackMen &= ~captured;
+                blackKings &= ~captured;
+            }
+            if (king) {
+                whiteKings = (whiteKings & ~from) | to;
+            } else if ((to & Squares.WHITE_PROMOTION) != 0L) {
+                whiteMen &= ~from;
+                whiteKings |= to;
+                undo.promoted = true;
+                landing = WHITE_KING;
+            } else {
+                whiteMen = (whiteMen & ~from) | to;
+            }
+        } else {
+            if (captured != 0L) {
+                key ^= Zobrist.pieces(WHITE_MAN, whiteMen & captured);
+                key ^= Zobrist.pieces(WHITE_KING, whiteKings & captured);
+                whiteMen &= ~captured;
+                whiteKings &= ~captured;
+            }
+            if (king) {
+                blackKings = (blackKings & ~from) | to;
+            } else if ((to & Squares.BLACK_PROMOTION) != 0L) {
+                blackMen &= ~from;
+                blackKings |= to;
+                undo.promoted = true;
+                landing = BLACK_KING;
+            } else {
+                blackMen = (blackMen & ~from) | to;
+            }
+        }
+        key ^= Zobrist.piece(moving, fromSquare) ^ Zobrist.piece(landing, toSquare);
+        addTerms(moving, fromSquare, -1);
+        addTerms(landing, toSquare, 1);
+        key ^= Zobrist.blackToMove();
+
+        // Only a king's non-capturing moves count; anything else resets the streak
+        if (king && captured == 0L) {
+            int moves = getKingSquare(white) == fromSquare ? getKingMoves(white) + 1 : 1;
+            setKingMoves(white, toSquare, moves);
+        } else {
+            setKingMoves(white, -1, 0);
+        }
+        int opponentKing = getKingSquare(!white);
+        if (opponentKing >= 0 && (captured & Squares.bit(opponentKing)) != 0L) {
+            setKingMoves(!white, -1, 0);
+        }
+
+        whiteToMove = !white;
+    }
+
+    /**
+     * Takes back the move recorded in the given undo record, restoring captured pieces, promotion
+     * status, king counters and side to move exactly.
+     *
+     * @param undo The record filled by the matching {@link #make(LegalMove, UndoInfo)} call.
+     */
+    public void unmake(UndoInfo undo) {
+        whiteToMove = !whiteToMove;
+        boolean white = whiteToMove;
+        long move = undo.move;
+        long from = Squares.bit(PackedMove.getFrom(move));
+        long to = Squares.bit(PackedMove.getTo(move));
+        long capturedMen = PackedMove.getCaptured(move) & ~undo.capturedKings;
+
+        if (white) {
+            if (undo.promoted) {
+                whiteKings &= ~to;
+                whiteMen |= from;
+            } else if ((whiteKings & to) != 0L) {
+                whiteKings = (whiteKings & ~to) | from;
+            } else {
+                whiteMen = (whiteMen & ~to) | from;
+            }
+            blackMen |= capturedMen;
+            blackKings |= undo.capturedKings;
+        } else {
+            if (undo.promoted) {
+                blackKings &= ~to;
+                blackMen |= from;
+            } else if ((blackKings & to) != 0L) {
+                blackKings = (blackKings & ~to) | from;
+            } else {
+                blackMen = (blackMen & ~to) | from;
+            }
+            whiteMen |= capturedMen;
+            whiteKings |= undo.capturedKings;
+        }
+
+        whiteKingSquare = undo.whiteKingSquare;
+        whiteKingMoves = undo.whiteKingMoves;
+        blackKingSquare = undo.blackKingSquare;
+        blackKingMoves = undo.blackKingMoves;
+        key = undo.key;
+        manBalance = undo.manBalance;
+        kingBalance = undo.kingBalance;
+        edgeBalance = undo.edgeBalance;
+        advancement = undo.advancement;
+    }
+
+    /**
+     * Encodes the position for the DQN model, in the same layout as {@link
+     * GameState#toInputArray()}: one entry per tile of the 10x10 board (1 for white, -1 for
+     * black) followed by the side to move.
+     *
+     * @return A new input array of size 101.
+     */
+    public double[] toInputArray() {
+        double[] inputArray = new double[Squares.BOARD_SIZE * Squares.BOARD_SIZE + 1];
+        toInputArray(inputArray);
+        return inputArray;
+    }
+
+    /**
+     * Encodes the position for the DQN model into an existing array, see {@link
+     * #toInputArray()}.
+     *
+     * @param inputArray Array of size 101, overwritten.
+     */
+    public void toInputArray(double[] inputArray) {
+        int boardSize = Squares.BOARD_SIZE;
+        Arrays.fill(inputArray, 0.0);
+        for (long mask = getOccupied(); mask != 0L; mask &= mask - 1) {
+            int square = Long.numberOfTrailingZeros(mask);
+            int index = Squares.getY(square) * boardSize + Squares.getX(square);
+            inputArray[index] = isWhite(square) ? 1.0 : -1.0;
+        }
+        inputArray[inputArray.length - 1] = whiteToMove ? 1.0 : 0.0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Position other = (Position) o;
+        return whiteMen == other.whiteMen
+                && blackMen == other.blackMen
+                && whiteKings == other.whiteKings
+                && blackKings == other.blackKings
+                && whiteToMove == other.whiteToMove
+                && whiteKingSquare == other.whiteKingSquare
+                && whiteKingMoves == other.whiteKingMoves
+                && blackKingSquare == other.blackKingSquare
+                && blackKingMoves == other.blackKingMoves;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(key);
+    }
+}
@@ -0,0 +1,136 @@
+package com.frisian_draught.board.rules;
+
+import java.util.Arrays;
+
+/**
+ * Counts how often each position has occurred, keyed by {@link Position#getKey()}, for the
+ * threefold repetition rule.
+ *
+ * <p>Positions are pushed after every move and popped when a move is taken back, so the same
+ * tracker serves the game history and a search walking the tree with make/unmake. Captures and
+ * man moves are irreversible: no earlier position can occur again, so the count restarts after
+ * them. Each entry stores its repetition count, found through a small hash table of the latest
+ * entry per key, so pushing, popping and {@link #getCount()} are constant time.
+ */
+public class RepetitionTracker {
+
+    private static final int TABLE_BITS = 10;
+    private static final int TABLE_MASK = (1 << TABLE_BITS) - 1;
+    private static final int INITIAL_CAPACITY = 256;
+
+    // Latest entry per hash slot, -1 if none
+    private final int[] heads = new int[1 << TABLE_BITS];
+
+    // Per entry: key, previous entry in the same slot, repetition count, and window start
+    // before the entry was pushed
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int[] previous = new int[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int[] starts = new int[INITIAL_CAPACITY];
+
+    private int size;
+    // First entry after the last irreversible move
+    private int start;
+
+    public RepetitionTracker() {
+        Arrays.fill(heads, -1);
+    }
+
+    /** Creates a copy of the given tracker, e.g. to hand a game's history to a search thread. */
+    public RepetitionTracker(RepetitionTracker other) {
+        System.arraycopy(other.heads, 0, heads, 0, heads.length);
+        keys = other.keys.clone();
+        previous = other.previous.clone();
+        counts = other.counts.clone();
+        starts = other.starts.clone();
+        size = other.size;
+        start = other.start;
+    }
+
+    /**
+     * Records a position reached by a move.
+     *
+     * @param key The Zobrist key of the position.
+     * @param irreversible Whether the move leading to it was a capture or a man move.
+     * @return How many times the position has now occurred since the last irreversible move.
+     */
+    public int push(long key, boolean irreversible) {
+        if (size == keys.length) {
+            grow();
+        }
+        starts[size] = start;
+        if (irreversible) {
+            start = size;
+        }
+
+        int slot = (int) key & TABLE_MASK;
+        int entry = heads[slot];
+        while (entry >= start && keys[entry] != key) {
+            entry = previous[entry];
+        }
+
+        keys[size] = key;
+        previous[size] = heads[slot];
+        counts[size] = entry >= start ? counts[entry] + 1 : 1;
+        heads[slot] = size;
+        return counts[size++];
+    }
+
+    /**
+     * Records the position after {@link Position#make}, deciding reversibility from the move.
+     *
+     * @param position The position after the move.
+     * @param undo The undo record filled by the move.
+     * @return How many times the position has now occurred since the last irreversible move.
+     */
+    public int push(Position position, UndoInfo undo) {
+        long move = undo.getMove();
+        boolean kingMove = position.isKing(PackedMove.getTo(move)) && !undo.isPromoted();
+        return push(position.getKey(), PackedMove.isCapture(move) || !kingMove);
+    }
+
+    /** Records the starting position of a game or search, which counts as irreversible. */
+    public void reset(long key) {
+        clear();
+        push(key, true);
+    }
+
+    /** Removes the most recent position, when its move is taken back. */
+    public void pop() {
+        size--;
+        heads[(int) keys[size] & TABLE_MASK] = previous[size];
+        start = starts[size];
+    }
+
+    /** Returns how many times the most recent position has occurred, or 0 if there is none. */
+    public int getCount() {
+        return size == 0 ? 0 : counts[size - 1];
+    }
+
+    /** Checks whether the most recent position has occurred three times. */
+    public boolean isThreefold() {
+        return getCount() >= 3;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(heads, -1);
+        size = 0;
+        start = 0;
+    }
+
+    private void grow() {
+        int capacity = keys.length * 2;
+        keys = Arrays.copyOf(keys, capacity);
+        previous = Arrays.copyOf(previous, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+    }
+}
@@ -0,0 +1,262 @@
+package com.frisian_draught.board.rules;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Headless legal-move generator for Frisian draughts.
+ *
+ * <p>Unlike {@link com.frisian_draught.board.MoveManager} it keeps no state of its own and never
+ * touches the board UI, so it can be called from any thread. Implemented rules:
+ *
+ * <ul>
+ *   <li>Men move one square diagonally forward; kings move any distance diagonally.
+ *   <li>Men and kings capture diagonally and orthogonally, forwards and backwards; kings capture
+ *       at range and may land on any free square behind the captured piece.
+ *   <li>Captured pieces stay on the board until the move is complete, so they cannot be jumped
+ *       twice and block further captures.
+ *   <li>Capturing is compulsory and the sequence with the highest value must be played, a king
+ *       counting as one and a half man (see {@link
+ *       com.frisian_draught.board.CapturePath#getCaptureValue()}).
+ *   <li>While a side still has men, a king may not make more than three non-capturing moves in a
+ *       row.
+ * </ul>
+ */
+public final class RulesEngine {
+
+    /** Capture value of a man, in half-man units so that a king stays integral. */
+    public static final int MAN_VALUE = 2;
+
+    /** Capture value of a king, one and a half man. */
+    public static final int KING_VALUE = 3;
+
+    /** Number of consecutive non-capturing moves a king may make while its side has men. */
+    public static final int KING_MOVE_LIMIT = 3;
+
+    private RulesEngine() {
+        throw new UnsupportedOperationException(
+                "This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Generates every legal move for the side to move.
+     *
+     * @param position The position to generate moves for. It is not modified.
+     * @return The legal moves, empty if the side to move is blocked or has no pieces.
+     */
+    public static List<LegalMove> generateMoves(Position position) {
+        List<LegalMove> moves = new ArrayList<>();
+        generateMoves(position, moves);
+        return moves;
+    }
+
+    /**
+     * Appends every legal move for the side to move to the given list.
+     *
+     * @param position The position to generate moves for. It is not modified.
+     * @param moves List the moves are appended to.
+     */
+    public static void generateMoves(Position position, List<LegalMove> moves) {
+        MoveList packed = new MoveList();
+        generateMoves(position, packed);
+        addAll(position, packed, moves);
+    }
+
+    /**
+     * Appends every legal move for the side to move to the given list, packed. Nothing is
+     * allocated once the list has room for the moves.
+     *
+     * @param position The position to generate moves for. It is not modified.
+     * @param moves List the moves are appended to.
+     */
+    public static void generateMoves(Position position, MoveList moves) {
+        int start = moves.size();
+        generateCaptures(position, moves);
+        if (moves.size() == start) {
+            generateQuietMoves(position, moves);
+        }
+    }
+
+    /**
+     * Appends the capture sequences of maximal value for the side to move.
+     *
+     * @param position The position to generate captures for. It is not modified.
+     * @param moves List the captures are appended to.
+     */
+    public static void generateCaptures(Position position, List<LegalMove> moves) {
+        MoveList packed = new MoveList();
+        generateCaptures(position, packed);
+        addAll(position, packed, moves);
+    }
+
+    /**
+     * Appends the capture sequences of maximal value for the side to move, packed.
+     *
+     * @param position The position to generate captures for. It is not modified.
+     * @param moves List the captures are appended to.
+     */
+    public static void generateCaptures(Position position, MoveList moves) {
+        boolean white = position.isWhiteToMove();
+        long opponents = position.getPieces(!white);
+        int start = moves.size();
+        int best = 0;
+
+        for (long own = position.getPieces(white); own != 0L; own &= own - 1) {
+            int square = Long.numberOfTrailingZeros(own);
+            // The moving piece has left its starting square, so it counts as empty
+            long occupied = position.getOccupied() & ~Squares.bit(square);
+            best =
+                    collectCaptures(
+                            position,
+                            occupied,
+                            opponents,
+                            square,
+                            position.isKing(square),
+                            square,
+                            0L,
+                            0,
+                            best,
+                            moves,
+                            start);
+        }
+    }
+
+    /** Checks whether the side to move has to capture. */
+    public static boolean hasCapture(Position position) {
+        MoveList captures = new MoveList();
+        generateCaptures(position, captures);
+        return !captures.isEmpty();
+    }
+
+    private static void addAll(Position position, MoveList packed, List<LegalMove> moves) {
+        for (int i = 0; i < packed.size(); i++) {
+            moves.add(PackedMove.toLegalMove(packed.get(i), position));
+        }
+    }
+
+    /**
+     * Recursively explores the capture sequences of one piece.
+     *
+     * @return The highest capture value found so far.
+     */
+    private static int collectCaptures(
+            Position position,
+            long occupied,
+            long opponents,
+            int origin,
+            boolean king,
+            int square,
+            long captured,
+            int value,
+            int best,
+            MoveList moves,
+            int start) {
+        boolean extended = false;
+
+        for (int direction = 0; direction < Squares.DIRECTIONS; direction++) {
+            int[] ray = Squares.ray(square, direction);
+            int index = 0;
+
+            // Kings may approach the captured piece from a distance
+            if (king) {
+                while (index < ray.length && (occupied & Squares.bit(ray[index])) == 0L) {
+                    index++;
+                }
+            }
+            if (index + 1 >= ray.length) {
+                continue;
+            }
+
+            int target = ray[index];
+            long targetBit = Squares.bit(target);
+            if ((opponents & targetBit) == 0L || (captured & targetBit) != 0L) {
+                continue;
+            }
+
+            int targetValue = position.isKing(target) ? KING_VALUE : MAN_VALUE;
+            int last = king ? ray.length : index + 2;
+            for (int i = index + 1; i < last; i++) {
+                int landing = ray[i];
+                if ((occupied & Squares.bit(landing)) != 0L) {
+                    break;
+                }
+                extended = true;
+                best =
+                        collectCaptures(
+                                position,
+                                occupied,
+                                opponents,
+                                origin,
+                                king,
+                                landing,
+                                captured | targetBit,
+                                value + targetValue,
+                                best,
+                                moves,
+                                start);
+            }
+        }
+
+        if (!extended && captured != 0L) {
+            best = addCapture(PackedMove.of(origin, square, captured), value, best, moves, start);
+        }
+        return best;
+    }
+
+    /** Adds a finished capture sequence if it satisfies the majority rule. */
+    private static int addCapture(long move, int value, int best, MoveList moves, int start) {
+        if (value < best) {
+            return best;
+        }
+        if (value > best) {
+            moves.truncate(start);
+        }
+
+        // Different capture orders over the same pieces are the same move
+        for (int i = start; i < moves.size(); i++) {
+            if (moves.get(i) == move) {
+                return value;
+            }
+        }
+        moves.add(move);
+        return value;
+    }
+
+    /** Appends the non-capturing moves of the side to move. */
+    private static void generateQuietMoves(Position position, MoveList moves) {
+        boolean white = position.isWhiteToMove();
+        long occupied = position.getOccupied();
+        int[] forward = white ? Squares.WHITE_FORWARD : Squares.BLACK_FORWARD;
+
+        for (long men = white ? position.getWhiteMen() : position.getBlackMen();
+                men != 0L;
+                men &= men - 1) {
+            int square = Long.numberOfTrailingZeros(men);
+            for (int direction : forward) {
+                int target = Squares.step(square, direction);
+                if (target >= 0 && (occupied & Squares.bit(target)) == 0L) {
+                    moves.add(PackedMove.of(square, target, 0L));
+                }
+            }
+        }
+
+        boolean kingLimited =
+                position.getKingMoves(white) >= KING_MOVE_LIMIT && position.hasMen(white);
+        for (long kings = white ? position.getWhiteKings() : position.getBlackKings();
+                kings != 0L;
+                kings &= kings - 1) {
+            int square = Long.numberOfTrailingZeros(kings);
+            if (kingLimited && position.getKingSquare(white) == square) {
+                continue;
+            }
+            for (int direction = 0; direction < Squares.DIAGONAL_DIRECTIONS; direction++) {
+                for (int target : Squares.ray(square, direction)) {
+                    if ((occupied & Squares.bit(target)) != 0L) {
+                        break;
+                    }
+                    moves.add(PackedMove.of(square, target, 0L));
+                }
+            }
+        }
+    }
+}
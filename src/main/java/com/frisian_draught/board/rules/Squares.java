@@ -0,0 +1,149 @@
+package com.frisian_draught.board.rules;
+
+import com.frisian_draught.util.TileConversion;
+
+import java.util.Arrays;
+
+/**
+ * Geometry of the 50 playable squares used by the headless rules code.
+ *
+ * <p>Squares are indexed 0 to 49, which is the portable draughts notation used by {@link
+ * TileConversion} minus one, and bit {@code n} of a bitboard is square {@code n}. Directions 0 to
+ * 3 are the diagonals, 4 to 7 the orthogonals (two board columns or rows apart, since only the
+ * dark squares are playable). Neighbour and ray tables are computed once at class load.
+ */
+public final class Squares {
+
+    public static final int COUNT = 50;
+    public static final int BOARD_SIZE = 10;
+
+    public static final int DIRECTIONS = 8;
+    public static final int DIAGONAL_DIRECTIONS = 4;
+
+    /** Bitboard with all 50 playable squares set. */
+    public static final long ALL = (1L << COUNT) - 1;
+
+    // Same order as MoveManager.captureCheck
+    static final int[] DX = {1, -1, 1, -1, 0, 0, 2, -2};
+    static final int[] DY = {1, 1, -1, -1, 2, -2, 0, 0};
+
+    /** Forward diagonals of the men: white moves up the board (y decreasing), black down. */
+    static final int[] WHITE_FORWARD = {2, 3};
+
+    static final int[] BLACK_FORWARD = {0, 1};
+
+    /** Row 0 for white, row 9 for black. */
+    public static final long WHITE_PROMOTION = 0x1FL;
+
+    public static final long BLACK_PROMOTION = 0x1FL << 45;
+
+    /** The squares of the two outer columns on either side, 0, 1, 8 and 9. */
+    public static final long EDGE = edge();
+
+    private static final int[] X = new int[COUNT];
+    private static final int[] Y = new int[COUNT];
+
+    // NEIGHBOURS[square][direction]: adjacent square, or -1 at the edge
+    private static final int[][] NEIGHBOURS = new int[COUNT][DIRECTIONS];
+
+    // RAYS[square][direction]: every square from the neighbour to the edge, nearest first
+    private static final int[][][] RAYS = new int[COUNT][DIRECTIONS][];
+
+    private static final long[][] RAY_MASKS = new long[COUNT][DIRECTIONS];
+
+    static {
+        for (int square = 0; square < COUNT; square++) {
+            X[square] = TileConversion.getCol(square + 1);
+            Y[square] = TileConversion.getRow(square + 1);
+        }
+        for (int square = 0; square < COUNT; square++) {
+            for (int direction = 0; direction < DIRECTIONS; direction++) {
+                int[] ray = new int[BOARD_SIZE];
+                int length = 0;
+                long mask = 0L;
+                int x = X[square] + DX[direction];
+                int y = Y[square] + DY[direction];
+                for (int next = at(x, y); next >= 0; next = at(x, y)) {
+                    ray[length++] = next;
+                    mask |= bit(next);
+                    x += DX[direction];
+                    y += DY[direction];
+                }
+                RAYS[square][direction] = Arrays.copyOf(ray, length);
+                RAY_MASKS[square][direction] = mask;
+                NEIGHBOURS[square][direction] = length > 0 ? ray[0] : -1;
+            }
+        }
+    }
+
+    private Squares() {
+        throw new UnsupportedOperationException(
+                "This is a utility class and cannot be instantiated");
+    }
+
+    private static long edge() {
+        long mask = 0L;
+        for (int y = 0; y < BOARD_SIZE; y++) {
+            for (int x : new int[] {0, 1, BOARD_SIZE - 2, BOARD_SIZE - 1}) {
+                int square = at(x, y);
+                if (square >= 0) {
+                    mask |= bit(square);
+                }
+            }
+        }
+        return mask;
+    }
+
+    public static int getX(int square) {
+        return X[square];
+    }
+
+    public static int getY(int square) {
+        return Y[square];
+    }
+
+    /**
+     * Returns the square index of a board coordinate.
+     *
+     * @param x Column on the 10x10 board.
+     * @param y Row on the 10x10 board.
+     * @return The square index, or -1 if the coordinate is off the board or a light square.
+     */
+    public static int at(int x, int y) {
+        if (x < 0 || x >= BOARD_SIZE || y < 0 || y >= BOARD_SIZE || (x + y) % 2 == 0) {
+            return -1;
+        }
+        return y * 5 + x / 2;
+    }
+
+    /**
+     * Returns the square one step away in the given direction.
+     *
+     * @param square Starting square.
+     * @param direction Direction index, 0 to 7.
+     * @return The neighbouring square, or -1 if it is off the board.
+     */
+    public static int step(int square, int direction) {
+        return NEIGHBOURS[square][direction];
+    }
+
+    /**
+     * Returns the squares from a square to the edge of the board in the given direction.
+     *
+     * @param square Starting square, not included in the ray.
+     * @param direction Direction index, 0 to 7.
+     * @return The squares of the ray, nearest first. Must not be modified.
+     */
+    public static int[] ray(int square, int direction) {
+        return RAYS[square][direction];
+    }
+
+    /** Returns the squares of {@link #ray(int, int)} as a bitboard. */
+    public static long rayMask(int square, int direction) {
+        return RAY_MASKS[square][direction];
+    }
+
+    public static long bit(int square) {
+        return 1L << square;
+    }
+}
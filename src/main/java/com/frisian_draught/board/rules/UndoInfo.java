@@ -0,0 +1,56 @@
+package com.frisian_draught.board.rules;
+
+/**
+ * Everything {@link Position#unmake(UndoInfo)} needs to take back a move made with {@link
+ * Position#make(LegalMove, UndoInfo)}. Instances are mutable so that a search can allocate one
+ * per ply up front and reuse it for every node at that ply.
+ */
+public class UndoInfo {
+
+    long move;
+    long capturedKings;
+    boolean promoted;
+    int whiteKingSquare;
+    int whiteKingMoves;
+    int blackKingSquare;
+    int blackKingMoves;
+    long key;
+    int manBalance;
+    int kingBalance;
+    int edgeBalance;
+    int advancement;
+
+    /** Returns the move that was made, as a {@link PackedMove}. */
+    public long getMove() {
+        return move;
+    }
+
+    /** Returns the bit mask of the captured pieces that were kings. */
+    public long getCapturedKings() {
+        return capturedKings;
+    }
+
+    /** Returns the bit mask of the captured pieces that were men. */
+    public long getCapturedMen() {
+        return PackedMove.getCaptured(move) & ~capturedKings;
+    }
+
+    /** Checks whether the moving man was promoted to king. */
+    public boolean isPromoted() {
+        return promoted;
+    }
+
+    /**
+     * Allocates a stack of undo records, one per ply.
+     *
+     * @param size Number of plies.
+     * @return An array filled with fresh records.
+     */
+    public static UndoInfo[] stack(int size) {
+        UndoInfo[] stack = new UndoInfo[size];
+        for (int i = 0; i < size; i++) {
+            stack[i] = new UndoInfo();
+        }
+        return stack;
+    }
+}
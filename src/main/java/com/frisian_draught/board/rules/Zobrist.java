@@ -0,0 +1,69 @@
+package com.frisian_draught.board.rules;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random 64-bit keys for Zobrist hashing of a {@link Position}: one per piece type and square,
+ * plus one for black to move. The key of a position is the XOR of the keys of its pieces, so a
+ * move updates it with a few XORs (see {@link Position#getKey()}).
+ *
+ * <p>The keys come from a fixed seed, so they are the same in every run and can be stored in
+ * files such as an opening book.
+ */
+public final class Zobrist {
+
+    private static final long SEED = 0x5EED_F41E_5DA1_1L;
+
+    // PIECES[piece - 1][square], piece being one of the Position piece constants
+    private static final long[][] PIECES = new long[4][Squares.COUNT];
+
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (long[] keys : PIECES) {
+            for (int square = 0; square < Squares.COUNT; square++) {
+                keys[square] = random.nextLong();
+            }
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+        throw new UnsupportedOperationException(
+                "This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Returns the key of a piece on a square.
+     *
+     * @param piece One of {@link Position#WHITE_MAN}, {@link Position#WHITE_KING}, {@link
+     *     Position#BLACK_MAN} or {@link Position#BLACK_KING}.
+     * @param square Square index, 0 to 49.
+     * @return The key to XOR in or out.
+     */
+    public static long piece(byte piece, int square) {
+        return PIECES[piece - 1][square];
+    }
+
+    /** Returns the key XORed in when black is to move. */
+    public static long blackToMove() {
+        return BLACK_TO_MOVE;
+    }
+
+    /**
+     * Returns the combined key of all pieces of one type on a bitboard.
+     *
+     * @param piece One of the piece constants of {@link Position}.
+     * @param squares Bitboard of the squares.
+     * @return The XOR of the keys of every square in the bitboard.
+     */
+    public static long pieces(byte piece, long squares) {
+        long key = 0L;
+        long[] keys = PIECES[piece - 1];
+        for (long mask = squares; mask != 0L; mask &= mask - 1) {
+            key ^= keys[Long.numberOfTrailingZeros(mask)];
+        }
+        return key;
+    }
+}
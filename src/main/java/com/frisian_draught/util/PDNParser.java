@@ -8,13 +8,20 @@ import org.joml.Vector2i;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class PDNParser {
 
+    // Game termination markers: draughts scores, chess style scores and an unfinished game
+    private static final Set<String> RESULTS =
+            Set.of("2-0", "0-2", "1-1", "1-0", "0-1", "1/2-1/2", "0-0", "*");
+
     private String event;
     private String site;
     private String date;
@@ -28,9 +35,22 @@ public class PDNParser {
     private List<Move> moves;
 
     private List<Pawn> pawns;
+    private String boardPosition;
 
     private String filePath;
 
+    /** Receives the games of a PDN collection, one call per game. */
+    @FunctionalInterface
+    public interface GameConsumer {
+        void accept(Map<String, String> tags, List<Move> moves);
+    }
+
+    /** Receives the pieces of a {@code BoardPosition} tag, one call per piece. */
+    @FunctionalInterface
+    public interface PieceConsumer {
+        void accept(int square, boolean isWhite, boolean isKing);
+    }
+
     public PDNParser(String filePath) {
         // Initialize fields
         moves = new ArrayList<>();
@@ -67,13 +87,51 @@ public class PDNParser {
         this.isBot = pdnData.getOrDefault("isBot", "");
         this.isMultiplayer = pdnData.getOrDefault("isMultiplayer", "");
 
-        // Load pawns from BoardPosition if it exists
+        // Pawns for a BoardPosition are created in getPawns(), so headless tools can read the tag
         if (pdnData.containsKey("BoardPosition")) {
-            parseBoardPosition(pdnData.get("BoardPosition"));
+            this.boardPosition = pdnData.get("BoardPosition");
+            parseBoardPosition(boardPosition, (square, isWhite, isKing) -> {}); // Validate early
             moves.clear(); // Ensure moves are empty if BoardPosition is used
         }
     }
 
+    /**
+     * Reads a file of any number of games one game at a time, so that large collections need not
+     * fit in memory. A game ends where the tags of the next one start, even if it has no moves.
+     *
+     * @param file the PDN file
+     * @param consumer receives the tags and moves of each game, in file order
+     * @throws IOException if the file cannot be read
+     */
+    public static void streamGames(Path file, GameConsumer consumer) throws IOException {
+        PDNParser game = new PDNParser(file.toString());
+        Map<String, String> tags = new HashMap<>();
+        // Whether the last line was a tag; a tag after any other line starts the next game
+        boolean inTags = false;
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("[")) {
+                    if (!inTags && (!tags.isEmpty() || !game.moves.isEmpty())) {
+                        consumer.accept(tags, game.moves);
+                        tags = new HashMap<>();
+                        game.moves = new ArrayList<>();
+                    }
+                    inTags = true;
+                    game.parseMetadata(line, tags);
+                } else {
+                    inTags = false;
+                    if (!line.trim().isEmpty()) {
+                        game.parseMoves(line);
+                    }
+                }
+            }
+        }
+        if (!game.moves.isEmpty() || !tags.isEmpty()) {
+            consumer.accept(tags, game.moves);
+        }
+    }
+
     private void parseMetadata(String line, Map<String, String> pdnData) {
         int keyStart = line.indexOf('[') + 1;
         int keyEnd = line.indexOf(' ');
@@ -89,7 +147,7 @@ public class PDNParser {
         String[] turnMoves = line.split("\\s+");
         for (String turn : turnMoves) {
 
-            if ("1-0".equals(turn) || "0-1".equals(turn) || "1/2-1/2".equals(turn)) {
+            if (RESULTS.contains(turn)) {
                 continue;
             }
 
@@ -108,7 +166,10 @@ public class PDNParser {
                     startPosition = TileConversion.getTileVector(Integer.parseInt(positions[0]));
                 }
                 if (positions.length > 1) {
-                    endPosition = TileConversion.getTileVector(Integer.parseInt(positions[1]));
+                    // Multi-capture moves may list every square landed on; the last is the end
+                    endPosition =
+                            TileConversion.getTileVector(
+                                    Integer.parseInt(positions[positions.length - 1]));
                 }
 
                 List<Vector2i> capturedPositions = new ArrayList<>();
@@ -126,7 +187,14 @@ public class PDNParser {
         }
     }
 
-    private void parseBoardPosition(String boardPosition) {
+    /**
+     * Parses a FEN-like {@code BoardPosition} tag such as {@code "W:31,32,33k:B:12,14"}, where a
+     * trailing {@code k} marks a king.
+     *
+     * @param boardPosition The tag value.
+     * @param consumer Receives the PDN square number (1 to 50), colour and king flag of each piece.
+     */
+    public static void parseBoardPosition(String boardPosition, PieceConsumer consumer) {
         // Ensure the BoardPosition string contains both "W:" and "B:"
         if (!boardPosition.contains("W:") || !boardPosition.contains("B:")) {
             throw new IllegalArgumentException("Invalid BoardPosition format: Missing W: or B:");
@@ -138,24 +206,20 @@ public class PDNParser {
                         boardPosition.indexOf("W:") + 2, boardPosition.indexOf(":B:"));
         String blackPositions = boardPosition.substring(boardPosition.indexOf("B:") + 2);
 
-        // Parse white pawns
-        for (String position : whitePositions.split(",")) {
-            boolean isKing = position.endsWith("k"); // Check if the position ends with 'k'
-            int numericPosition =
-                    Integer.parseInt(
-                            isKing ? position.substring(0, position.length() - 1) : position);
-            Vector2i pos = TileConversion.getTileVector(numericPosition);
-            pawns.add(new Pawn(pos, true, isKing)); // Pass the king status
-        }
+        parsePieces(whitePositions, true, consumer);
+        parsePieces(blackPositions, false, consumer);
+    }
 
-        // Parse black pawns
-        for (String position : blackPositions.split(",")) {
+    private static void parsePieces(String positions, boolean isWhite, PieceConsumer consumer) {
+        for (String position : positions.split(",")) {
+            if (position.isBlank()) {
+                continue; // A side without pieces
+            }
             boolean isKing = position.endsWith("k"); // Check if the position ends with 'k'
             int numericPosition =
                     Integer.parseInt(
                             isKing ? position.substring(0, position.length() - 1) : position);
-            Vector2i pos = TileConversion.getTileVector(numericPosition);
-            pawns.add(new Pawn(pos, false, isKing)); // Pass the king status
+            consumer.accept(numericPosition, isWhite, isKing);
         }
     }
 
@@ -192,9 +256,23 @@ public class PDNParser {
     }
 
     public List<Pawn> getPawns() {
+        if (boardPosition != null && pawns.isEmpty()) {
+            parseBoardPosition(
+                    boardPosition,
+                    (square, isWhite, isKing) ->
+                            pawns.add(
+                                    new Pawn(
+                                            TileConversion.getTileVector(square),
+                                            isWhite,
+                                            isKing))); // Pass the king status
+        }
         return pawns;
     }
 
+    public String getBoardPosition() {
+        return boardPosition;
+    }
+
     public String getIsBot() {
         return isBot;
     }
@@ -18,6 +18,7 @@ module com.frisian_draught {
 
     exports com.frisian_draught;
     exports com.frisian_draught.board;
+    exports com.frisian_draught.board.rules;
     exports com.frisian_draught.board.Bot;
     exports com.frisian_draught.AI;
     exports com.frisian_draught.util;
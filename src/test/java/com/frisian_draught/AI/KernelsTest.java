@@ -0,0 +1,103 @@
+package com.frisian_draught.AI;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Test class for the Vector API kernels, compared with the scalar ones. The lengths include tails
+ * that are not a multiple of any vector width, and the vectors start at an offset.
+ */
+public class KernelsTest {
+
+    private static final int[] LENGTHS = {1, 7, 15, 16, 17, 33, 64, 101};
+    private static final int X_FROM = 3;
+    private static final int Y_FROM = 5;
+
+    private static Kernels vectorKernels() {
+        Kernels kernels = Kernels.select();
+        assumeTrue(
+                kernels != ScalarKernels.INSTANCE,
+                "Needs the vector profile and --add-modules jdk.incubator.vector.");
+        return kernels;
+    }
+
+    private static float[] randomVector(Random random, int size, float scale) {
+        float[] v = new float[size];
+        for (int i = 0; i < size; i++) {
+            v[i] = (random.nextFloat() * 2 - 1) * scale;
+        }
+        return v;
+    }
+
+    @Test
+    public void testAxpyMatchesScalar() {
+        // Arrange
+        Kernels vector = vectorKernels();
+        Random random = new Random(11);
+
+        for (int length : LENGTHS) {
+            float[] x = randomVector(random, X_FROM + length + 4, 1f);
+            float[] expected = randomVector(random, Y_FROM + length + 4, 1f);
+            float[] actual = expected.clone();
+
+            // Act
+            ScalarKernels.INSTANCE.axpy(0.75f, x, X_FROM, expected, Y_FROM, length);
+            vector.axpy(0.75f, x, X_FROM, actual, Y_FROM, length);
+
+            // Assert
+            assertArrayEquals(
+                    expected,
+                    actual,
+                    1e-6f,
+                    "axpy should match the scalar loop at length " + length);
+        }
+    }
+
+    @Test
+    public void testDotMatchesScalar() {
+        // Arrange
+        Kernels vector = vectorKernels();
+        Random random = new Random(13);
+
+        for (int length : LENGTHS) {
+            float[] a = randomVector(random, X_FROM + length + 4, 1f);
+            float[] b = randomVector(random, Y_FROM + length + 4, 1f);
+
+            // Act
+            float expected = ScalarKernels.INSTANCE.dot(a, X_FROM, b, Y_FROM, length);
+            float actual = vector.dot(a, X_FROM, b, Y_FROM, length);
+
+            // Assert
+            assertEquals(
+                    expected, actual, 1e-5f, "dot should match the scalar sum at length " + length);
+        }
+    }
+
+    @Test
+    public void testSigmoidMatchesScalar() {
+        // Arrange
+        Kernels vector = vectorKernels();
+        Random random = new Random(17);
+
+        for (int length : LENGTHS) {
+            float[] expected = randomVector(random, length + 4, 10f);
+            float[] actual = Arrays.copyOf(expected, expected.length);
+
+            // Act
+            ScalarKernels.INSTANCE.sigmoid(expected, length);
+            vector.sigmoid(actual, length);
+
+            // Assert
+            assertArrayEquals(
+                    expected,
+                    actual,
+                    1e-6f,
+                    "sigmoid should match the scalar loop at length " + length);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.frisian_draught.AI;
+
+import java.util.Random;
+
+/**
+ * Times {@link NeuralNetwork#predict} and {@link NeuralNetwork#train} on the scalar and on the
+ * vector {@link Kernels}, on a network of the shape the game's DQN bot uses.
+ *
+ * <p>Command line usage, after {@code mvn -Pvector test-compile}:
+ *
+ * <pre>
+ * java --add-modules jdk.incubator.vector -cp target/classes:target/test-classes:... \
+ *     com.frisian_draught.AI.NeuralNetworkBenchmark [seconds per run]
+ * </pre>
+ *
+ * Without the profile or the module only the scalar kernels are timed.
+ */
+public final class NeuralNetworkBenchmark {
+
+    private static final int INPUT_SIZE = 101;
+    private static final int HIDDEN_SIZE = 100;
+    private static final int OUTPUT_SIZE = 100;
+    private static final int BATCH = 1_000;
+
+    private NeuralNetworkBenchmark() {
+        throw new UnsupportedOperationException(
+                "This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Measures the average time of a forward pass and of a training step.
+     *
+     * @param kernels the kernels to run the network on
+     * @param seconds the time to spend on each of the two measurements
+     * @return the nanoseconds per prediction and per training step
+     */
+    static double[] measure(Kernels kernels, double seconds) {
+        Random random = new Random(1);
+        NeuralNetwork network =
+                new NeuralNetwork(INPUT_SIZE, HIDDEN_SIZE, OUTPUT_SIZE, 0.001, kernels);
+        double[][] inputs = new double[64][INPUT_SIZE];
+        for (double[] input : inputs) {
+            for (int i = 0; i < INPUT_SIZE; i++) {
+                // Board-like inputs: empty, own and opposing pieces
+                input[i] = random.nextInt(3) - 1;
+            }
+        }
+        double[] target = new double[OUTPUT_SIZE];
+        double[] output = new double[OUTPUT_SIZE];
+
+        // Warm up both paths, so they are compiled before they are timed
+        long budget = (long) (seconds * 1e9);
+        time(network, inputs, target, output, false, budget / 2);
+        time(network, inputs, target, output, true, budget / 2);
+        return new double[] {
+            time(network, inputs, target, output, false, budget),
+            time(network, inputs, target, output, true, budget)
+        };
+    }
+
+    private static double time(
+            NeuralNetwork network,
+            double[][] inputs,
+            double[] target,
+            double[] output,
+            boolean train,
+            long budget) {
+        long calls = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < BATCH; i++) {
+                double[] input = inputs[i % inputs.length];
+                if (train) {
+                    network.train(input, target);
+                } else {
+                    network.predict(input, output);
+                }
+            }
+            calls += BATCH;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < budget);
+        return (double) elapsed / calls;
+    }
+
+    public static void main(String[] args) {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 2.0;
+        System.out.printf(
+                "network %d-%d-%d, %.1f s per run%n",
+                INPUT_SIZE, HIDDEN_SIZE, OUTPUT_SIZE, seconds);
+
+        double[] scalar = measure(ScalarKernels.INSTANCE, seconds);
+        report(ScalarKernels.INSTANCE, scalar, scalar);
+        Kernels selected = NeuralNetwork.DEFAULT_KERNELS;
+        if (selected != ScalarKernels.INSTANCE) {
+            report(selected, measure(selected, seconds), scalar);
+        } else {
+            System.out.println("vector kernels unavailable, run with "
+                    + "--add-modules jdk.incubator.vector");
+        }
+    }
+
+    private static void report(Kernels kernels, double[] nanos, double[] scalar) {
+        System.out.printf(
+                "%-40s predict %8.0f ns (%.2fx)   train %8.0f ns (%.2fx)%n",
+                kernels.getName(),
+                nanos[0],
+                scalar[0] / nanos[0],
+                nanos[1],
+                scalar[1] / nanos[1]);
+    }
+}
@@ -0,0 +1,53 @@
+package com.frisian_draught;
+
+import org.junit.jupiter.api.Test;
+import com.frisian_draught.AI.MiniMax.EvaluationCache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the EvaluationCache.
+ */
+public class EvaluationCacheTest {
+
+    @Test
+    public void testPutGetAndCounters() {
+        // Arrange
+        EvaluationCache cache = new EvaluationCache(1);
+        long key = 0x0123_4567_89AB_CDEFL;
+
+        // Act
+        double missed = cache.get(key);
+        cache.put(key, 0.0);
+        double found = cache.get(key);
+
+        // Assert
+        assertTrue(Double.isNaN(missed), "An unknown position should miss.");
+        assertEquals(0.0, found, "A stored evaluation should be returned, zero included.");
+        assertEquals(1, cache.getHits(), "One lookup should hit.");
+        assertEquals(1, cache.getMisses(), "One lookup should miss.");
+        assertEquals(0.5, cache.getHitRate(), "Half of the lookups should hit.");
+    }
+
+    @Test
+    public void testClockKeepsReferencedEntries() {
+        // Arrange: five keys in the same bucket of four entries
+        EvaluationCache cache = new EvaluationCache(1);
+        long[] keys = new long[5];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = ((long) (i + 1) << 32) | 7;
+        }
+        for (int i = 0; i < 4; i++) {
+            cache.put(keys[i], i);
+        }
+
+        // Act: the first entry is read, then the fifth key needs a slot
+        cache.get(keys[0]);
+        cache.put(keys[4], 4);
+
+        // Assert
+        assertEquals(0.0, cache.get(keys[0]), "The recently read entry should get a second chance.");
+        assertTrue(Double.isNaN(cache.get(keys[1])), "The next unreferenced entry should be evicted.");
+        assertEquals(4.0, cache.get(keys[4]), "The new entry should be stored.");
+    }
+}
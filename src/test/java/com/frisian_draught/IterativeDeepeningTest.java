@@ -0,0 +1,100 @@
+package com.frisian_draught;
+
+import org.junit.jupiter.api.Test;
+import com.frisian_draught.AI.MiniMax.MiniMaxTree;
+import com.frisian_draught.AI.MiniMax.TimeManager;
+import com.frisian_draught.board.rules.LegalMove;
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.RulesEngine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the time-limited iterative deepening search of MiniMaxTree.
+ */
+public class IterativeDeepeningTest {
+
+    @Test
+    public void testFirstIterationCompletesWithoutTime() {
+        // Arrange
+        Position position = Position.initial();
+        MiniMaxTree tree = new MiniMaxTree(null);
+
+        // Act
+        LegalMove move = tree.getBestMove(position, true, 0);
+
+        // Assert
+        assertNotNull(move, "A move should be returned.");
+        assertTrue(
+                RulesEngine.generateMoves(position).stream()
+                        .anyMatch(legal -> legal.getFrom() == move.getFrom() && legal.getTo() == move.getTo()),
+                "The move should be legal.");
+        assertEquals(1, tree.getCompletedDepth(), "Only the first iteration should complete.");
+        assertEquals(Position.initial(), position, "The root position should be left unchanged.");
+    }
+
+    @Test
+    public void testFirstIterationCompletesWhenInterrupted() {
+        // Arrange: a cancelled bot move or a stopped ponder interrupts the searching thread
+        Position position = Position.initial();
+        MiniMaxTree tree = new MiniMaxTree(null);
+        Thread.currentThread().interrupt();
+
+        // Act
+        LegalMove move;
+        try {
+            move = tree.getBestMove(position, true, Long.MAX_VALUE);
+        } finally {
+            Thread.interrupted();
+        }
+
+        // Assert
+        assertNotNull(move, "An interrupted search should still return a move.");
+        assertTrue(tree.getCompletedDepth() >= 1, "The first iteration should complete.");
+    }
+
+    @Test
+    public void testSearchStopsWithinBudget() {
+        // Arrange
+        Position position = Position.initial();
+        MiniMaxTree tree = new MiniMaxTree(null);
+        long budgetMillis = 200;
+
+        // Act
+        long start = System.nanoTime();
+        LegalMove move = tree.getBestMove(position, true, budgetMillis);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert
+        assertNotNull(move, "A move should be returned.");
+        assertTrue(tree.getCompletedDepth() >= 2, "Several iterations should fit in the budget.");
+        assertTrue(elapsedMillis < budgetMillis * 2, "The search should abort near its deadline.");
+        assertEquals(Position.initial(), position, "An aborted search should restore the position.");
+    }
+
+    @Test
+    public void testParallelSearch() {
+        // Arrange
+        Position position = Position.initial();
+        MiniMaxTree tree = new MiniMaxTree(null);
+        tree.setThreadCount(4);
+
+        // Act
+        LegalMove move = tree.getBestMove(position, 6, true);
+
+        // Assert
+        assertNotNull(move, "A move should be returned.");
+        assertTrue(tree.getNodes() > 0, "Nodes of all threads should be counted.");
+        assertEquals(Position.initial(), position, "The root position should be left unchanged.");
+        assertThrows(IllegalArgumentException.class, () -> tree.setThreadCount(0), "At least one thread is needed.");
+    }
+
+    @Test
+    public void testBudgetFollowsClock() {
+        // Assert
+        assertEquals(TimeManager.DEFAULT_BUDGET_MILLIS, TimeManager.budgetMillis(-1), "No clock should use the default.");
+        assertEquals(20_000, TimeManager.budgetMillis(600), "Ten minutes should be spread over 30 moves.");
+        assertEquals(TimeManager.MIN_BUDGET_MILLIS, TimeManager.budgetMillis(1), "Short clocks should get the minimum.");
+        assertEquals(0, TimeManager.budgetMillis(0), "No time left should leave no budget.");
+    }
+}
@@ -0,0 +1,209 @@
+package com.frisian_draught;
+
+import org.junit.jupiter.api.Test;
+import com.frisian_draught.AI.MiniMax.Evaluator;
+import com.frisian_draught.AI.MiniMax.MMResult;
+import com.frisian_draught.AI.MiniMax.MiniMaxTree;
+import com.frisian_draught.AI.MiniMax.SearchStats;
+import com.frisian_draught.board.rules.LegalMove;
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.RulesEngine;
+import com.frisian_draught.board.rules.Squares;
+import com.frisian_draught.board.rules.UndoInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the MiniMaxTree search.
+ */
+public class MiniMaxTreeTest {
+
+    @Test
+    public void testQuiescenceSeesCaptureBeyondHorizon() {
+        // Arrange: the white man can step next to the black man, which then captures it
+        Position position = new Position(true);
+        position.setPiece(Squares.at(3, 6), Position.WHITE_MAN);
+        position.setPiece(Squares.at(5, 4), Position.BLACK_MAN);
+        MiniMaxTree tree = new MiniMaxTree(null);
+
+        // Act
+        LegalMove move = tree.getBestMove(position, 1, true);
+
+        // Assert
+        assertEquals(Squares.at(2, 5), move.getTo(), "A one-ply search should still avoid the capture.");
+    }
+
+    @Test
+    public void testEvaluatorCountsMaterialAndAdvancement() {
+        // Arrange
+        Position opening = Position.initial();
+        Position extraKing = Position.initial();
+        extraKing.setPiece(Squares.at(4, 5), Position.WHITE_KING);
+        Position advanced = new Position(true);
+        advanced.setPiece(Squares.at(4, 3), Position.WHITE_MAN);
+        advanced.setPiece(Squares.at(5, 0), Position.BLACK_MAN);
+
+        // Act
+        double openingScore = Evaluator.evaluate(opening);
+        double extraKingScore = Evaluator.evaluate(extraKing);
+        double advancedScore = Evaluator.evaluate(advanced);
+
+        // Assert
+        assertEquals(0.0, openingScore, 1e-9, "The opening position should be level.");
+        assertTrue(extraKingScore >= Evaluator.KING_WEIGHT - 0.5, "An extra king should be worth about a king.");
+        assertTrue(advancedScore > 0, "The further advanced man should be ahead.");
+    }
+
+    @Test
+    public void testPrincipalVariationIsPlayable() {
+        // Arrange
+        Position position = Position.initial();
+        MiniMaxTree tree = new MiniMaxTree(null);
+
+        // Act
+        LegalMove move = tree.getBestMove(position, 5, true);
+        MMResult result = tree.getLastResult();
+
+        // Assert
+        assertSame(move, result.getMoves().get(0), "The variation should start with the best move.");
+        assertTrue(result.getMoves().size() >= 5, "The variation should reach the search depth.");
+        UndoInfo undo = new UndoInfo();
+        for (LegalMove pvMove : result.getMoves()) {
+            boolean legal =
+                    RulesEngine.generateMoves(position).stream()
+                            .anyMatch(legalMove -> legalMove.getFrom() == pvMove.getFrom() && legalMove.getTo() == pvMove.getTo());
+            assertTrue(legal, pvMove + " should be legal in the variation.");
+            position.make(pvMove, undo);
+        }
+    }
+
+    @Test
+    public void testTimedSearchMatchesFixedDepth() {
+        // Arrange: aspiration windows must not change the score of a completed iteration
+        Position position = Position.initial();
+        MiniMaxTree timed = new MiniMaxTree(null);
+        MiniMaxTree fixed = new MiniMaxTree(null);
+
+        // Act
+        timed.getBestMove(position, true, 300);
+        int depth = timed.getCompletedDepth();
+        fixed.getBestMove(position, depth, true);
+
+        // Assert
+        assertEquals(fixed.getLastResult().getScore(), timed.getLastResult().getScore(), 1e-4, "Scores at depth " + depth + " should agree.");
+    }
+
+    @Test
+    public void testInterruptCancelsTimedSearch() {
+        // Arrange: an interrupted thread is how a bot's move is cancelled
+        Position position = Position.initial();
+        MiniMaxTree tree = new MiniMaxTree(null);
+        tree.setThreadCount(2);
+
+        // Act
+        long start = System.nanoTime();
+        boolean stillInterrupted;
+        try {
+            Thread.currentThread().interrupt();
+            tree.getBestMove(position, true, 60_000);
+        } finally {
+            stillInterrupted = Thread.interrupted();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert
+        assertTrue(elapsedMillis < 10_000, "The search should stop well before its budget, took " + elapsedMillis + " ms.");
+        assertTrue(stillInterrupted, "The interrupt should be kept for the caller.");
+    }
+
+    @Test
+    public void testAnalysisReportsBestLinesPerIteration() {
+        // Arrange
+        Position position = Position.initial();
+        MiniMaxTree tree = new MiniMaxTree(null);
+        List<Integer> depths = new ArrayList<>();
+        List<List<MMResult>> iterations = new ArrayList<>();
+
+        // Act
+        List<MMResult> lines =
+                tree.analyze(position, true, 3, 4, 60_000, (depth, found) -> {
+                    depths.add(depth);
+                    iterations.add(found);
+                });
+
+        // Assert
+        assertEquals(List.of(1, 2, 3, 4), depths, "Every iteration should be reported in order.");
+        assertEquals(iterations.get(3), lines, "The result should be the last iteration's lines.");
+        for (List<MMResult> found : iterations) {
+            assertEquals(3, found.size(), "Each iteration should have three lines.");
+            for (int i = 1; i < found.size(); i++) {
+                assertTrue(found.get(i - 1).getScore() >= found.get(i).getScore(), "Lines should be best first.");
+                LegalMove first = found.get(i).getMoves().get(0);
+                for (int j = 0; j < i; j++) {
+                    LegalMove other = found.get(j).getMoves().get(0);
+                    assertFalse(first.getFrom() == other.getFrom() && first.getTo() == other.getTo(), "Lines should start with different moves.");
+                }
+            }
+        }
+        MiniMaxTree fixed = new MiniMaxTree(null);
+        fixed.getBestMove(position, 4, true);
+        assertEquals(fixed.getLastResult().getScore(), lines.get(0).getScore(), 1e-4, "The best line should score as the plain search.");
+    }
+
+    @Test
+    public void testAnalysisLineScoresMatchTheirMoves() {
+        // Arrange
+        Position position = Position.initial();
+        MiniMaxTree tree = new MiniMaxTree(null);
+
+        // Act
+        List<MMResult> lines = tree.analyze(position, true, 2, 3, 60_000, null);
+
+        // Assert: the second line scores as its move plus the search of the reply a ply shallower
+        LegalMove second = lines.get(1).getMoves().get(0);
+        UndoInfo undo = new UndoInfo();
+        position.make(second, undo);
+        MiniMaxTree reply = new MiniMaxTree(null);
+        double moveScore = reply.evaluate(position, undo);
+        reply.getBestMove(position, 2, false);
+        assertEquals(moveScore + reply.getLastResult().getScore(), lines.get(1).getScore(), 1e-4, "The second line should have the exact score of its move.");
+    }
+
+    @Test
+    public void testSearchStatsCountTheSearch() {
+        // Arrange
+        MiniMaxTree tree = new MiniMaxTree(null);
+
+        // Act
+        tree.getBestMove(Position.initial(), 5, true);
+        SearchStats stats = tree.getStats();
+
+        // Assert
+        assertEquals(tree.getNodes(), stats.getNodes(), "The stats should count the same nodes.");
+        assertTrue(stats.getQuiescenceNodes() > 0 && stats.getQuiescenceNodes() < stats.getNodes(), "Quiescence nodes are part of the nodes.");
+        assertTrue(stats.getFirstMoveCutoffs() > 0 && stats.getFirstMoveCutoffs() <= stats.getBetaCutoffs(), "First-move cutoffs are part of the cutoffs.");
+        assertTrue(stats.getTtHits() <= stats.getTtProbes() && stats.getTtProbes() < stats.getNodes(), "Only main search nodes probe the table.");
+        assertTrue(stats.getSelectiveDepth() >= 5, "The search should reach its depth at least.");
+        assertEquals(0, stats.getEvalCacheProbes(), "A plain tree has no evaluation cache.");
+        assertTrue(stats.getElapsedNanos() > 0 && stats.getNodesPerSecond() > 0, "The search should be timed.");
+    }
+
+    @Test
+    public void testSearchStatsAreResetPerSearch() {
+        // Arrange
+        MiniMaxTree tree = new MiniMaxTree(null);
+        tree.getBestMove(Position.initial(), 5, true);
+        long firstNodes = tree.getStats().getNodes();
+
+        // Act: the same position again, now mostly answered by the table
+        tree.getBestMove(Position.initial(), 5, true);
+
+        // Assert
+        SearchStats stats = tree.getStats();
+        assertTrue(stats.getNodes() < firstNodes, "The second search should count only its own nodes.");
+        assertTrue(stats.getTtHitRate() > 0, "The second search should hit the table.");
+    }
+}
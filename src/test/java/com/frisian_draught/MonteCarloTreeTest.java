@@ -0,0 +1,128 @@
+package com.frisian_draught;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.frisian_draught.AI.MCTS.MonteCarloTree;
+import com.frisian_draught.AI.MCTS.PlayoutEvaluator;
+import com.frisian_draught.board.rules.LegalMove;
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.RulesEngine;
+import com.frisian_draught.board.rules.Squares;
+import com.frisian_draught.board.rules.UndoInfo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class MonteCarloTreeTest {
+
+    @Test
+    public void testSearchRunsThePlayoutBudget() {
+        // Arrange
+        Position position = Position.initial();
+        long key = position.getKey();
+        MonteCarloTree tree = new MonteCarloTree(new PlayoutEvaluator(), 1 << 14);
+
+        // Act
+        LegalMove move = tree.search(position, 500, 10_000);
+
+        // Assert
+        assertNotNull(move, "The initial position has moves");
+        assertTrue(RulesEngine.generateMoves(position).stream()
+                .anyMatch(legal -> legal.getFrom() == move.getFrom() && legal.getTo() == move.getTo()),
+                "The chosen move should be legal");
+        assertEquals(500, tree.getPlayouts(), "The whole playout budget should be used");
+        assertEquals(500, tree.getRootMoves().stream().mapToInt(MonteCarloTree.MoveVisits::visits).sum(),
+                "Every playout should go through one root move");
+        assertEquals(key, position.getKey(), "The search should leave the position unchanged");
+    }
+
+    @Test
+    public void testParallelSearchKeepsVisitCountsConsistent() {
+        // Arrange
+        MonteCarloTree tree = new MonteCarloTree(new PlayoutEvaluator(), 1 << 14);
+        tree.setThreadCount(4);
+
+        // Act
+        tree.search(Position.initial(), 2000, 10_000);
+
+        // Assert
+        assertEquals(tree.getPlayouts(), tree.getRootVisits(), "Root visits should match the playouts run");
+        assertEquals(tree.getRootVisits(), tree.getRootMoves().stream().mapToInt(MonteCarloTree.MoveVisits::visits).sum(),
+                "Virtual losses should all be reverted and every visit backed up once");
+    }
+
+    @Test
+    public void testTreeIsReusedAfterMoves() {
+        // Arrange
+        Position position = Position.initial();
+        MonteCarloTree tree = new MonteCarloTree(new PlayoutEvaluator(), 1 << 17);
+        position.make(tree.search(position, 2000, 10_000), new UndoInfo());
+
+        // Act
+        tree.search(position, 100, 10_000);
+
+        // Assert
+        assertTrue(tree.getRootVisits() > 100, "The subtree of the chosen move should be kept");
+        assertEquals(100, tree.getPlayouts(), "The playout count should not include reused visits");
+    }
+
+    @Test
+    public void testPlaysCompulsoryCapture() {
+        // Arrange: black to move must take the white man
+        Position position = new Position(false);
+        position.setPiece(Squares.at(3, 4), Position.BLACK_MAN);
+        position.setPiece(Squares.at(4, 5), Position.WHITE_MAN);
+        MonteCarloTree tree = new MonteCarloTree(new PlayoutEvaluator(), 1 << 14);
+
+        // Act
+        LegalMove move = tree.search(position, 200, 10_000);
+        List<MonteCarloTree.MoveVisits> rootMoves = tree.getRootMoves();
+
+        // Assert
+        assertTrue(move.isCapture(), "The capture should be played");
+        assertEquals(1, rootMoves.size(), "The capture is the only legal move");
+    }
+
+    @Test
+    public void testNoMovesReturnsNull() {
+        // Arrange
+        Position position = new Position(true);
+        position.setPiece(Squares.at(3, 4), Position.BLACK_MAN);
+        MonteCarloTree tree = new MonteCarloTree(new PlayoutEvaluator(), 1 << 14);
+
+        // Act
+        LegalMove move = tree.search(position, 100, 10_000);
+
+        // Assert
+        assertNull(move, "A side without pieces has no move");
+        assertEquals(0, tree.getPlayouts(), "No playouts should be run from a lost position");
+    }
+
+    @Test
+    public void testInterruptCancelsSearch() {
+        // Arrange: an interrupted thread is how a bot's move is cancelled
+        Position position = Position.initial();
+        MonteCarloTree tree = new MonteCarloTree(new PlayoutEvaluator(), 1 << 14);
+        tree.setThreadCount(2);
+
+        // Act
+        LegalMove move;
+        boolean stillInterrupted;
+        try {
+            Thread.currentThread().interrupt();
+            move = tree.search(position, 1_000_000, 60_000);
+        } finally {
+            stillInterrupted = Thread.interrupted();
+        }
+
+        // Assert
+        assertNotNull(move, "A cancelled search still names a root move");
+        assertTrue(tree.getPlayouts() < 1_000_000, "The workers should stop with the search");
+        assertTrue(stillInterrupted, "The interrupt should be kept for the caller");
+
+        // A later search runs normally on the same tree
+        tree.search(position, 100, 10_000);
+        assertEquals(100, tree.getPlayouts(), "The next search should use its whole budget");
+    }
+}
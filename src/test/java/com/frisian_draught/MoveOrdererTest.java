@@ -0,0 +1,109 @@
+package com.frisian_draught;
+
+import org.junit.jupiter.api.Test;
+import com.frisian_draught.AI.MiniMax.MoveOrderer;
+import com.frisian_draught.AI.MiniMax.TranspositionTable;
+import com.frisian_draught.board.rules.MoveList;
+import com.frisian_draught.board.rules.PackedMove;
+import com.frisian_draught.board.rules.Position;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the MoveOrderer. Squares are indexed 0 to 49, i.e. PDN notation minus one.
+ */
+public class MoveOrdererTest {
+
+    private static final int NONE = TranspositionTable.NO_SQUARE;
+
+    private final Position position = Position.initial();
+
+    private static MoveList listOf(long... moves) {
+        MoveList list = new MoveList();
+        for (long move : moves) {
+            list.add(move);
+        }
+        return list;
+    }
+
+    private static long[] toArray(MoveList list) {
+        long[] moves = new long[list.size()];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = list.get(i);
+        }
+        return moves;
+    }
+
+    @Test
+    public void testTranspositionMoveComesFirst() {
+        // Arrange
+        MoveOrderer orderer = new MoveOrderer(8);
+        long first = PackedMove.of(30, 25, 0L);
+        long second = PackedMove.of(31, 26, 0L);
+        long ttMove = PackedMove.of(32, 27, 0L);
+        MoveList moves = listOf(first, second, ttMove);
+
+        // Act
+        orderer.order(moves, position, 0, 32, 27, null);
+
+        // Assert
+        assertArrayEquals(new long[] {ttMove, first, second}, toArray(moves), "The table move should lead, the rest keep their order.");
+    }
+
+    @Test
+    public void testCapturesOrderedByValue() {
+        // Arrange
+        MoveOrderer orderer = new MoveOrderer(8);
+        Position withKing = new Position(true);
+        withKing.setPiece(27, Position.BLACK_MAN);
+        withKing.setPiece(28, Position.BLACK_KING);
+        long man = PackedMove.of(32, 22, 1L << 27);
+        long king = PackedMove.of(33, 23, 1L << 28);
+        MoveList moves = listOf(man, king);
+
+        // Act
+        orderer.order(moves, withKing, 0, NONE, NONE, null);
+
+        // Assert
+        assertArrayEquals(new long[] {king, man}, toArray(moves), "The more valuable capture should come first.");
+    }
+
+    @Test
+    public void testKillerAndHistoryPromoteQuietMoves() {
+        // Arrange
+        MoveOrderer orderer = new MoveOrderer(8);
+        long a = PackedMove.of(30, 25, 0L);
+        long b = PackedMove.of(31, 26, 0L);
+        long c = PackedMove.of(32, 27, 0L);
+
+        // Act: c refutes at ply 2, b at ply 3
+        orderer.recordCutoff(c, 2, 4);
+        orderer.recordCutoff(b, 3, 1);
+        MoveList atPly2 = listOf(a, b, c);
+        MoveList atPly5 = listOf(a, b, c);
+        orderer.order(atPly2, position, 2, NONE, NONE, null);
+        orderer.order(atPly5, position, 5, NONE, NONE, null);
+
+        // Assert
+        assertArrayEquals(new long[] {c, b, a}, toArray(atPly2), "The killer should lead, then the history order.");
+        assertArrayEquals(new long[] {c, b, a}, toArray(atPly5), "Deeper cutoffs should weigh more in the history.");
+        assertEquals(16, orderer.getHistory(32, 27), "History should add the squared depth.");
+    }
+
+    @Test
+    public void testPriorsBreakTies() {
+        // Arrange
+        MoveOrderer orderer = new MoveOrderer(8);
+        long a = PackedMove.of(30, 25, 0L);
+        long b = PackedMove.of(31, 26, 0L);
+        double[] priors = new double[50];
+        priors[26] = 0.5;
+        MoveList moves = listOf(a, b);
+
+        // Act
+        orderer.order(moves, position, 0, NONE, NONE, priors);
+
+        // Assert
+        assertArrayEquals(new long[] {b, a}, toArray(moves), "The move with the higher prior should come first.");
+    }
+}
@@ -0,0 +1,110 @@
+package com.frisian_draught;
+
+import org.junit.jupiter.api.Test;
+import com.frisian_draught.AI.NeuralNetwork;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for NeuralNetwork.
+ */
+public class NeuralNetworkTest {
+
+    private static double[] randomInput(Random random, int size) {
+        double[] input = new double[size];
+        for (int i = 0; i < size; i++) {
+            // A third of the inputs are zero, like the empty squares of a board
+            input[i] = random.nextInt(3) - 1;
+        }
+        return input;
+    }
+
+    private static double[] layer(double[][] weights, double[] input) {
+        double[] output = new double[weights[0].length];
+        for (int to = 0; to < output.length; to++) {
+            double sum = 0;
+            for (int from = 0; from < input.length; from++) {
+                sum += input[from] * weights[from][to];
+            }
+            output[to] = 1 / (1 + Math.exp(-sum));
+        }
+        return output;
+    }
+
+    @Test
+    public void testPredictMatchesReference() {
+        // Arrange
+        Random random = new Random(3);
+        NeuralNetwork network = new NeuralNetwork(50, 32, 7, 0.01);
+        double[][][] weights = network.getWeights();
+        double[] input = randomInput(random, 50);
+
+        // Act
+        double[] output = network.predict(input);
+        double[] reused = new double[7];
+        network.predict(input, reused);
+
+        // Assert
+        double[] expected = layer(weights[1], layer(weights[0], input));
+        assertArrayEquals(expected, output, 1e-5, "The forward pass should match a plain matrix product.");
+        assertArrayEquals(output, reused, 0.0, "Both predict methods should give the same output.");
+    }
+
+    @Test
+    public void testWeightsRoundTrip() {
+        // Arrange
+        NeuralNetwork source = new NeuralNetwork(10, 6, 3, 0.01);
+        NeuralNetwork target = new NeuralNetwork(10, 6, 3, 0.01);
+        double[] input = randomInput(new Random(5), 10);
+
+        // Act
+        double[][][] weights = source.getWeights();
+        target.setWeights(weights);
+        weights[0][0][0] = 42;
+
+        // Assert
+        assertEquals(10, weights[0].length, "The first matrix should have a row per input.");
+        assertEquals(6, weights[0][0].length, "The first matrix should have a column per hidden unit.");
+        assertEquals(6, weights[1].length, "The second matrix should have a row per hidden unit.");
+        assertEquals(3, weights[1][0].length, "The second matrix should have a column per output.");
+        assertArrayEquals(source.predict(input), target.predict(input), 0.0, "Copied weights should predict the same.");
+        assertNotEquals(42.0, source.getWeights()[0][0][0], "The returned weights should be a copy.");
+    }
+
+    @Test
+    public void testSetWeightsRejectsWrongShape() {
+        // Arrange
+        NeuralNetwork network = new NeuralNetwork(10, 6, 3, 0.01);
+        double[][][] weights = new NeuralNetwork(10, 5, 3, 0.01).getWeights();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> network.setWeights(weights),
+                "Weights of another shape should be rejected.");
+    }
+
+    @Test
+    public void testTrainingReducesError() {
+        // Arrange
+        NeuralNetwork network = new NeuralNetwork(20, 16, 2, 0.05);
+        double[] input = randomInput(new Random(7), 20);
+        double[] target = {0.9, 0.1};
+        double before = error(network.predict(input), target);
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            network.train(input, target);
+        }
+
+        // Assert
+        assertTrue(error(network.predict(input), target) < before, "Training should move the output toward the target.");
+    }
+
+    private static double error(double[] output, double[] target) {
+        double sum = 0;
+        for (int i = 0; i < output.length; i++) {
+            sum += (output[i] - target[i]) * (output[i] - target[i]);
+        }
+        return sum;
+    }
+}
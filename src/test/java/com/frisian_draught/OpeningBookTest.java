@@ -0,0 +1,149 @@
+package com.frisian_draught;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.frisian_draught.AI.Book.OpeningBook;
+import com.frisian_draught.AI.Book.OpeningBookBuilder;
+import com.frisian_draught.board.rules.LegalMove;
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.Squares;
+import com.frisian_draught.board.rules.UndoInfo;
+import com.frisian_draught.util.PDNParser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class OpeningBookTest {
+
+    private static final String GAMES =
+            """
+            [Event "Game 1"]
+            [Result "2-0"]
+
+            1. 32-28 19-23 2. 28x19 14x23 2-0
+
+            [Event "Game 2"]
+            [Result "1-1"]
+
+            1. 32-28 19-23 1-1
+
+            [Event "Game 3"]
+            [Result "0-2"]
+
+            1. 33-29 18-22 0-2
+            """;
+
+    private OpeningBook build(Path directory, int runEntries) throws IOException {
+        Files.createDirectories(directory);
+        Path pdn = directory.resolve("games.pdn");
+        Files.writeString(pdn, GAMES);
+        Path book = directory.resolve("opening.fdob");
+        long games = OpeningBookBuilder.build(List.of(pdn), book, 10, runEntries);
+        assertEquals(3, games, "All games of the collection should be read");
+        return new OpeningBook(book);
+    }
+
+    @Test
+    public void testCountsMovesAndResults(@TempDir Path directory) throws IOException {
+        // Arrange: a run per game forces the runs to be merged
+        OpeningBook book = build(directory, 1);
+
+        // Act
+        List<OpeningBook.BookMove> moves = book.probe(Position.initial().getKey());
+
+        // Assert
+        assertEquals(2, moves.size(), "Two different first moves were played");
+        OpeningBook.BookMove first = moves.stream().filter(move -> move.from() == 31).findFirst().orElseThrow();
+        assertEquals(27, first.to(), "32-28 goes from square index 31 to 27");
+        assertEquals(2, first.games(), "32-28 was played in two games");
+        assertEquals(1, first.wins(), "White won one of them");
+        assertEquals(1, first.draws(), "The other was drawn");
+        OpeningBook.BookMove second = moves.stream().filter(move -> move.from() == 32).findFirst().orElseThrow();
+        assertEquals(1, second.games(), "33-29 was played once");
+        assertEquals(0, second.wins(), "White lost that game");
+        assertEquals(0.75, first.score(), 1e-9, "A win and a draw score three quarters");
+    }
+
+    @Test
+    public void testMergedBookMatchesSingleRun(@TempDir Path directory) throws IOException {
+        // Arrange
+        OpeningBook merged = build(directory.resolve("merged"), 1);
+        OpeningBook single = build(directory.resolve("single"), 1 << 10);
+
+        // Act / Assert
+        assertEquals(single.getEntryCount(), merged.getEntryCount(), "Merging runs should add up equal entries");
+        assertEquals(single.probe(Position.initial().getKey()), merged.probe(Position.initial().getKey()), "Both books should hold the same counts");
+    }
+
+    @Test
+    public void testSelectPlaysLegalBookMoves(@TempDir Path directory) throws IOException {
+        // Arrange
+        OpeningBook book = build(directory, 1 << 10);
+        Position position = Position.initial();
+
+        // Act
+        LegalMove move = book.select(position, new Random(7));
+
+        // Assert
+        assertNotNull(move, "The start position is in the book");
+        assertTrue(move.getFrom() == 31 || move.getFrom() == 32, "The move should be one of the book moves");
+        position.make(move, new UndoInfo());
+        assertFalse(book.probe(position.getKey()).isEmpty(), "The reply to a book move is in the book");
+    }
+
+    @Test
+    public void testUnknownPositionIsNotInBook(@TempDir Path directory) throws IOException {
+        // Arrange
+        OpeningBook book = build(directory, 1 << 10);
+        Position position = new Position(true);
+        position.setPiece(Squares.at(3, 4), Position.WHITE_KING);
+        position.setPiece(Squares.at(6, 7), Position.BLACK_MAN);
+
+        // Act / Assert
+        assertTrue(book.probe(position.getKey()).isEmpty(), "A position from no game should have no book moves");
+        assertNull(book.select(position, new Random(7)), "Nothing should be selected outside the book");
+    }
+
+    @Test
+    public void testGameWithoutMovesKeepsItsTags(@TempDir Path directory) throws IOException {
+        // Arrange
+        Path pdn = directory.resolve("games.pdn");
+        Files.writeString(
+                pdn,
+                """
+                [Event "Abandoned"]
+                [Result "0-2"]
+
+                [Event "Played"]
+                [Result "2-0"]
+
+                1. 32-28 19-23 2-0
+                """);
+        List<Map<String, String>> tags = new ArrayList<>();
+        List<Integer> moveCounts = new ArrayList<>();
+
+        // Act
+        PDNParser.streamGames(
+                pdn,
+                (gameTags, moves) -> {
+                    tags.add(gameTags);
+                    moveCounts.add(moves.size());
+                });
+
+        // Assert
+        assertEquals(2, tags.size(), "A game without moves should still be emitted on its own");
+        assertEquals("0-2", tags.get(0).get("Result"), "The first game should keep its result");
+        assertEquals(0, (int) moveCounts.get(0), "The first game has no moves");
+        assertEquals("2-0", tags.get(1).get("Result"), "The second game should keep its result");
+        assertEquals("Played", tags.get(1).get("Event"), "The tags should not be merged");
+        assertEquals(2, (int) moveCounts.get(1), "The second game's moves should be read");
+    }
+}
@@ -0,0 +1,86 @@
+package com.frisian_draught;
+
+import org.junit.jupiter.api.Test;
+import com.frisian_draught.board.Move;
+import com.frisian_draught.board.rules.LegalMove;
+import com.frisian_draught.board.rules.MoveList;
+import com.frisian_draught.board.rules.PackedMove;
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.RulesEngine;
+import com.frisian_draught.board.rules.UndoInfo;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for PackedMove and MoveList. Squares are indexed 0 to 49, i.e. PDN notation minus one.
+ */
+public class PackedMoveTest {
+
+    @Test
+    public void testPackingKeepsSquaresAndCaptures() {
+        // Arrange
+        long captured = 1L << 22 | 1L << 49;
+
+        // Act
+        long move = PackedMove.of(49, 0, captured);
+
+        // Assert
+        assertTrue(move > 0, "A packed move should be positive.");
+        assertEquals(49, PackedMove.getFrom(move), "The origin should be kept.");
+        assertEquals(0, PackedMove.getTo(move), "The destination should be kept.");
+        assertEquals(captured, PackedMove.getCaptured(move), "The captured squares should be kept.");
+        assertEquals(2, PackedMove.getCaptureCount(move), "Two pieces are captured.");
+        assertEquals("50x1", PackedMove.toString(move), "The move should print in PDN notation.");
+    }
+
+    @Test
+    public void testConversionToMoveAndBack() {
+        // Arrange: white man on 33 takes the black man on 23
+        Position position = new Position(true);
+        position.setPiece(32, Position.WHITE_MAN);
+        position.setPiece(22, Position.BLACK_MAN);
+        LegalMove capture = RulesEngine.generateMoves(position).get(0);
+
+        // Act
+        Move move = PackedMove.toMove(PackedMove.of(capture));
+
+        // Assert
+        assertEquals(capture.toString(), move.toString(), "The UI move should be the same move.");
+        assertEquals(1, move.getCapturedPositions().size(), "The captured piece should be listed.");
+        assertEquals(PackedMove.of(capture), PackedMove.of(move), "Packing the UI move should give the same move.");
+    }
+
+    @Test
+    public void testPackedGenerationMatchesLegalMoves() {
+        // Arrange: positions along random games
+        Random random = new Random(11);
+        MoveList packed = new MoveList();
+        UndoInfo undo = new UndoInfo();
+
+        for (int game = 0; game < 20; game++) {
+            Position position = Position.initial();
+            for (int ply = 0; ply < 80; ply++) {
+                // Act
+                List<LegalMove> moves = RulesEngine.generateMoves(position);
+                packed.clear();
+                RulesEngine.generateMoves(position, packed);
+
+                // Assert
+                assertEquals(moves.size(), packed.size(), "Both generators should find the same moves.");
+                for (int i = 0; i < moves.size(); i++) {
+                    assertEquals(PackedMove.of(moves.get(i)), packed.get(i), "Moves should match in order.");
+                }
+                if (moves.isEmpty()) {
+                    break;
+                }
+                long move = packed.get(random.nextInt(packed.size()));
+                Position byLegalMove = new Position(position);
+                byLegalMove.make(PackedMove.toLegalMove(move, position), new UndoInfo());
+                position.make(move, undo);
+                assertEquals(byLegalMove.getKey(), position.getKey(), "Both ways of making a move should agree.");
+            }
+        }
+    }
+}
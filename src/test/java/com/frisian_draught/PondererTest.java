@@ -0,0 +1,105 @@
+package com.frisian_draught;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.frisian_draught.AI.MiniMax.MiniMaxTree;
+import com.frisian_draught.AI.MiniMax.Ponderer;
+import com.frisian_draught.AI.MiniMax.TranspositionTable;
+import com.frisian_draught.board.rules.LegalMove;
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.RepetitionTracker;
+import com.frisian_draught.board.rules.RulesEngine;
+import com.frisian_draught.board.rules.UndoInfo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class PondererTest {
+
+    private final TranspositionTable table = new TranspositionTable();
+    private final Ponderer ponderer = new Ponderer();
+
+    /** Ponders on another thread for a while, then interrupts it as a bot's next move would. */
+    private void ponderFor(long millis) throws InterruptedException {
+        Thread thread = new Thread(() -> ponderer.ponder(new MiniMaxTree(null, table)));
+        thread.start();
+        Thread.sleep(millis);
+        thread.interrupt();
+        thread.join(10_000);
+        assertFalse(thread.isAlive(), "Pondering should stop when interrupted");
+    }
+
+    /** Plays a move on the position and records it in the history. */
+    private static void play(Position position, RepetitionTracker history, LegalMove move) {
+        UndoInfo undo = new UndoInfo();
+        position.make(move, undo);
+        history.push(position, undo);
+    }
+
+    private static boolean isLegal(Position position, LegalMove move) {
+        return RulesEngine.generateMoves(position).stream()
+                .anyMatch(legal -> legal.getFrom() == move.getFrom() && legal.getTo() == move.getTo());
+    }
+
+    @Test
+    public void testPonderHitPlaysFromPonderedPosition() throws InterruptedException {
+        // Arrange: the bot moves, expecting the second move of its variation as the reply
+        Position position = Position.initial();
+        RepetitionTracker history = new RepetitionTracker();
+        history.reset(position.getKey());
+        MiniMaxTree tree = new MiniMaxTree(null, table);
+        LegalMove played = ponderer.search(tree, position, history, true, 200);
+        List<LegalMove> variation = tree.getLastResult().getMoves();
+        assertTrue(variation.size() >= 2, "The variation should hold the expected reply");
+        LegalMove reply = variation.get(1);
+        ponderFor(500);
+
+        // Act: the opponent plays the expected reply
+        play(position, history, played);
+        play(position, history, reply);
+        LegalMove move = ponderer.search(new MiniMaxTree(null, table), position, history, true, 50);
+
+        // Assert
+        assertEquals(1, ponderer.getHits(), "The reply was the one pondered");
+        assertEquals(0, ponderer.getMisses(), "There was no other reply");
+        assertNotNull(move, "A move should be found");
+        assertTrue(isLegal(position, move), "The move should be legal after the reply");
+    }
+
+    @Test
+    public void testPonderMissIsDiscarded() throws InterruptedException {
+        // Arrange
+        Position position = Position.initial();
+        RepetitionTracker history = new RepetitionTracker();
+        history.reset(position.getKey());
+        MiniMaxTree tree = new MiniMaxTree(null, table);
+        LegalMove played = ponderer.search(tree, position, history, true, 200);
+        LegalMove expected = tree.getLastResult().getMoves().get(1);
+        ponderFor(200);
+
+        // Act: the opponent plays another reply
+        play(position, history, played);
+        LegalMove other =
+                RulesEngine.generateMoves(position).stream()
+                        .filter(reply -> reply.getFrom() != expected.getFrom() || reply.getTo() != expected.getTo())
+                        .findFirst()
+                        .orElseThrow();
+        play(position, history, other);
+        LegalMove move = ponderer.search(new MiniMaxTree(null, table), position, history, true, 50);
+
+        // Assert
+        assertEquals(0, ponderer.getHits(), "The pondered position was not reached");
+        assertEquals(1, ponderer.getMisses(), "The ponder search should count as a miss");
+        assertTrue(isLegal(position, move), "The move should come from the position reached");
+    }
+
+    @Test
+    public void testPonderWithoutExpectedReplyReturns() throws InterruptedException {
+        // Arrange: nothing was searched, so no reply is expected
+
+        // Act / Assert
+        ponderFor(0);
+        assertEquals(0.0, ponderer.getHitRate(), "Nothing was pondered");
+    }
+}
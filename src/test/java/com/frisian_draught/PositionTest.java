@@ -0,0 +1,158 @@
+package com.frisian_draught;
+
+import org.junit.jupiter.api.Test;
+import com.frisian_draught.board.rules.LegalMove;
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.RulesEngine;
+import com.frisian_draught.board.rules.Squares;
+import com.frisian_draught.board.rules.UndoInfo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for Position make/unmake. Squares are indexed 0 to 49, i.e. PDN notation minus one.
+ */
+public class PositionTest {
+
+    @Test
+    public void testUnmakeRestoresEveryOpeningMove() {
+        // Arrange
+        Position position = Position.initial();
+        Position original = new Position(position);
+        UndoInfo undo = new UndoInfo();
+
+        for (LegalMove move : RulesEngine.generateMoves(position)) {
+            // Act
+            position.make(move, undo);
+            position.unmake(undo);
+
+            // Assert
+            assertEquals(original, position, "Unmake should restore the position after " + move + ".");
+        }
+    }
+
+    @Test
+    public void testCaptureRemovesPieceAndUnmakeRestoresIt() {
+        // Arrange: white man on 33 captures a black king on 28
+        Position position = new Position(true);
+        position.setPiece(32, Position.WHITE_MAN);
+        position.setPiece(27, Position.BLACK_KING);
+        Position original = new Position(position);
+        UndoInfo undo = new UndoInfo();
+        LegalMove capture = RulesEngine.generateMoves(position).get(0);
+
+        // Act
+        position.make(capture, undo);
+
+        // Assert
+        assertTrue(position.isEmpty(27), "The captured king should be removed.");
+        assertEquals(capture.getCaptured(), undo.getCapturedKings(), "The undo record should remember the king.");
+        assertFalse(position.isWhiteToMove(), "Black should be to move.");
+        position.unmake(undo);
+        assertEquals(original, position, "Unmake should put the king back.");
+    }
+
+    @Test
+    public void testPromotionIsTakenBack() {
+        // Arrange: white man on 6 moves to the back row
+        Position position = new Position(true);
+        position.setPiece(5, Position.WHITE_MAN);
+        position.setPiece(49, Position.BLACK_MAN);
+        Position original = new Position(position);
+        UndoInfo undo = new UndoInfo();
+        LegalMove move = new LegalMove(5, 0);
+
+        // Act
+        position.make(move, undo);
+
+        // Assert
+        assertTrue(undo.isPromoted(), "The man should be promoted.");
+        assertEquals(Position.WHITE_KING, position.getPiece(0), "A white king should stand on 1.");
+        position.unmake(undo);
+        assertEquals(original, position, "Unmake should turn the king back into a man.");
+    }
+
+    @Test
+    public void testKeyIsUpdatedIncrementally() {
+        // Arrange: a capture of a king, and a promotion
+        Position capture = new Position(true);
+        capture.setPiece(32, Position.WHITE_MAN);
+        capture.setPiece(27, Position.BLACK_KING);
+        Position promotion = new Position(true);
+        promotion.setPiece(5, Position.WHITE_MAN);
+        promotion.setPiece(49, Position.BLACK_MAN);
+        UndoInfo undo = new UndoInfo();
+
+        for (Position position : new Position[] {capture, promotion}) {
+            long before = position.getKey();
+            for (LegalMove move : RulesEngine.generateMoves(position)) {
+                // Act
+                position.make(move, undo);
+
+                // Assert
+                assertEquals(position.computeKey(), position.getKey(), "Incremental key should match after " + move + ".");
+                position.unmake(undo);
+                assertEquals(before, position.getKey(), "Unmake should restore the key.");
+            }
+        }
+    }
+
+    @Test
+    public void testEvaluationTermsAreUpdatedIncrementally() {
+        // Arrange: captures of men and kings, and a promotion
+        Position capture = new Position(false);
+        capture.setPiece(17, Position.BLACK_MAN);
+        capture.setPiece(22, Position.WHITE_MAN);
+        capture.setPiece(32, Position.WHITE_MAN);
+        capture.setPiece(12, Position.WHITE_KING);
+        Position promotion = new Position(true);
+        promotion.setPiece(5, Position.WHITE_MAN);
+        promotion.setPiece(44, Position.BLACK_MAN);
+        UndoInfo undo = new UndoInfo();
+
+        assertEquals(0, Position.initial().getAdvancement(), "The opening position should be balanced.");
+        assertEvaluationTerms(Position.initial());
+        for (Position position : new Position[] {capture, promotion}) {
+            int before = position.getAdvancement();
+            assertEquals(position.computeAdvancement(), before, "Setting pieces should update the advancement.");
+            assertEvaluationTerms(position);
+            for (LegalMove move : RulesEngine.generateMoves(position)) {
+                // Act
+                position.make(move, undo);
+
+                // Assert
+                assertEquals(position.computeAdvancement(), position.getAdvancement(), "Incremental advancement should match after " + move + ".");
+                assertEvaluationTerms(position);
+                position.unmake(undo);
+                assertEquals(before, position.getAdvancement(), "Unmake should restore the advancement.");
+                assertEvaluationTerms(position);
+            }
+        }
+    }
+
+    private static void assertEvaluationTerms(Position position) {
+        assertEquals(Long.bitCount(position.getWhiteMen()) - Long.bitCount(position.getBlackMen()), position.getManBalance(), "Incremental man balance should match the bitboards.");
+        assertEquals(Long.bitCount(position.getWhiteKings()) - Long.bitCount(position.getBlackKings()), position.getKingBalance(), "Incremental king balance should match the bitboards.");
+        assertEquals(Long.bitCount(position.getPieces(true) & Squares.EDGE) - Long.bitCount(position.getPieces(false) & Squares.EDGE), position.getEdgeBalance(), "Incremental edge balance should match the bitboards.");
+    }
+
+    @Test
+    public void testTranspositionsShareKey() {
+        // Arrange
+        Position first = Position.initial();
+        Position second = Position.initial();
+        UndoInfo undo = new UndoInfo();
+
+        // Act: 31-26 35-30 against 16-21 in two move orders
+        first.make(new LegalMove(30, 25), undo);
+        first.make(new LegalMove(15, 20), undo);
+        first.make(new LegalMove(34, 29), undo);
+        second.make(new LegalMove(34, 29), undo);
+        second.make(new LegalMove(15, 20), undo);
+        second.make(new LegalMove(30, 25), undo);
+
+        // Assert
+        assertEquals(first.getKey(), second.getKey(), "Transpositions should have the same key.");
+        assertEquals(first.computeKey(), first.getKey(), "Incremental key should match a full computation.");
+    }
+}
@@ -0,0 +1,131 @@
+package com.frisian_draught;
+
+import org.joml.Vector2i;
+import org.junit.jupiter.api.Test;
+import com.frisian_draught.board.MoveManager;
+import com.frisian_draught.board.Pawn;
+import com.frisian_draught.board.rules.LegalMove;
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.RepetitionTracker;
+import com.frisian_draught.board.rules.UndoInfo;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the Zobrist-keyed RepetitionTracker.
+ */
+public class RepetitionTrackerTest {
+
+    @Test
+    public void testKingShuffleIsThreefold() {
+        // Arrange: two lone kings moving back and forth
+        Position position = new Position(true);
+        position.setPiece(45, Position.WHITE_KING);
+        position.setPiece(4, Position.BLACK_KING);
+        RepetitionTracker tracker = new RepetitionTracker();
+        tracker.reset(position.getKey());
+        LegalMove[] shuffle = {
+            new LegalMove(45, 40), new LegalMove(4, 9), new LegalMove(40, 45), new LegalMove(9, 4)
+        };
+        UndoInfo undo = new UndoInfo();
+
+        // Act
+        for (int i = 0; i < 8; i++) {
+            position.make(shuffle[i % 4], undo);
+            tracker.push(position, undo);
+        }
+
+        // Assert
+        assertEquals(3, tracker.getCount(), "The start position should have occurred three times.");
+        assertTrue(tracker.isThreefold(), "The game should be drawn by repetition.");
+    }
+
+    @Test
+    public void testIrreversibleMoveRestartsCount() {
+        // Arrange
+        RepetitionTracker tracker = new RepetitionTracker();
+        tracker.reset(1L);
+        tracker.push(2L, false);
+        tracker.push(1L, false);
+
+        // Act
+        int afterManMove = tracker.push(1L, true);
+
+        // Assert
+        assertEquals(1, afterManMove, "Positions before a man move should not count.");
+    }
+
+    @Test
+    public void testPopRestoresCounts() {
+        // Arrange
+        RepetitionTracker tracker = new RepetitionTracker();
+        tracker.reset(1L);
+        tracker.push(2L, false);
+        tracker.push(1L, true);
+
+        // Act
+        tracker.pop();
+        int count = tracker.push(1L, false);
+
+        // Assert
+        assertEquals(2, count, "Popping an irreversible move should restore the earlier history.");
+    }
+
+    /**
+     * Plays a king shuffle the way a bot plays quiet moves: the pawn is moved on the board, then
+     * the position is recorded with the side that moved still on turn.
+     */
+    private static void playBotMoves(RepetitionTracker tracker, List<Pawn> pawns, int moves) {
+        Vector2i[][] shuffle = {
+            {new Vector2i(1, 8), new Vector2i(2, 9)},
+            {new Vector2i(8, 1), new Vector2i(9, 0)}
+        };
+        for (int ply = 0; ply < moves; ply++) {
+            boolean whiteMoves = ply % 2 == 0;
+            Pawn king = pawns.get(whiteMoves ? 0 : 1);
+            Vector2i[] squares = shuffle[whiteMoves ? 0 : 1];
+            king.setPosition(king.getPosition().equals(squares[0]) ? squares[1] : squares[0]);
+            MoveManager.recordPosition(tracker, pawns, whiteMoves, !king.isKing());
+        }
+    }
+
+    @Test
+    public void testBotKingShuffleIsThreefold() {
+        // Arrange
+        List<Pawn> pawns = List.of(
+                new Pawn(new Vector2i(1, 8), true, true),
+                new Pawn(new Vector2i(8, 1), false, true));
+        RepetitionTracker tracker = new RepetitionTracker();
+
+        // Act
+        playBotMoves(tracker, pawns, 8);
+        boolean beforeThirdTime = tracker.isThreefold();
+        playBotMoves(tracker, pawns, 1);
+
+        // Assert
+        assertFalse(beforeThirdTime, "Two shuffles should repeat a position only twice.");
+        assertEquals(9, tracker.size(), "Every quiet bot move should be recorded.");
+        assertTrue(tracker.isThreefold(), "The shuffle should be drawn by repetition.");
+    }
+
+    @Test
+    public void testUndoOfBotMovesKeepsTrackerInStep() {
+        // Arrange
+        List<Pawn> pawns = List.of(
+                new Pawn(new Vector2i(1, 8), true, true),
+                new Pawn(new Vector2i(8, 1), false, true));
+        RepetitionTracker tracker = new RepetitionTracker();
+        playBotMoves(tracker, pawns, 9);
+
+        // Act: undo the last move of each side, one entry per move
+        tracker.pop();
+        tracker.pop();
+
+        // Assert
+        assertEquals(7, tracker.size(), "Undo should remove exactly the two undone moves.");
+        assertEquals(2, tracker.getCount(), "The position reached should have occurred twice.");
+        assertFalse(tracker.isThreefold(), "The repetition should be undone with the moves.");
+    }
+}
@@ -0,0 +1,122 @@
+package com.frisian_draught;
+
+import org.junit.jupiter.api.Test;
+import com.frisian_draught.board.rules.LegalMove;
+import com.frisian_draught.board.rules.Perft;
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.RulesEngine;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the headless RulesEngine. Squares are indexed 0 to 49, i.e. PDN notation minus one.
+ */
+public class RulesEngineTest {
+
+    @Test
+    public void testInitialPositionHasNineMoves() {
+        // Arrange
+        Position position = Position.initial();
+
+        // Act
+        List<LegalMove> moves = RulesEngine.generateMoves(position);
+
+        // Assert
+        assertEquals(9, moves.size(), "White should have nine opening moves.");
+        assertTrue(moves.stream().noneMatch(LegalMove::isCapture), "No captures in the opening position.");
+    }
+
+    @Test
+    public void testOrthogonalCapture() {
+        // Arrange: white man on 33, black man on 23, square 13 is free
+        Position position = new Position(true);
+        position.setPiece(32, Position.WHITE_MAN);
+        position.setPiece(22, Position.BLACK_MAN);
+
+        // Act
+        List<LegalMove> moves = RulesEngine.generateMoves(position);
+
+        // Assert
+        assertEquals(1, moves.size(), "Capturing is compulsory, only the capture should be legal.");
+        assertEquals("33x13", moves.get(0).toString(), "The man should capture vertically over 23.");
+    }
+
+    @Test
+    public void testMajorityRulePrefersKing() {
+        // Arrange: white man on 33 can take a black king on 28 or a black man on 29
+        Position position = new Position(true);
+        position.setPiece(32, Position.WHITE_MAN);
+        position.setPiece(27, Position.BLACK_KING);
+        position.setPiece(28, Position.BLACK_MAN);
+
+        // Act
+        List<LegalMove> moves = RulesEngine.generateMoves(position);
+
+        // Assert
+        assertEquals(1, moves.size(), "Only the most valuable capture should be legal.");
+        assertEquals(RulesEngine.KING_VALUE, moves.get(0).getCaptureValue(), "The king should be captured.");
+    }
+
+    @Test
+    public void testKingCapturesAtRange() {
+        // Arrange: white king on 46, black men on 41 and 19 along the same diagonal
+        Position position = new Position(true);
+        position.setPiece(45, Position.WHITE_KING);
+        position.setPiece(40, Position.BLACK_MAN);
+        position.setPiece(18, Position.BLACK_MAN);
+
+        // Act
+        List<LegalMove> moves = RulesEngine.generateMoves(position);
+
+        // Assert
+        assertEquals(3, moves.size(), "The king may land on any free square behind the last piece.");
+        for (LegalMove move : moves) {
+            assertEquals(2, move.getCaptureCount(), "Both men should be captured.");
+        }
+    }
+
+    @Test
+    public void testKingMoveLimitWhileMenRemain() {
+        // Arrange: a white king that already made three quiet moves, plus a white man
+        Position position = new Position(true);
+        position.setPiece(45, Position.WHITE_KING);
+        position.setPiece(35, Position.WHITE_MAN);
+        position.setKingMoves(true, 45, RulesEngine.KING_MOVE_LIMIT);
+
+        // Act
+        List<LegalMove> moves = RulesEngine.generateMoves(position);
+
+        // Assert
+        assertFalse(moves.isEmpty(), "The man should still be able to move.");
+        assertTrue(moves.stream().allMatch(move -> move.getFrom() == 35), "The king should be frozen.");
+    }
+
+    @Test
+    public void testPerftMatchesReferenceCounts() {
+        // Arrange
+        Position position = Position.initial();
+        Position original = new Position(position);
+        long[] expected = {9, 81, 658, 3874, 21265};
+
+        for (int depth = 1; depth <= expected.length; depth++) {
+            // Act
+            long nodes = Perft.perft(position, depth);
+
+            // Assert
+            assertEquals(expected[depth - 1], nodes, "Perft mismatch at depth " + depth + ".");
+        }
+        assertEquals(original, position, "Perft should leave the position unchanged.");
+    }
+
+    @Test
+    public void testPositionFromBoardPositionTag() {
+        // Arrange / Act: same tag as tutorial3.pdn, plus a black king
+        Position position = Position.fromBoardPosition("W:33:B:12,14,27,28,29,30k", true);
+
+        // Assert
+        assertEquals(Position.WHITE_MAN, position.getPiece(32), "White man on 33.");
+        assertEquals(Position.BLACK_KING, position.getPiece(29), "Black king on 30.");
+        assertEquals(7, Long.bitCount(position.getOccupied()), "Seven pieces on the board.");
+    }
+}
@@ -0,0 +1,117 @@
+package com.frisian_draught;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.frisian_draught.AI.Endgame.EndgameIndex;
+import com.frisian_draught.AI.Endgame.Tablebase;
+import com.frisian_draught.AI.Endgame.TablebaseGenerator;
+import com.frisian_draught.AI.MiniMax.MiniMaxTree;
+import com.frisian_draught.board.rules.LegalMove;
+import com.frisian_draught.board.rules.Position;
+import com.frisian_draught.board.rules.RulesEngine;
+import com.frisian_draught.board.rules.Squares;
+import com.frisian_draught.board.rules.UndoInfo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public class TablebaseTest {
+
+    @Test
+    public void testIndexRoundTrip() {
+        // Arrange
+        int materialKey = EndgameIndex.materialKey(1, 1, 1, 1);
+        long size = EndgameIndex.size(materialKey);
+        Position position = new Position(true);
+
+        // Act / Assert
+        for (long index = 0; index < size; index += 9973) {
+            EndgameIndex.decode(materialKey, index, true, position);
+            assertEquals(materialKey, EndgameIndex.materialKey(position), "Decoding should place the class's pieces");
+            assertEquals(index, EndgameIndex.index(position), "Index " + index + " should survive a round trip");
+        }
+        assertEquals(50L * 49 * 48 * 47, size, "Four single pieces can stand on any four squares");
+    }
+
+    @Test
+    public void testResultsAreConsistentWithMoves(@TempDir Path directory) throws IOException {
+        // Arrange
+        Tablebase tablebase = TablebaseGenerator.generate(directory, 2);
+        int materialKey = EndgameIndex.materialKey(0, 1, 1, 0);
+        Position position = new Position(true);
+        UndoInfo undo = new UndoInfo();
+        int decided = 0;
+
+        // Act / Assert
+        for (boolean whiteToMove : new boolean[] {true, false}) {
+            for (long index = 0; index < EndgameIndex.size(materialKey); index++) {
+                EndgameIndex.decode(materialKey, index, whiteToMove, position);
+                if (EndgameIndex.isUnreachable(position)) {
+                    continue;
+                }
+                int result = tablebase.probe(position);
+                int best = Integer.MIN_VALUE;
+                for (LegalMove move : RulesEngine.generateMoves(position)) {
+                    position.make(move, undo);
+                    best = Math.max(best, -tablebase.probe(position));
+                    position.unmake(undo);
+                }
+                if (best == Integer.MIN_VALUE) {
+                    assertEquals(-Tablebase.WIN, result, "A side without moves has lost");
+                } else if (result != Tablebase.DRAW) {
+                    decided++;
+                    assertEquals(result > 0 ? result + 1 : result - 1, best, "Best move should be one ply closer to the end");
+                } else {
+                    assertEquals(Tablebase.DRAW, best, "A drawn position should have a drawing move and no winning one");
+                }
+            }
+        }
+        assertTrue(decided > 0, "Some king against man positions should be decided");
+    }
+
+    @Test
+    public void testTablesAreReadBackFromFiles(@TempDir Path directory) throws IOException {
+        // Arrange: the white king takes the black king next to it
+        Tablebase generated = TablebaseGenerator.generate(directory, 2);
+        Position position = new Position(true);
+        position.setPiece(Squares.at(3, 4), Position.WHITE_KING);
+        position.setPiece(Squares.at(4, 3), Position.BLACK_KING);
+
+        // Act
+        Tablebase opened = new Tablebase(directory);
+
+        // Assert
+        assertEquals(2, opened.getMaxPieces(), "Tables of up to two pieces were generated");
+        assertEquals(Tablebase.WIN - 1, opened.probe(position), "Capturing the last piece wins in one ply");
+        assertEquals(generated.probe(position), opened.probe(position), "The files should hold the generated results");
+        assertTrue(opened.bestMove(position).isCapture(), "The winning move is the capture");
+    }
+
+    @Test
+    public void testSearchPlaysTablebaseMove(@TempDir Path directory) throws IOException {
+        // Arrange: a black man against a white king that wins
+        Tablebase tablebase = TablebaseGenerator.generate(directory, 2);
+        int materialKey = EndgameIndex.materialKey(0, 1, 1, 0);
+        Position position = new Position(true);
+        for (long index = 0; ; index++) {
+            EndgameIndex.decode(materialKey, index, true, position);
+            int result = tablebase.probe(position);
+            if (!EndgameIndex.isUnreachable(position) && Tablebase.isWin(result) && Tablebase.distance(result) > 1) {
+                break;
+            }
+        }
+        MiniMaxTree tree = new MiniMaxTree(null);
+        tree.setTablebase(tablebase);
+
+        // Act
+        LegalMove move = tree.getBestMove(new Position(position), true, 1000);
+
+        // Assert
+        position.make(move, new UndoInfo());
+        int after = tablebase.probe(position);
+        assertTrue(Tablebase.isLoss(after), "The search should keep the win");
+    }
+}
@@ -0,0 +1,51 @@
+package com.frisian_draught;
+
+import org.junit.jupiter.api.Test;
+import com.frisian_draught.AI.MiniMax.TranspositionTable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the TranspositionTable.
+ */
+public class TranspositionTableTest {
+
+    @Test
+    public void testStoreAndProbe() {
+        // Arrange
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 0x1234_5678_9ABC_DEF0L;
+
+        // Act
+        table.store(key, 6, TranspositionTable.LOWER, -2.5, 31, 26);
+        long entry = table.probe(key);
+
+        // Assert
+        assertNotEquals(TranspositionTable.MISS, entry, "The stored position should be found.");
+        assertEquals(6, TranspositionTable.getDepth(entry), "Depth should round-trip.");
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.getBound(entry), "Bound should round-trip.");
+        assertEquals(-2.5, TranspositionTable.getScore(entry), "Score should round-trip.");
+        assertEquals(31, TranspositionTable.getFrom(entry), "Best move origin should round-trip.");
+        assertEquals(26, TranspositionTable.getTo(entry), "Best move destination should round-trip.");
+        assertEquals(TranspositionTable.MISS, table.probe(key + 1), "Other positions should miss.");
+    }
+
+    @Test
+    public void testDeepEntrySurvivesShallowStores() {
+        // Arrange: three keys that share a bucket
+        TranspositionTable table = new TranspositionTable(1);
+        long deep = (1L << 32) | 1;
+        long shallow = (1L << 32) | 2;
+        long newer = (1L << 32) | 3;
+        table.store(deep, 8, TranspositionTable.EXACT, 1.0, 0, 5);
+
+        // Act
+        table.store(shallow, 2, TranspositionTable.EXACT, 0.0, 1, 6);
+        table.store(newer, 1, TranspositionTable.EXACT, 0.0, 2, 7);
+
+        // Assert
+        assertNotEquals(TranspositionTable.MISS, table.probe(deep), "The deep entry should be kept.");
+        assertEquals(TranspositionTable.MISS, table.probe(shallow), "The always-replace slot should be overwritten.");
+        assertNotEquals(TranspositionTable.MISS, table.probe(newer), "The newest entry should be stored.");
+    }
+}